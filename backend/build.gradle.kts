@@ -10,6 +10,7 @@ plugins {
     id("com.github.spotbugs") version "5.2.1"
     id("org.flywaydb") version "10.8.1"
     id("com.github.ben-manes.versions") version "0.50.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.firecaptain"
@@ -114,6 +115,16 @@ tasks.withType<JavaCompile> {
     ))
 }
 
+// JMH configuration
+// ./gradlew jmh で src/jmh のベンチマークを実行し、結果をJSONで出力する
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results-${version}.json"))
+    humanOutputFile.set(layout.buildDirectory.file("reports/jmh/human.txt"))
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
+
 // Checkstyle configuration
 checkstyle {
     toolVersion = "10.12.5"
@@ -0,0 +1,89 @@
+package com.firecaptain.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通報・出動指令のJSON変換のベンチマーク
+ *
+ * REST応答とWebSocket通知で使われるJSON変換を、アプリケーションと
+ * 同じ日時の扱い（ISO-8601文字列）で計測します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntitySerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private EmergencyReport report;
+    private Dispatch dispatch;
+    private String reportJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        report = new EmergencyReport();
+        report.setId(1L);
+        report.setReportNumber("ER-20240101120000-ABCD");
+        report.setCallerName("山田太郎");
+        report.setCallerPhone("090-1234-5678");
+        report.setEmergencyType(EmergencyReport.EmergencyType.FIRE);
+        report.setLocationAddress("東京都千代田区丸の内1-1-1");
+        report.setLocationLatitude(35.6812);
+        report.setLocationLongitude(139.7671);
+        report.setDescription("住宅火災、逃げ遅れの可能性あり");
+        report.setPriorityLevel(EmergencyReport.PriorityLevel.CRITICAL);
+        report.setStatus(EmergencyReport.ReportStatus.RECEIVED);
+        report.setReceivedAt(LocalDateTime.now());
+
+        dispatch = new Dispatch();
+        dispatch.setId(1L);
+        dispatch.setDispatchNumber("DISP-20240101120000-ABCD");
+        dispatch.setEmergencyReport(report);
+        dispatch.setDispatchType(Dispatch.DispatchType.FIRE_ENGINE);
+        dispatch.setPriorityLevel(EmergencyReport.PriorityLevel.CRITICAL);
+        dispatch.setStatus(Dispatch.DispatchStatus.DISPATCHED);
+        dispatch.setDispatchedAt(LocalDateTime.now());
+        dispatch.setEstimatedArrivalTime(LocalDateTime.now().plusMinutes(8));
+
+        reportJson = objectMapper.writeValueAsString(report);
+    }
+
+    @Benchmark
+    public String serializeEmergencyReport() throws Exception {
+        return objectMapper.writeValueAsString(report);
+    }
+
+    @Benchmark
+    public EmergencyReport deserializeEmergencyReport() throws Exception {
+        return objectMapper.readValue(reportJson, EmergencyReport.class);
+    }
+
+    @Benchmark
+    public String serializeDispatch() throws Exception {
+        return objectMapper.writeValueAsString(dispatch);
+    }
+}
@@ -0,0 +1,100 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.Dispatch;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.entity.Unit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 部隊選択・指令タイプ判定のベンチマーク
+ *
+ * 東京23区程度の範囲に待機中ユニットを配置したインデックスに対して、
+ * 道路ネットワーク未設定時（直線距離推定）の部隊選択を計測します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchServiceBenchmark {
+
+    private static final double MIN_LATITUDE = 35.55;
+    private static final double MAX_LATITUDE = 35.80;
+    private static final double MIN_LONGITUDE = 139.55;
+    private static final double MAX_LONGITUDE = 139.90;
+
+    @Param({"100", "1000", "10000"})
+    private int availableUnits;
+
+    private DispatchService dispatchService;
+    private Dispatch[] dispatches;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        UnitAvailabilityIndex index = new UnitAvailabilityIndex(null);
+        for (long id = 1; id <= availableUnits; id++) {
+            Unit unit = new Unit();
+            unit.setId(id);
+            unit.setUnitType(Unit.UnitType.FIRE_ENGINE);
+            unit.setStatus(Unit.UnitStatus.AVAILABLE);
+            unit.setCurrentLatitude(between(random, MIN_LATITUDE, MAX_LATITUDE));
+            unit.setCurrentLongitude(between(random, MIN_LONGITUDE, MAX_LONGITUDE));
+            unit.setCrewCount(4);
+            index.refresh(unit);
+        }
+        TravelTimeService travelTimeService = new TravelTimeService(null, "", 0.005, 40, 1.3);
+        dispatchService = new DispatchService(null, null, null, index, travelTimeService, null, null, null, null);
+
+        dispatches = new Dispatch[1024];
+        for (int i = 0; i < dispatches.length; i++) {
+            EmergencyReport report = new EmergencyReport();
+            report.setEmergencyType(EmergencyReport.EmergencyType.FIRE);
+            report.setLocationLatitude(between(random, MIN_LATITUDE, MAX_LATITUDE));
+            report.setLocationLongitude(between(random, MIN_LONGITUDE, MAX_LONGITUDE));
+            Dispatch dispatch = new Dispatch();
+            dispatch.setEmergencyReport(report);
+            dispatch.setDispatchType(Dispatch.DispatchType.FIRE_ENGINE);
+            dispatch.setPriorityLevel(EmergencyReport.PriorityLevel.HIGH);
+            dispatches[i] = dispatch;
+        }
+    }
+
+    @Benchmark
+    public List<DispatchService.UnitCandidate> selectOptimalUnits() {
+        Dispatch dispatch = dispatches[next++ & (dispatches.length - 1)];
+        return dispatchService.selectOptimalUnits(Unit.UnitType.FIRE_ENGINE, dispatch);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Unit.UnitType determineAndConvertType() {
+        EmergencyReport.EmergencyType[] types = EmergencyReport.EmergencyType.values();
+        EmergencyReport.EmergencyType type = types[next++ % types.length];
+        return dispatchService.convertDispatchTypeToUnitType(dispatchService.determineDispatchType(type));
+    }
+
+    private static double between(Random random, double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+}
@@ -0,0 +1,78 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.Dispatch;
+import com.firecaptain.entity.EmergencyCall;
+import com.firecaptain.entity.EmergencyReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知用DTOの作成のベンチマーク
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationServiceBenchmark {
+
+    private NotificationService notificationService;
+    private EmergencyCall emergencyCall;
+    private Dispatch dispatch;
+
+    @Setup
+    public void setUp() {
+        notificationService = new NotificationService(null, null);
+
+        emergencyCall = new EmergencyCall();
+        emergencyCall.setId(1L);
+        emergencyCall.setCallNumber("EC-20240101120000-ABCD");
+        emergencyCall.setStatus(EmergencyCall.CallStatus.DISPATCHED);
+        emergencyCall.setPriorityLevel(EmergencyCall.PriorityLevel.HIGH);
+        emergencyCall.setIncidentType(EmergencyCall.IncidentType.FIRE);
+        emergencyCall.setDispatchedAt(LocalDateTime.now());
+
+        dispatch = new Dispatch();
+        dispatch.setId(1L);
+        dispatch.setDispatchNumber("DISP-20240101120000-ABCD");
+        dispatch.setDispatchType(Dispatch.DispatchType.FIRE_ENGINE);
+        dispatch.setPriorityLevel(EmergencyReport.PriorityLevel.HIGH);
+        dispatch.setStatus(Dispatch.DispatchStatus.DISPATCHED);
+        dispatch.setEstimatedArrivalTime(LocalDateTime.now().plusMinutes(8));
+    }
+
+    @Benchmark
+    public Object dashboardUpdate() {
+        return notificationService.createDashboardUpdate(emergencyCall);
+    }
+
+    @Benchmark
+    public Object statusUpdate() {
+        return notificationService.createStatusUpdate(emergencyCall);
+    }
+
+    @Benchmark
+    public Object dispatchUpdate() {
+        return notificationService.createDispatchUpdate(dispatch);
+    }
+
+    @Benchmark
+    public Object systemAlert() {
+        return notificationService.createSystemAlert("Coverage deficit", "MOVE_UP");
+    }
+}
@@ -0,0 +1,66 @@
+package com.firecaptain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通報番号・指令番号・分析IDの生成のベンチマーク
+ *
+ * 番号生成は受付のたびに呼ばれるため、同時多発時を想定して
+ * 複数スレッドでも計測します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NumberGeneratorBenchmark {
+
+    private EmergencyReportService emergencyReportService;
+    private DispatchService dispatchService;
+    private DataAnalysisService dataAnalysisService;
+
+    @Setup
+    public void setUp() {
+        BusinessNumberGenerator businessNumberGenerator = new BusinessNumberGenerator(0);
+        emergencyReportService = new EmergencyReportService(null, null, null, businessNumberGenerator, null, null);
+        dispatchService = new DispatchService(null, null, null, null, null, null, null, businessNumberGenerator, null);
+        dataAnalysisService = new DataAnalysisService(null, null, null, null, null, businessNumberGenerator);
+    }
+
+    @Benchmark
+    public String reportNumber() {
+        return emergencyReportService.generateReportNumber();
+    }
+
+    @Benchmark
+    public String dispatchNumber() {
+        return dispatchService.generateDispatchNumber();
+    }
+
+    @Benchmark
+    public String analysisId() {
+        return dataAnalysisService.generateAnalysisId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String reportNumberContended() {
+        return emergencyReportService.generateReportNumber();
+    }
+}
@@ -0,0 +1,32 @@
+package com.firecaptain.actuator;
+
+import com.firecaptain.service.DispatchSloMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 出動指令SLOエンドポイント
+ *
+ * GET /actuator/dispatchslo で、通報受付から各段階完了までの
+ * 直近の p50/p95/p99 を段階・緊急事態タイプ・緊急度ごとに返します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Component
+@Endpoint(id = "dispatchslo")
+@RequiredArgsConstructor
+public class DispatchSloEndpoint {
+
+    private final DispatchSloMetrics dispatchSloMetrics;
+
+    @ReadOperation
+    public Map<DispatchSloMetrics.Stage, List<DispatchSloMetrics.StageLatency>> stageLatencies() {
+        return dispatchSloMetrics.snapshot();
+    }
+}
@@ -0,0 +1,58 @@
+package com.firecaptain.aspect;
+
+import com.firecaptain.entity.FireStation;
+import com.firecaptain.service.StationSpatialIndex;
+import com.firecaptain.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 消防署空間インデックスの同期
+ *
+ * FireStationRepository による保存・削除を監視し、コミット後に
+ * {@link StationSpatialIndex} へ反映します。ロールバックされた
+ * 変更はインデックスに反映されません。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FireStationIndexAspect {
+
+    private final StationSpatialIndex stationSpatialIndex;
+
+    /**
+     * 消防署保存後にインデックスを更新
+     */
+    @AfterReturning(pointcut = "execution(* com.firecaptain.repository.FireStationRepository.save*(..))", returning = "result")
+    public void afterStationSaved(Object result) {
+        if (result instanceof FireStation station) {
+            TransactionHooks.afterCommit(() -> stationSpatialIndex.refresh(station));
+        } else if (result instanceof Iterable<?> stations) {
+            TransactionHooks.afterCommit(() -> stations.forEach(s -> stationSpatialIndex.refresh((FireStation) s)));
+        }
+    }
+
+    /**
+     * 消防署削除後にインデックスから除外
+     */
+    @AfterReturning("execution(* com.firecaptain.repository.FireStationRepository.delete(..)) && args(station)")
+    public void afterStationDeleted(FireStation station) {
+        Long stationId = station.getId();
+        TransactionHooks.afterCommit(() -> stationSpatialIndex.remove(stationId));
+    }
+
+    /**
+     * ID指定による消防署削除後にインデックスから除外
+     */
+    @AfterReturning("execution(* com.firecaptain.repository.FireStationRepository.deleteById(..)) && args(stationId)")
+    public void afterStationDeletedById(Long stationId) {
+        TransactionHooks.afterCommit(() -> stationSpatialIndex.remove(stationId));
+    }
+}
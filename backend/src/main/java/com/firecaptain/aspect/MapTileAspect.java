@@ -0,0 +1,92 @@
+package com.firecaptain.aspect;
+
+import com.firecaptain.entity.EmergencyCall;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.entity.Unit;
+import com.firecaptain.service.MapTileService;
+import com.firecaptain.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 地図タイルのマーカーの同期
+ *
+ * 緊急通報・通報・ユニットのリポジトリによる保存・削除を監視し、
+ * コミット後に {@link MapTileService} へ反映します。ロールバックされた
+ * 変更は地図タイルに反映されません。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MapTileAspect {
+
+    private final MapTileService mapTileService;
+
+    /**
+     * 保存後にマーカーを更新
+     */
+    @AfterReturning(pointcut = "execution(* com.firecaptain.repository.EmergencyCallRepository.save*(..))"
+            + " || execution(* com.firecaptain.repository.EmergencyReportRepository.save*(..))"
+            + " || execution(* com.firecaptain.repository.UnitRepository.save*(..))", returning = "result")
+    public void afterSaved(Object result) {
+        if (result instanceof Iterable<?> entities) {
+            TransactionHooks.afterCommit(() -> entities.forEach(this::refresh));
+        } else {
+            TransactionHooks.afterCommit(() -> refresh(result));
+        }
+    }
+
+    /**
+     * 削除後にマーカーを削除
+     */
+    @AfterReturning("(execution(* com.firecaptain.repository.EmergencyCallRepository.delete(..))"
+            + " || execution(* com.firecaptain.repository.EmergencyReportRepository.delete(..))"
+            + " || execution(* com.firecaptain.repository.UnitRepository.delete(..))) && args(entity)")
+    public void afterDeleted(Object entity) {
+        if (entity instanceof EmergencyCall call) {
+            Long id = call.getId();
+            TransactionHooks.afterCommit(() -> mapTileService.remove(MapTileService.MarkerKind.CALL, id));
+        } else if (entity instanceof EmergencyReport report) {
+            Long id = report.getId();
+            TransactionHooks.afterCommit(() -> mapTileService.remove(MapTileService.MarkerKind.REPORT, id));
+        } else if (entity instanceof Unit unit) {
+            Long id = unit.getId();
+            TransactionHooks.afterCommit(() -> mapTileService.remove(MapTileService.MarkerKind.UNIT, id));
+        }
+    }
+
+    /**
+     * ID指定による削除後にマーカーを削除
+     */
+    @AfterReturning("execution(* com.firecaptain.repository.EmergencyCallRepository.deleteById(..)) && args(id)")
+    public void afterCallDeletedById(Long id) {
+        TransactionHooks.afterCommit(() -> mapTileService.remove(MapTileService.MarkerKind.CALL, id));
+    }
+
+    @AfterReturning("execution(* com.firecaptain.repository.EmergencyReportRepository.deleteById(..)) && args(id)")
+    public void afterReportDeletedById(Long id) {
+        TransactionHooks.afterCommit(() -> mapTileService.remove(MapTileService.MarkerKind.REPORT, id));
+    }
+
+    @AfterReturning("execution(* com.firecaptain.repository.UnitRepository.deleteById(..)) && args(id)")
+    public void afterUnitDeletedById(Long id) {
+        TransactionHooks.afterCommit(() -> mapTileService.remove(MapTileService.MarkerKind.UNIT, id));
+    }
+
+    private void refresh(Object entity) {
+        if (entity instanceof EmergencyCall call) {
+            mapTileService.refresh(call);
+        } else if (entity instanceof EmergencyReport report) {
+            mapTileService.refresh(report);
+        } else if (entity instanceof Unit unit) {
+            mapTileService.refresh(unit);
+        }
+    }
+}
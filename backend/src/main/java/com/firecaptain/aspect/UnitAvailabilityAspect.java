@@ -0,0 +1,58 @@
+package com.firecaptain.aspect;
+
+import com.firecaptain.entity.Unit;
+import com.firecaptain.service.UnitAvailabilityIndex;
+import com.firecaptain.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * ユニット出動可能インデックスの同期
+ *
+ * UnitRepository による保存・削除を監視し、コミット後に
+ * {@link UnitAvailabilityIndex} へ反映します。ロールバックされた
+ * 変更はインデックスに反映されません。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UnitAvailabilityAspect {
+
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
+
+    /**
+     * ユニット保存後にインデックスを更新
+     */
+    @AfterReturning(pointcut = "execution(* com.firecaptain.repository.UnitRepository.save*(..))", returning = "result")
+    public void afterUnitSaved(Object result) {
+        if (result instanceof Unit unit) {
+            TransactionHooks.afterCommit(() -> unitAvailabilityIndex.refresh(unit));
+        } else if (result instanceof Iterable<?> units) {
+            TransactionHooks.afterCommit(() -> units.forEach(u -> unitAvailabilityIndex.refresh((Unit) u)));
+        }
+    }
+
+    /**
+     * ユニット削除後にインデックスから除外
+     */
+    @AfterReturning("execution(* com.firecaptain.repository.UnitRepository.delete(..)) && args(unit)")
+    public void afterUnitDeleted(Unit unit) {
+        Long unitId = unit.getId();
+        TransactionHooks.afterCommit(() -> unitAvailabilityIndex.remove(unitId));
+    }
+
+    /**
+     * ID指定によるユニット削除後にインデックスから除外
+     */
+    @AfterReturning("execution(* com.firecaptain.repository.UnitRepository.deleteById(..)) && args(unitId)")
+    public void afterUnitDeletedById(Long unitId) {
+        TransactionHooks.afterCommit(() -> unitAvailabilityIndex.remove(unitId));
+    }
+}
@@ -1,7 +1,9 @@
 package com.firecaptain.controller;
 
 import com.firecaptain.entity.EmergencyCall;
+import com.firecaptain.entity.IntakeRequest;
 import com.firecaptain.service.EmergencyCallService;
+import com.firecaptain.service.IntakeIdempotencyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -31,7 +33,10 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:4200")
 public class EmergencyCallController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final EmergencyCallService emergencyCallService;
+    private final IntakeIdempotencyService intakeIdempotencyService;
 
     /**
      * すべての緊急通報をページネーション付きで取得
@@ -114,13 +119,24 @@ public class EmergencyCallController {
     /**
      * 新しい緊急通報の作成
      * 
-     * @param emergencyCall 作成する緊急通報情報
+     * Idempotency-Key ヘッダーを指定した場合、同じキーの再送には緊急通報を作成せず、
+     * 最初の応答を返します。
+     * 
+     * @param idempotencyKey 冪等キー（任意）
+     * @param emergencyCall  作成する緊急通報情報
      * @return 作成された緊急通報情報
      */
     @PostMapping
-    public ResponseEntity<EmergencyCall> createEmergencyCall(@Valid @RequestBody EmergencyCall emergencyCall) {
-        EmergencyCall createdCall = emergencyCallService.createEmergencyCall(emergencyCall);
-        return ResponseEntity.ok(createdCall);
+    public ResponseEntity<EmergencyCall> createEmergencyCall(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody EmergencyCall emergencyCall) {
+        if (idempotencyKey == null) {
+            EmergencyCall createdCall = emergencyCallService.createEmergencyCall(emergencyCall);
+            return ResponseEntity.ok(createdCall);
+        }
+        return intakeIdempotencyService.execute(IntakeRequest.IntakeKind.EMERGENCY_CALL, idempotencyKey,
+                () -> ResponseEntity.ok(emergencyCallService.createEmergencyCall(emergencyCall, idempotencyKey)),
+                id -> emergencyCallService.findById(id).map(ResponseEntity::ok));
     }
 
     /**
@@ -165,6 +181,18 @@ public class EmergencyCallController {
         return ResponseEntity.ok(calls);
     }
 
+    /**
+     * 重複として紐付けられた緊急通報の取得
+     * 
+     * @param id 緊急通報ID
+     * @return 同じ事案として受け付けた緊急通報リスト
+     */
+    @GetMapping("/{id}/duplicates")
+    public ResponseEntity<List<EmergencyCall>> getDuplicateCalls(@PathVariable Long id) {
+        List<EmergencyCall> calls = emergencyCallService.findDuplicates(id);
+        return ResponseEntity.ok(calls);
+    }
+
     /**
      * ステータス別の緊急通報件数取得
      * 
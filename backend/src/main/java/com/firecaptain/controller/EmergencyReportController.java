@@ -1,9 +1,13 @@
 package com.firecaptain.controller;
 
 import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.entity.IntakeRequest;
+import com.firecaptain.journal.IntakeJournalService;
 import com.firecaptain.service.EmergencyReportService;
+import com.firecaptain.service.IntakeIdempotencyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,19 +21,40 @@ import java.util.Optional;
 @Slf4j
 public class EmergencyReportController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final EmergencyReportService emergencyReportService;
+    private final IntakeIdempotencyService intakeIdempotencyService;
+    private final IntakeJournalService intakeJournalService;
 
     /**
      * 新しい通報を受付
      * POST /api/emergency-reports
+     * 
+     * 通報が受付ジャーナルに書き出された時点（ジャーナルが無効の場合は通報の登録が
+     * コミットされた時点）で 202 Accepted を返します。
+     * 出動指令の作成と部隊割り当ては出動指令パイプラインで続行されます。
+     * 
+     * 応答は通報番号と受付時のステータスのみです（{@link AcceptedReport}）。
+     * Idempotency-Key ヘッダーを指定した場合、同じキーの再送には通報を登録せず、
+     * 最初の応答を返します。
      */
     @PostMapping
-    public ResponseEntity<EmergencyReport> createEmergencyReport(@Valid @RequestBody EmergencyReport report) {
+    public ResponseEntity<AcceptedReport> createEmergencyReport(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody EmergencyReport report) {
         log.info("Received emergency report creation request");
 
-        EmergencyReport createdReport = emergencyReportService.createEmergencyReport(report);
-
-        return ResponseEntity.ok(createdReport);
+        if (idempotencyKey == null) {
+            EmergencyReport createdReport = intakeJournalService.accept(report, null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(AcceptedReport.of(createdReport));
+        }
+        return intakeIdempotencyService.execute(IntakeRequest.IntakeKind.EMERGENCY_REPORT, idempotencyKey,
+                () -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(AcceptedReport.of(intakeJournalService.accept(report, idempotencyKey))),
+                id -> emergencyReportService.findById(id)
+                        .map(createdReport -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .body(AcceptedReport.of(createdReport))));
     }
 
     /**
@@ -46,6 +71,15 @@ public class EmergencyReportController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 重複として紐付けられた通報を検索
+     * GET /api/emergency-reports/{reportNumber}/duplicates
+     */
+    @GetMapping("/{reportNumber}/duplicates")
+    public ResponseEntity<List<EmergencyReport>> getDuplicateReports(@PathVariable String reportNumber) {
+        return ResponseEntity.ok(emergencyReportService.findDuplicates(reportNumber));
+    }
+
     /**
      * ステータスで検索
      * GET /api/emergency-reports/status/{status}
@@ -124,4 +158,20 @@ public class EmergencyReportController {
      */
     public record StatusUpdateRequest(EmergencyReport.ReportStatus status) {
     }
+
+    /**
+     * 受付の応答
+     *
+     * ジャーナル経由の受付では応答の時点で通報が未登録のためIDを含めず、
+     * 以降の参照には通報番号を使用します。
+     *
+     * @param reportNumber 通報番号
+     * @param status       受付時のステータス
+     */
+    public record AcceptedReport(String reportNumber, EmergencyReport.ReportStatus status) {
+
+        static AcceptedReport of(EmergencyReport report) {
+            return new AcceptedReport(report.getReportNumber(), report.getStatus());
+        }
+    }
 }
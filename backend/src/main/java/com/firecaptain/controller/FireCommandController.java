@@ -5,6 +5,8 @@ import com.firecaptain.entity.Dispatch;
 import com.firecaptain.entity.SceneSupport;
 import com.firecaptain.entity.DataAnalysis;
 import com.firecaptain.service.EmergencyReportService;
+import com.firecaptain.service.CoverageService;
+import com.firecaptain.service.DispatchPipeline;
 import com.firecaptain.service.DispatchService;
 import com.firecaptain.service.SceneSupportService;
 import com.firecaptain.service.DataAnalysisService;
@@ -25,8 +27,10 @@ public class FireCommandController {
 
     private final EmergencyReportService emergencyReportService;
     private final DispatchService dispatchService;
+    private final DispatchPipeline dispatchPipeline;
     private final SceneSupportService sceneSupportService;
     private final DataAnalysisService dataAnalysisService;
+    private final CoverageService coverageService;
 
     /**
      * 処理フロー全体のダッシュボード情報を取得
@@ -53,6 +57,17 @@ public class FireCommandController {
         return ResponseEntity.ok(dashboard);
     }
 
+    /**
+     * 管轄カバレッジとムーブアップ推奨を取得
+     * GET /api/fire-command/coverage
+     */
+    @GetMapping("/coverage")
+    public ResponseEntity<CoverageService.CoverageSummary> getCoverage() {
+        log.info("Getting jurisdiction coverage");
+
+        return ResponseEntity.ok(coverageService.getSummary());
+    }
+
     /**
      * 処理フローの進行状況を取得
      * GET /api/fire-command/workflow/{reportNumber}
@@ -97,6 +112,7 @@ public class FireCommandController {
                 // 通報から指令を作成
                 emergencyReportService.findByReportNumber(reportNumber).ifPresent(report -> {
                     Dispatch dispatch = dispatchService.createDispatchFromReport(report);
+                    dispatchPipeline.submitAssignment(dispatch);
                     result.put("dispatch", dispatch);
                     result.put("message", "Dispatch created successfully");
                 });
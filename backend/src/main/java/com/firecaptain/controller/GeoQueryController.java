@@ -0,0 +1,73 @@
+package com.firecaptain.controller;
+
+import com.firecaptain.entity.EmergencyCall;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.entity.Unit;
+import com.firecaptain.service.GeoQueryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 半径検索コントローラー
+ *
+ * 指定地点から指定半径内のユニット・緊急通報・通報を近い順に提供します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/geo/nearby")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:4200")
+public class GeoQueryController {
+
+    private final GeoQueryService geoQueryService;
+
+    /**
+     * 半径内のユニットを取得
+     * GET /api/geo/nearby/units?latitude=&longitude=&radiusKm=
+     */
+    @GetMapping("/units")
+    public ResponseEntity<List<GeoQueryService.Nearby<Unit>>> getNearbyUnits(@RequestParam double latitude,
+            @RequestParam double longitude, @RequestParam double radiusKm) {
+        return respond(() -> geoQueryService.findUnitsWithinRadius(latitude, longitude, radiusKm));
+    }
+
+    /**
+     * 半径内の対応中の緊急通報を取得
+     * GET /api/geo/nearby/calls?latitude=&longitude=&radiusKm=
+     */
+    @GetMapping("/calls")
+    public ResponseEntity<List<GeoQueryService.Nearby<EmergencyCall>>> getNearbyCalls(
+            @RequestParam double latitude, @RequestParam double longitude, @RequestParam double radiusKm) {
+        return respond(() -> geoQueryService.findCallsWithinRadius(latitude, longitude, radiusKm));
+    }
+
+    /**
+     * 半径内の対応中の通報を取得
+     * GET /api/geo/nearby/reports?latitude=&longitude=&radiusKm=
+     */
+    @GetMapping("/reports")
+    public ResponseEntity<List<GeoQueryService.Nearby<EmergencyReport>>> getNearbyReports(
+            @RequestParam double latitude, @RequestParam double longitude, @RequestParam double radiusKm) {
+        return respond(() -> geoQueryService.findReportsWithinRadius(latitude, longitude, radiusKm));
+    }
+
+    /**
+     * 検索を実行（座標または半径が不正な場合は400）
+     */
+    private static <T> ResponseEntity<List<T>> respond(Supplier<List<T>> query) {
+        try {
+            return ResponseEntity.ok(query.get());
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected radius search: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
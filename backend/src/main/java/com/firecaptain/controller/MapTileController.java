@@ -0,0 +1,59 @@
+package com.firecaptain.controller;
+
+import com.firecaptain.service.MapTileService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * 地図タイルコントローラー
+ *
+ * 対応中の緊急通報・通報とユニットの位置を、地図タイル（z/x/y）ごとに
+ * クラスタ済みのマーカーとして提供します。地図コンポーネントは全件の一覧を
+ * 取得する代わりに、表示範囲のタイルのみを取得します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/map/tiles")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:4200")
+public class MapTileController {
+
+    private final MapTileService mapTileService;
+
+    /**
+     * 指定タイルのクラスタを取得
+     * GET /api/map/tiles/{z}/{x}/{y}
+     *
+     * タイルの版をETagとして返し、変更がない場合は304を返します。
+     *
+     * @param z          ズームレベル
+     * @param x          タイルの列
+     * @param y          タイルの行
+     * @param webRequest 条件付きリクエストの判定に使用
+     * @return クラスタ済みのタイル（座標が範囲外の場合は400）
+     */
+    @GetMapping("/{z}/{x}/{y}")
+    public ResponseEntity<MapTileService.Tile> getTile(@PathVariable int z, @PathVariable int x,
+            @PathVariable int y, WebRequest webRequest) {
+        MapTileService.Tile tile;
+        try {
+            tile = mapTileService.getTile(z, x, y);
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected map tile request {}/{}/{}: {}", z, x, y, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        String etag = "\"" + z + "-" + x + "-" + y + "-" + tile.version() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(tile);
+    }
+}
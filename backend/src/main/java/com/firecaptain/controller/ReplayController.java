@@ -0,0 +1,64 @@
+package com.firecaptain.controller;
+
+import com.firecaptain.replay.IncidentReplayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/replay")
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "fire-captain.replay", name = "enabled", havingValue = "true")
+public class ReplayController {
+
+    private final IncidentReplayService incidentReplayService;
+
+    /**
+     * 履歴通報の再生を開始
+     * POST /api/replay
+     */
+    @PostMapping
+    public ResponseEntity<IncidentReplayService.ReplayReport> startReplay(
+            @RequestBody IncidentReplayService.ReplayRequest request) {
+        log.info("Starting incident replay: {}", request);
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(incidentReplayService.start(request));
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("Invalid replay request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * 再生状況と計測結果を取得
+     * GET /api/replay
+     */
+    @GetMapping
+    public ResponseEntity<IncidentReplayService.ReplayReport> getReplayReport() {
+        IncidentReplayService.ReplayReport report = incidentReplayService.getReport();
+
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 実行中の再生を中止
+     * DELETE /api/replay
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> cancelReplay() {
+        log.info("Cancelling incident replay");
+
+        incidentReplayService.cancel();
+
+        return ResponseEntity.noContent().build();
+    }
+}
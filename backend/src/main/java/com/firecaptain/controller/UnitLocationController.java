@@ -0,0 +1,94 @@
+package com.firecaptain.controller;
+
+import com.firecaptain.service.UnitLocationService;
+import com.firecaptain.service.UnitTrackService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ユニット位置コントローラー
+ *
+ * 車載端末からの位置の一括受信と、メモリ上の最新位置・移動軌跡の参照を提供します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/units")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:4200")
+public class UnitLocationController {
+
+    private final UnitLocationService unitLocationService;
+    private final UnitTrackService unitTrackService;
+
+    /**
+     * 位置を一括受信
+     * POST /api/units/locations
+     *
+     * データベースへの書き込みは非同期に行われるため、受信後すぐに応答します。
+     *
+     * @param fixes 位置の一覧
+     * @return 採用した件数
+     */
+    @PostMapping("/locations")
+    public ResponseEntity<IngestResult> ingestLocations(@RequestBody List<UnitLocationService.LocationFix> fixes) {
+        int accepted = unitLocationService.ingest(fixes);
+        if (accepted < fixes.size()) {
+            log.debug("Discarded {} of {} unit locations", fixes.size() - accepted, fixes.size());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new IngestResult(fixes.size(), accepted));
+    }
+
+    /**
+     * 全ユニットの最新位置を取得
+     * GET /api/units/locations
+     */
+    @GetMapping("/locations")
+    public ResponseEntity<List<UnitLocationService.LocationFix>> getLocations() {
+        return ResponseEntity.ok(unitLocationService.getAllLatest());
+    }
+
+    /**
+     * ユニットの最新位置を取得
+     * GET /api/units/{unitId}/location
+     */
+    @GetMapping("/{unitId}/location")
+    public ResponseEntity<UnitLocationService.LocationFix> getLocation(@PathVariable Long unitId) {
+        return unitLocationService.getLatest(unitId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * ユニットの移動軌跡を取得
+     * GET /api/units/{unitId}/track?startTime=...&endTime=...
+     */
+    @GetMapping("/{unitId}/track")
+    public ResponseEntity<List<UnitTrackService.TrackPoint>> getTrack(
+            @PathVariable Long unitId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+        if (endTime.isBefore(startTime)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(unitTrackService.getTrack(unitId, startTime, endTime));
+    }
+
+    /**
+     * 一括受信の結果
+     *
+     * @param received 受信件数
+     * @param accepted 採用件数（不正な位置や古い位置を除く）
+     */
+    public record IngestResult(int received, int accepted) {
+    }
+}
@@ -25,10 +25,10 @@ public abstract class BaseEntity {
 
     /**
      * エンティティの一意識別子
-     * 自動採番により生成されます
+     * テーブルごとのシーケンスから自動採番されます（{@link TableSequenceGenerator}）
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     /**
@@ -18,7 +18,7 @@ import java.util.List;
 public class CompletionReport {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -22,7 +22,7 @@ import java.time.LocalDateTime;
 public class DataAnalysis {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     /** 分析タイプ */
@@ -18,7 +18,7 @@ import java.util.List;
 public class Dispatch {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     @Column(name = "dispatch_number", unique = true, nullable = false)
@@ -17,7 +17,7 @@ import java.time.LocalDateTime;
 public class DispatchUnit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -70,6 +70,34 @@ public class EmergencyCall extends BaseEntity {
     @Column(name = "longitude")
     private Double longitude;
 
+    /**
+     * 空間セルID
+     * 発生場所を含む最も細かいレベルのセル（{@link com.firecaptain.geo.SpatialCellId#MAX_LEVEL}）
+     */
+    @Column(name = "spatial_cell")
+    private Long spatialCell;
+
+    /**
+     * 街区レベルの空間セルID
+     * 周辺検索に使用するセル（{@link com.firecaptain.geo.SpatialCellId#BLOCK_LEVEL}）
+     */
+    @Column(name = "spatial_cell_block")
+    private Long spatialCellBlock;
+
+    /**
+     * 地区レベルの空間セルID
+     * 集計に使用するセル（{@link com.firecaptain.geo.SpatialCellId#DISTRICT_LEVEL}）
+     */
+    @Column(name = "spatial_cell_district")
+    private Long spatialCellDistrict;
+
+    /**
+     * 重複先の緊急通報ID
+     * 同じ事案の通報として受け付けた場合に設定（{@link com.firecaptain.service.DuplicateIncidentDetector}）
+     */
+    @Column(name = "duplicate_of_id")
+    private Long duplicateOfId;
+
     /**
      * 事故事象の詳細説明
      * 通報者が報告した事故事象の詳細情報
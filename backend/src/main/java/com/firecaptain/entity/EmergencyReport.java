@@ -10,14 +10,20 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "emergency_reports")
+@Table(name = "emergency_reports", indexes = {
+        @Index(name = "idx_emergency_reports_spatial_cell", columnList = "spatial_cell"),
+        @Index(name = "idx_emergency_reports_spatial_cell_block", columnList = "spatial_cell_block"),
+        @Index(name = "idx_emergency_reports_spatial_cell_district", columnList = "spatial_cell_district, received_at"),
+        @Index(name = "idx_emergency_reports_lat_lng", columnList = "location_latitude, location_longitude"),
+        @Index(name = "idx_emergency_reports_duplicate_of", columnList = "duplicate_of_id")
+})
 @Data
 @EqualsAndHashCode(callSuper = false)
 @EntityListeners(AuditingEntityListener.class)
 public class EmergencyReport {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     @Column(name = "report_number", unique = true, nullable = false)
@@ -42,6 +48,22 @@ public class EmergencyReport {
     @Column(name = "location_longitude")
     private Double locationLongitude;
 
+    /** 空間セルID（{@link com.firecaptain.geo.SpatialCellId#MAX_LEVEL}） */
+    @Column(name = "spatial_cell")
+    private Long spatialCell;
+
+    /** 街区レベルの空間セルID（{@link com.firecaptain.geo.SpatialCellId#BLOCK_LEVEL}） */
+    @Column(name = "spatial_cell_block")
+    private Long spatialCellBlock;
+
+    /** 地区レベルの空間セルID（{@link com.firecaptain.geo.SpatialCellId#DISTRICT_LEVEL}） */
+    @Column(name = "spatial_cell_district")
+    private Long spatialCellDistrict;
+
+    /** 重複先の通報ID（同じ事案の通報として受け付けた場合） */
+    @Column(name = "duplicate_of_id")
+    private Long duplicateOfId;
+
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
@@ -23,7 +23,7 @@ import java.time.LocalDateTime;
 public class FireStation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     /** 消防署名 */
@@ -0,0 +1,56 @@
+package com.firecaptain.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * 受付リクエストの冪等キーエンティティ
+ *
+ * Idempotency-Key ヘッダー付きで受け付けた通報と、そのキーで作成した通報のIDを
+ * 記録します。種別とキーの組に一意制約があり、再送されたリクエストが別のノードで
+ * 同時に処理された場合も、通報は1件しか登録されません
+ * （{@link com.firecaptain.service.IntakeIdempotencyService}）。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Entity
+@Table(name = "intake_requests", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_intake_requests_kind_key", columnNames = {"kind", "idempotency_key"})
+}, indexes = {
+        @Index(name = "idx_intake_requests_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntakeRequest {
+
+    @Id
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
+    private Long id;
+
+    /** 受付の種別 */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 32)
+    private IntakeKind kind;
+
+    /** クライアントが指定した冪等キー */
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    /** 作成した通報のID */
+    @Column(name = "resource_id", nullable = false)
+    private Long resourceId;
+
+    /** 受付日時 */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum IntakeKind {
+        EMERGENCY_REPORT, // 通報
+        EMERGENCY_CALL // 緊急通報
+    }
+}
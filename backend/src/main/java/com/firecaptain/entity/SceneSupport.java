@@ -22,7 +22,7 @@ import java.time.LocalDateTime;
 public class SceneSupport {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     /** 関連する出動指令 */
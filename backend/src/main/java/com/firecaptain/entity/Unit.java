@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 /**
@@ -12,18 +13,25 @@ import java.time.LocalDateTime;
  * 消防車両や救急車などの出動ユニットを表すエンティティです。
  * 各ユニットは特定の消防署に所属し、出動可能な状態を管理します。
  * 
+ * 現在位置は {@link com.firecaptain.service.UnitLocationService} が
+ * エンティティを介さずに一括更新するため、エンティティの保存では
+ * 変更された列のみを更新します（読み込み時点の古い位置で上書きしないため）。
+ * 
  * @author FireCaptain Team
  * @version 1.0
  */
 @Entity
-@Table(name = "units")
+@Table(name = "units", indexes = {
+        @Index(name = "idx_units_lat_lng", columnList = "current_latitude, current_longitude")
+})
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Unit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
     private Long id;
 
     /** ユニット番号（例：消防車1号） */
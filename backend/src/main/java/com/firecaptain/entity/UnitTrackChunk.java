@@ -0,0 +1,51 @@
+package com.firecaptain.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * ユニット移動軌跡のチャンクエンティティ
+ *
+ * ユニットの連続した位置を {@link com.firecaptain.geo.TrackCodec} で圧縮して
+ * 1行に格納します。チャンクは追記のみで、作成後は変更しません。期間による
+ * 検索では開始・終了時刻で対象のチャンクを絞り込み、該当するチャンクのみを展開します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Entity
+@Table(name = "unit_track_chunks", indexes = {
+        @Index(name = "idx_unit_track_chunks_unit_time", columnList = "unit_id, start_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnitTrackChunk {
+
+    @Id
+    @GeneratedValue(generator = TableSequenceGenerator.NAME)
+    private Long id;
+
+    /** ユニットID */
+    @Column(name = "unit_id", nullable = false)
+    private Long unitId;
+
+    /** 最初の位置の測位時刻 */
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    /** 最後の位置の測位時刻 */
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    /** 位置の数 */
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;
+
+    /** 圧縮した位置 */
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+}
@@ -0,0 +1,9 @@
+/**
+ * JPAエンティティ
+ *
+ * IDは {@link com.firecaptain.entity.TableSequenceGenerator} によりテーブルごとのシーケンスで採番します。
+ */
+@GenericGenerator(name = TableSequenceGenerator.NAME, type = TableSequenceGenerator.class)
+package com.firecaptain.entity;
+
+import org.hibernate.annotations.GenericGenerator;
@@ -0,0 +1,59 @@
+package com.firecaptain.geo;
+
+/**
+ * 緯度・経度の範囲（矩形）
+ *
+ * 半径検索の前段で、インデックスを使った範囲検索の条件として使用します。
+ * 矩形は半径の円を必ず含むため、矩形で絞り込んだ後に距離で判定すれば
+ * 取りこぼしはありません。
+ *
+ * 極の付近で経度の範囲が求められない場合や、日付変更線をまたぐ場合は、
+ * 経度の範囲を全体（-180〜180）とします。
+ *
+ * @param minLatitude  最小緯度
+ * @param maxLatitude  最大緯度
+ * @param minLongitude 最小経度
+ * @param maxLongitude 最大経度
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public record BoundingBox(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+
+    /**
+     * 指定地点を中心とする半径の円を含む範囲を作成
+     *
+     * @param latitude  中心の緯度
+     * @param longitude 中心の経度
+     * @param radiusKm  半径（km）
+     * @return 円を含む範囲
+     */
+    public static BoundingBox around(double latitude, double longitude, double radiusKm) {
+        double latitudeDelta = Math.toDegrees(radiusKm / GeoUtils.EARTH_RADIUS_KM);
+        double minLatitude = latitude - latitudeDelta;
+        double maxLatitude = latitude + latitudeDelta;
+        if (minLatitude <= -90 || maxLatitude >= 90) {
+            return new BoundingBox(Math.max(minLatitude, -90), Math.min(maxLatitude, 90), -180, 180);
+        }
+
+        // 円に接する経線までの経度差（高緯度側で最も広がる）
+        double ratio = Math.sin(radiusKm / GeoUtils.EARTH_RADIUS_KM) / Math.cos(Math.toRadians(latitude));
+        if (ratio >= 1) {
+            return new BoundingBox(minLatitude, maxLatitude, -180, 180);
+        }
+        double longitudeDelta = Math.toDegrees(Math.asin(ratio));
+        double minLongitude = longitude - longitudeDelta;
+        double maxLongitude = longitude + longitudeDelta;
+        if (minLongitude < -180 || maxLongitude > 180) {
+            return new BoundingBox(minLatitude, maxLatitude, -180, 180);
+        }
+        return new BoundingBox(minLatitude, maxLatitude, minLongitude, maxLongitude);
+    }
+
+    /**
+     * 地点が範囲内かどうかを判定
+     */
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLatitude && latitude <= maxLatitude
+                && longitude >= minLongitude && longitude <= maxLongitude;
+    }
+}
@@ -0,0 +1,254 @@
+package com.firecaptain.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 住所辞書（ガゼッティア）
+ *
+ * 正規化した住所をキーとするハッシュ索引で、住所から緯度・経度を求めます。
+ * 完全に一致する住所がない場合は、建物名などの末尾を除き、番地・号を
+ * 後ろから1つずつ外して（丁目・町域の代表点まで）検索します。
+ * 都道府県を省略した住所でも検索できるよう、都道府県を除いたキーも
+ * 索引に登録します（複数の都道府県で重複するキーは登録しません）。
+ *
+ * 辞書ファイルはUTF-8のタブ区切りテキストで、1行に1件を記述します。
+ * <pre>
+ * # コメント
+ * &lt;住所&gt;	&lt;緯度&gt;	&lt;経度&gt;
+ * </pre>
+ *
+ * 構築後は不変で、並行して検索できます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class Gazetteer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern POSTAL_CODE = Pattern.compile("^〒?\\d{3}-?\\d{4}");
+    private static final Pattern DASHES = Pattern.compile("[‐‑‒–—―−ｰ]|(?<=\\d)ー");
+    private static final Pattern KANJI_NUMBER = Pattern.compile("([〇一二三四五六七八九十]+)(?=丁目|番地|番|号)");
+    private static final Pattern BLOCK_SUFFIX = Pattern.compile("(?<=\\d)(丁目|番地|番|号|の)");
+    private static final Pattern REPEATED_DASHES = Pattern.compile("-{2,}");
+    private static final Pattern NUMBERED_PREFIX = Pattern.compile("^(.*?\\d+(?:-\\d+)*)");
+    private static final Pattern PREFECTURE = Pattern.compile("^(東京都|北海道|京都府|大阪府|.{2,3}県)");
+
+    /** 正規化した住所 → 位置 */
+    private final Map<String, Location> index;
+
+    private Gazetteer(Map<String, Location> index) {
+        this.index = index;
+    }
+
+    /**
+     * 辞書ファイルを読み込み
+     *
+     * @param file 辞書ファイル
+     * @return 住所辞書
+     * @throws IOException 読み込みに失敗した場合や、形式が不正な場合
+     */
+    public static Gazetteer load(Path file) throws IOException {
+        Map<String, Location> entries = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                try {
+                    double latitude = Double.parseDouble(fields[1].trim());
+                    double longitude = Double.parseDouble(fields[2].trim());
+                    if (!GeoUtils.isValid(latitude, longitude)) {
+                        throw new IllegalArgumentException("Coordinates out of range");
+                    }
+                    String key = normalize(fields[0]);
+                    if (!key.isEmpty()) {
+                        entries.put(key, new Location(latitude, longitude));
+                    }
+                } catch (RuntimeException e) {
+                    throw new IOException("Invalid gazetteer record at line " + lineNumber + ": " + line, e);
+                }
+            }
+        }
+        return of(entries);
+    }
+
+    /**
+     * 正規化済みの住所と位置から作成
+     *
+     * @param entries 正規化した住所 → 位置
+     * @return 住所辞書
+     */
+    public static Gazetteer of(Map<String, Location> entries) {
+        Map<String, Location> index = new HashMap<>(entries);
+
+        // 都道府県を省略したキー（重複するものは除外）
+        Map<String, Location> aliases = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        for (Map.Entry<String, Location> entry : entries.entrySet()) {
+            Matcher prefecture = PREFECTURE.matcher(entry.getKey());
+            if (!prefecture.find() || prefecture.end() == entry.getKey().length()) {
+                continue;
+            }
+            String alias = entry.getKey().substring(prefecture.end());
+            Location previous = aliases.putIfAbsent(alias, entry.getValue());
+            if (previous != null && !previous.equals(entry.getValue())) {
+                ambiguous.add(alias);
+            }
+        }
+        ambiguous.forEach(aliases::remove);
+        aliases.forEach(index::putIfAbsent);
+        return new Gazetteer(index);
+    }
+
+    /**
+     * 住所から位置を検索
+     *
+     * @param address 住所（表記ゆれを含んでよい）
+     * @return 一致した位置（見つからない場合は空）
+     */
+    public Optional<Match> lookup(String address) {
+        if (address == null || address.isBlank()) {
+            return Optional.empty();
+        }
+        String normalized = normalize(address);
+        List<String> candidates = candidates(normalized);
+        for (int i = 0; i < candidates.size(); i++) {
+            Location location = index.get(candidates.get(i));
+            if (location != null) {
+                return Optional.of(new Match(location.latitude(), location.longitude(), candidates.get(i), i == 0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 登録されている住所の数（都道府県を省略したキーを含む）
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 住所を正規化
+     *
+     * 全角・半角の統一（NFKC）、空白と郵便番号の除去、ハイフンの統一、
+     * 丁目・番地・号の漢数字の算用数字への変換と「-」への置き換えを行います。
+     *
+     * @param address 住所
+     * @return 正規化した住所
+     */
+    public static String normalize(String address) {
+        String text = Normalizer.normalize(address, Normalizer.Form.NFKC);
+        text = WHITESPACE.matcher(text).replaceAll("").toLowerCase();
+        text = POSTAL_CODE.matcher(text).replaceFirst("");
+        text = DASHES.matcher(text).replaceAll("-");
+        text = text.replace("大字", "");
+
+        Matcher kanji = KANJI_NUMBER.matcher(text);
+        StringBuilder converted = new StringBuilder();
+        while (kanji.find()) {
+            kanji.appendReplacement(converted, Integer.toString(parseKanjiNumber(kanji.group(1))));
+        }
+        kanji.appendTail(converted);
+        text = converted.toString();
+
+        text = BLOCK_SUFFIX.matcher(text).replaceAll("-");
+        text = REPEATED_DASHES.matcher(text).replaceAll("-");
+        while (text.endsWith("-")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        return text;
+    }
+
+    /**
+     * 検索するキーを詳細な順に列挙
+     */
+    private static List<String> candidates(String normalized) {
+        List<String> candidates = new ArrayList<>(4);
+        candidates.add(normalized);
+
+        // 番地以降の建物名・部屋番号などを除く
+        Matcher numbered = NUMBERED_PREFIX.matcher(normalized);
+        String current = numbered.find() ? numbered.group(1) : normalized;
+        addCandidate(candidates, current);
+
+        // 号・番地・丁目を後ろから外す
+        int dash;
+        while ((dash = current.lastIndexOf('-')) > 0 && Character.isDigit(current.charAt(dash - 1))) {
+            current = current.substring(0, dash);
+            addCandidate(candidates, current);
+        }
+
+        // 町域の代表点
+        int end = current.length();
+        while (end > 0 && Character.isDigit(current.charAt(end - 1))) {
+            end--;
+        }
+        if (end > 0) {
+            addCandidate(candidates, current.substring(0, end));
+        }
+        return candidates;
+    }
+
+    private static void addCandidate(List<String> candidates, String candidate) {
+        if (!candidate.isEmpty() && !candidates.contains(candidate)) {
+            candidates.add(candidate);
+        }
+    }
+
+    /**
+     * 漢数字（99まで）を数値に変換
+     */
+    private static int parseKanjiNumber(String kanji) {
+        String digits = "〇一二三四五六七八九";
+        int tens = 0;
+        int ones = 0;
+        for (char c : kanji.toCharArray()) {
+            if (c == '十') {
+                tens = ones == 0 ? 1 : ones;
+                ones = 0;
+            } else {
+                ones = ones * 10 + digits.indexOf(c);
+            }
+        }
+        return tens * 10 + ones;
+    }
+
+    /**
+     * 位置
+     *
+     * @param latitude  緯度
+     * @param longitude 経度
+     */
+    public record Location(double latitude, double longitude) {
+    }
+
+    /**
+     * 検索結果
+     *
+     * @param latitude   緯度
+     * @param longitude  経度
+     * @param matchedKey 一致した正規化済みの住所
+     * @param exact      住所全体が一致した場合はtrue（番地などを外して一致した場合はfalse）
+     */
+    public record Match(double latitude, double longitude, String matchedKey, boolean exact) {
+    }
+}
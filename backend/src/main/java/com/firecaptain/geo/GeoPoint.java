@@ -0,0 +1,32 @@
+package com.firecaptain.geo;
+
+/**
+ * 空間インデックスに格納できる位置付き要素
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public interface GeoPoint {
+
+    /**
+     * 要素の一意識別子
+     */
+    long id();
+
+    /**
+     * 緯度（不明な場合は {@link Double#NaN}）
+     */
+    double latitude();
+
+    /**
+     * 経度（不明な場合は {@link Double#NaN}）
+     */
+    double longitude();
+
+    /**
+     * 位置情報を持つかどうか
+     */
+    default boolean hasLocation() {
+        return !Double.isNaN(latitude()) && !Double.isNaN(longitude());
+    }
+}
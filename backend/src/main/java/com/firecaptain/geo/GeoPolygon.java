@@ -0,0 +1,279 @@
+package com.firecaptain.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 内外判定用に前処理した多角形
+ *
+ * GeoJSON（Polygon・MultiPolygon・Feature）またはWKT（POLYGON・MULTIPOLYGON）の
+ * 文字列から作成します。穴やマルチポリゴンの各部分を含むすべての環の辺を
+ * 偶奇規則でまとめて判定します。
+ *
+ * 作成時に外接矩形を緯度方向の帯に分割し、帯ごとに交差しうる辺の番号を
+ * 保持します。内外判定は該当する帯の辺のみを調べるため、頂点数が
+ * 数千の多角形でも判定のコストは帯あたりの辺数に比例します。
+ * 作成後は不変で、並行して判定できます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class GeoPolygon {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /** 帯あたりの平均辺数の目安 */
+    private static final int EDGES_PER_BAND = 8;
+
+    /** 帯の数の上限 */
+    private static final int MAX_BANDS = 4096;
+
+    /** 辺の始点・終点（経度, 緯度, 経度, 緯度 の順に詰めて格納） */
+    private final double[] edges;
+
+    private final double minLatitude;
+    private final double maxLatitude;
+    private final double minLongitude;
+    private final double maxLongitude;
+
+    private final double bandHeight;
+    /** 帯ごとの辺番号 */
+    private final int[][] bands;
+
+    private GeoPolygon(List<double[]> rings) {
+        int edgeCount = 0;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (double[] ring : rings) {
+            edgeCount += ring.length / 2;
+            for (int i = 0; i < ring.length; i += 2) {
+                minLon = Math.min(minLon, ring[i]);
+                maxLon = Math.max(maxLon, ring[i]);
+                minLat = Math.min(minLat, ring[i + 1]);
+                maxLat = Math.max(maxLat, ring[i + 1]);
+            }
+        }
+        this.minLatitude = minLat;
+        this.maxLatitude = maxLat;
+        this.minLongitude = minLon;
+        this.maxLongitude = maxLon;
+
+        // 環は閉じているものとして、最後の頂点から最初の頂点への辺も含める
+        this.edges = new double[edgeCount * 4];
+        int edge = 0;
+        for (double[] ring : rings) {
+            int vertices = ring.length / 2;
+            for (int i = 0; i < vertices; i++) {
+                int next = (i + 1) % vertices;
+                edges[edge * 4] = ring[i * 2];
+                edges[edge * 4 + 1] = ring[i * 2 + 1];
+                edges[edge * 4 + 2] = ring[next * 2];
+                edges[edge * 4 + 3] = ring[next * 2 + 1];
+                edge++;
+            }
+        }
+
+        int bandCount = Math.max(1, Math.min(MAX_BANDS, edgeCount / EDGES_PER_BAND));
+        double height = (maxLat - minLat) / bandCount;
+        this.bandHeight = height > 0 ? height : 1.0;
+        this.bands = buildBands(bandCount);
+    }
+
+    /**
+     * GeoJSONまたはWKTの文字列から作成
+     *
+     * @param text GeoJSON（先頭が '{'）またはWKT
+     * @return 多角形
+     * @throws IllegalArgumentException 形式が不正な場合や、多角形でない場合
+     */
+    public static GeoPolygon parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Empty polygon");
+        }
+        String trimmed = text.trim();
+        List<double[]> rings = trimmed.startsWith("{") ? parseGeoJson(trimmed) : parseWkt(trimmed);
+        if (rings.isEmpty()) {
+            throw new IllegalArgumentException("Polygon has no rings");
+        }
+        return new GeoPolygon(rings);
+    }
+
+    /**
+     * 指定地点が多角形の内側にあるかどうかを判定
+     *
+     * @param latitude  緯度
+     * @param longitude 経度
+     * @return 内側の場合はtrue（境界上の扱いは不定）
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude
+                || longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+        int band = Math.min(bands.length - 1, (int) ((latitude - minLatitude) / bandHeight));
+        boolean inside = false;
+        for (int edge : bands[band]) {
+            int offset = edge * 4;
+            double x1 = edges[offset];
+            double y1 = edges[offset + 1];
+            double x2 = edges[offset + 2];
+            double y2 = edges[offset + 3];
+            if ((y1 > latitude) != (y2 > latitude)
+                    && longitude < (x2 - x1) * (latitude - y1) / (y2 - y1) + x1) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    public double minLatitude() {
+        return minLatitude;
+    }
+
+    public double maxLatitude() {
+        return maxLatitude;
+    }
+
+    public double minLongitude() {
+        return minLongitude;
+    }
+
+    public double maxLongitude() {
+        return maxLongitude;
+    }
+
+    /**
+     * 頂点数
+     */
+    public int vertexCount() {
+        return edges.length / 4;
+    }
+
+    private int[][] buildBands(int bandCount) {
+        List<List<Integer>> members = new ArrayList<>(bandCount);
+        for (int i = 0; i < bandCount; i++) {
+            members.add(new ArrayList<>());
+        }
+        for (int edge = 0; edge < edges.length / 4; edge++) {
+            double y1 = edges[edge * 4 + 1];
+            double y2 = edges[edge * 4 + 3];
+            int from = bandIndex(Math.min(y1, y2), bandCount);
+            int to = bandIndex(Math.max(y1, y2), bandCount);
+            for (int band = from; band <= to; band++) {
+                members.get(band).add(edge);
+            }
+        }
+        int[][] result = new int[bandCount][];
+        for (int i = 0; i < bandCount; i++) {
+            result[i] = members.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+    }
+
+    private int bandIndex(double latitude, int bandCount) {
+        return Math.max(0, Math.min(bandCount - 1, (int) ((latitude - minLatitude) / bandHeight)));
+    }
+
+    /**
+     * GeoJSONから環を取得
+     */
+    private static List<double[]> parseGeoJson(String text) {
+        JsonNode root;
+        try {
+            root = OBJECT_MAPPER.readTree(text);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid GeoJSON: " + e.getMessage(), e);
+        }
+        if ("Feature".equals(root.path("type").asText())) {
+            root = root.path("geometry");
+        }
+        String type = root.path("type").asText();
+        JsonNode coordinates = root.path("coordinates");
+        List<double[]> rings = new ArrayList<>();
+        switch (type) {
+            case "Polygon" -> addGeoJsonPolygon(coordinates, rings);
+            case "MultiPolygon" -> coordinates.forEach(polygon -> addGeoJsonPolygon(polygon, rings));
+            default -> throw new IllegalArgumentException("Unsupported GeoJSON geometry: " + type);
+        }
+        return rings;
+    }
+
+    private static void addGeoJsonPolygon(JsonNode polygon, List<double[]> rings) {
+        for (JsonNode ring : polygon) {
+            double[] points = new double[ring.size() * 2];
+            for (int i = 0; i < ring.size(); i++) {
+                JsonNode position = ring.get(i);
+                points[i * 2] = position.get(0).asDouble();
+                points[i * 2 + 1] = position.get(1).asDouble();
+            }
+            addRing(points, rings);
+        }
+    }
+
+    /**
+     * WKTから環を取得
+     *
+     * SRID=4326; の接頭辞を許容します。座標は「経度 緯度」の順です。
+     */
+    private static List<double[]> parseWkt(String text) {
+        String wkt = text;
+        if (wkt.toUpperCase(Locale.ROOT).startsWith("SRID=")) {
+            wkt = wkt.substring(wkt.indexOf(';') + 1).trim();
+        }
+        String upper = wkt.toUpperCase(Locale.ROOT);
+        if (!upper.startsWith("POLYGON") && !upper.startsWith("MULTIPOLYGON")) {
+            throw new IllegalArgumentException("Unsupported WKT geometry: " + wkt);
+        }
+
+        // 括弧の深さにかかわらず、最も内側の括弧を1つの環として扱う
+        List<double[]> rings = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < wkt.length(); i++) {
+            char c = wkt.charAt(i);
+            if (c == '(') {
+                start = i + 1;
+            } else if (c == ')' && start >= 0) {
+                addRing(parseWktRing(wkt.substring(start, i)), rings);
+                start = -1;
+            }
+        }
+        return rings;
+    }
+
+    private static double[] parseWktRing(String text) {
+        String[] positions = text.split(",");
+        double[] points = new double[positions.length * 2];
+        for (int i = 0; i < positions.length; i++) {
+            String[] values = positions[i].trim().split("\\s+");
+            if (values.length < 2) {
+                throw new IllegalArgumentException("Invalid WKT position: " + positions[i]);
+            }
+            points[i * 2] = Double.parseDouble(values[0]);
+            points[i * 2 + 1] = Double.parseDouble(values[1]);
+        }
+        return points;
+    }
+
+    /**
+     * 環を追加（閉じるための重複した終点は除く）
+     */
+    private static void addRing(double[] points, List<double[]> rings) {
+        int length = points.length;
+        if (length >= 4 && points[0] == points[length - 2] && points[1] == points[length - 1]) {
+            length -= 2;
+        }
+        if (length < 6) {
+            throw new IllegalArgumentException("Ring needs at least 3 distinct vertices");
+        }
+        double[] ring = new double[length];
+        System.arraycopy(points, 0, ring, 0, length);
+        rings.add(ring);
+    }
+}
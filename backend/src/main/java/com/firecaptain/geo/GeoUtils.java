@@ -0,0 +1,64 @@
+package com.firecaptain.geo;
+
+/**
+ * 地理計算ユーティリティ
+ *
+ * 緯度・経度を扱う距離計算などの共通処理を提供します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class GeoUtils {
+
+    /** 地球の平均半径（km） */
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    /** 緯度1度あたりの距離（km） */
+    public static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * 2点間の大圏距離を計算（ハバーサイン公式）
+     *
+     * @param lat1 地点1の緯度
+     * @param lon1 地点1の経度
+     * @param lat2 地点2の緯度
+     * @param lon2 地点2の経度
+     * @return 距離（km）
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * 指定緯度における経度1度あたりの距離を計算
+     *
+     * @param latitude 緯度
+     * @return 経度1度あたりの距離（km）
+     */
+    public static double kmPerDegreeLongitude(double latitude) {
+        return KM_PER_DEGREE_LATITUDE * Math.cos(Math.toRadians(latitude));
+    }
+
+    /**
+     * 座標が有効かどうかを判定
+     *
+     * @param latitude  緯度
+     * @param longitude 経度
+     * @return 有効な場合はtrue
+     */
+    public static boolean isValid(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && !latitude.isNaN() && !longitude.isNaN()
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+}
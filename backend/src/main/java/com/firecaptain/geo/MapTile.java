@@ -0,0 +1,87 @@
+package com.firecaptain.geo;
+
+/**
+ * Webメルカトル図法の地図タイル座標（z/x/y）
+ *
+ * 一般的な地図ライブラリ（Leaflet・OpenLayersなど）と同じ分割で、
+ * ズームレベル z では世界を 2^z × 2^z のタイルに分けます。
+ * x は西から東、y は北から南に数えます。
+ *
+ * @param zoom ズームレベル
+ * @param x    タイルの列
+ * @param y    タイルの行
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public record MapTile(int zoom, int x, int y) {
+
+    /** Webメルカトル図法で表示できる緯度の上限 */
+    public static final double MAX_LATITUDE = 85.05112878;
+
+    /** ズームレベルの上限（x・yをintで扱える範囲） */
+    public static final int MAX_ZOOM = 30;
+
+    public MapTile {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom must be between 0 and " + MAX_ZOOM + ": " + zoom);
+        }
+        int size = 1 << zoom;
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            throw new IllegalArgumentException("Tile " + zoom + "/" + x + "/" + y + " is out of range");
+        }
+    }
+
+    /**
+     * 地点を含むタイル
+     *
+     * @param latitude  緯度
+     * @param longitude 経度
+     * @param zoom      ズームレベル
+     * @return タイル
+     */
+    public static MapTile containing(double latitude, double longitude, int zoom) {
+        return new MapTile(zoom, index(projectX(longitude), zoom), index(projectY(latitude), zoom));
+    }
+
+    /**
+     * 経度を世界全体に対する横方向の位置（0〜1、西端が0）に変換
+     */
+    public static double projectX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    /**
+     * 緯度を世界全体に対する縦方向の位置（0〜1、北端が0）に変換
+     */
+    public static double projectY(double latitude) {
+        double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double radians = Math.toRadians(clamped);
+        return (1.0 - Math.log(Math.tan(radians) + 1.0 / Math.cos(radians)) / Math.PI) / 2.0;
+    }
+
+    /**
+     * 投影後の位置を含むタイルの列または行
+     *
+     * @param projected {@link #projectX} または {@link #projectY} の値
+     * @param zoom      ズームレベル
+     * @return タイルの列または行
+     */
+    public static int index(double projected, int zoom) {
+        int size = 1 << zoom;
+        return Math.max(0, Math.min(size - 1, (int) Math.floor(projected * size)));
+    }
+
+    /**
+     * 同じズームレベル内でタイルを一意に表すキー
+     */
+    public long key() {
+        return key(x, y);
+    }
+
+    /**
+     * 列と行からタイルのキーを計算
+     */
+    public static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
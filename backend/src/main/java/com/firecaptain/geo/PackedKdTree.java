@@ -0,0 +1,315 @@
+package com.firecaptain.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * 配列に詰めた不変のk-d木による空間インデックス
+ *
+ * 要素の位置を単位球面上の3次元座標に変換し、中央値分割のk-d木として
+ * 配列上に並べて保持します。球面上の弦の長さは大圏距離と単調に対応するため、
+ * 軸ごとの座標差を枝刈りの下限として使え、緯度による経度の縮みや
+ * 日付変更線をまたぐ場合も正確な近傍を返します。
+ *
+ * 構築後は変更できません。更新が必要な場合は新しい木を構築して差し替えます。
+ * 不変であるため、検索はロックなしで並行して実行できます。
+ * 位置を持たない要素は構築時に除外されます。
+ *
+ * @param <T> 格納する要素の型
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class PackedKdTree<T extends GeoPoint> {
+
+    private final List<T> items;
+    /** 要素ごとの単位球面上の座標（x, y, z の順に詰めて格納） */
+    private final double[] coordinates;
+    /** 部分木ごとの分割軸（0:x, 1:y, 2:z） */
+    private final byte[] axes;
+
+    private PackedKdTree(List<T> items, double[] coordinates, byte[] axes) {
+        this.items = items;
+        this.coordinates = coordinates;
+        this.axes = axes;
+    }
+
+    /**
+     * 木を構築
+     *
+     * @param source 格納する要素
+     * @param <T>    要素の型
+     * @return 構築した木
+     */
+    public static <T extends GeoPoint> PackedKdTree<T> build(Collection<? extends T> source) {
+        List<T> located = new ArrayList<>(source.size());
+        for (T item : source) {
+            if (item.hasLocation()) {
+                located.add(item);
+            }
+        }
+
+        int size = located.size();
+        Object[] order = located.toArray();
+        double[] points = new double[size * 3];
+        for (int i = 0; i < size; i++) {
+            GeoPoint point = (GeoPoint) order[i];
+            toUnitVector(point.latitude(), point.longitude(), points, i * 3);
+        }
+
+        byte[] axes = new byte[size];
+        Builder builder = new Builder(order, points, axes);
+        builder.split(0, size);
+
+        List<T> items = new ArrayList<>(size);
+        for (Object item : order) {
+            @SuppressWarnings("unchecked")
+            T typed = (T) item;
+            items.add(typed);
+        }
+        return new PackedKdTree<>(List.copyOf(items), points, axes);
+    }
+
+    /**
+     * 空の木
+     *
+     * @param <T> 要素の型
+     * @return 要素を持たない木
+     */
+    public static <T extends GeoPoint> PackedKdTree<T> empty() {
+        return new PackedKdTree<>(List.of(), new double[0], new byte[0]);
+    }
+
+    /**
+     * 格納されている要素数
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * 格納されているすべての要素
+     */
+    public List<T> values() {
+        return items;
+    }
+
+    /**
+     * k近傍検索
+     *
+     * @param latitude      検索地点の緯度
+     * @param longitude     検索地点の経度
+     * @param k             取得件数
+     * @param maxDistanceKm 検索半径（km、制限しない場合は {@link Double#POSITIVE_INFINITY}）
+     * @param filter        要素の絞り込み条件
+     * @return 距離の近い順に並んだ近傍要素
+     */
+    public List<SpatialGrid.Neighbor<T>> nearest(double latitude, double longitude, int k, double maxDistanceKm,
+            Predicate<? super T> filter) {
+        if (k <= 0 || items.isEmpty()) {
+            return List.of();
+        }
+        double[] query = new double[3];
+        toUnitVector(latitude, longitude, query, 0);
+
+        Search search = new Search(query, k, chordForDistance(maxDistanceKm), filter);
+        search.visit(0, items.size());
+
+        List<SpatialGrid.Neighbor<T>> result = new ArrayList<>(search.best.size());
+        for (Candidate candidate : search.best) {
+            T item = items.get(candidate.index());
+            result.add(new SpatialGrid.Neighbor<>(item,
+                    GeoUtils.distanceKm(latitude, longitude, item.latitude(), item.longitude())));
+        }
+        result.sort(Comparator.comparingDouble(SpatialGrid.Neighbor::distanceKm));
+        return result;
+    }
+
+    private static void toUnitVector(double latitude, double longitude, double[] target, int offset) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        target[offset] = cosLat * Math.cos(lon);
+        target[offset + 1] = cosLat * Math.sin(lon);
+        target[offset + 2] = Math.sin(lat);
+    }
+
+    /**
+     * 大圏距離に対応する単位球面上の弦の長さ
+     */
+    private static double chordForDistance(double distanceKm) {
+        double angle = distanceKm / GeoUtils.EARTH_RADIUS_KM;
+        if (angle >= Math.PI) {
+            return 2.0;
+        }
+        return 2.0 * Math.sin(angle / 2.0);
+    }
+
+    /**
+     * 中央値分割による配列上の木の構築
+     *
+     * 区間 [from, to) の中央の位置に分割要素を置き、前半を左部分木、
+     * 後半を右部分木とします。分割軸は区間内の広がりが最大の軸です。
+     */
+    private static final class Builder {
+
+        private final Object[] items;
+        private final double[] points;
+        private final byte[] axes;
+
+        Builder(Object[] items, double[] points, byte[] axes) {
+            this.items = items;
+            this.points = points;
+            this.axes = axes;
+        }
+
+        void split(int from, int to) {
+            if (to - from <= 1) {
+                return;
+            }
+            int axis = widestAxis(from, to);
+            int middle = (from + to) >>> 1;
+            select(from, to - 1, middle, axis);
+            axes[middle] = (byte) axis;
+            split(from, middle);
+            split(middle + 1, to);
+        }
+
+        private int widestAxis(int from, int to) {
+            int widest = 0;
+            double widestSpread = -1;
+            for (int axis = 0; axis < 3; axis++) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = from; i < to; i++) {
+                    double value = points[i * 3 + axis];
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                if (max - min > widestSpread) {
+                    widestSpread = max - min;
+                    widest = axis;
+                }
+            }
+            return widest;
+        }
+
+        /**
+         * 区間 [left, right] を並べ替え、nth の位置に軸上の順位どおりの要素を置く（Hoareの選択）
+         */
+        private void select(int left, int right, int nth, int axis) {
+            while (left < right) {
+                double pivot = points[((left + right) >>> 1) * 3 + axis];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (points[i * 3 + axis] < pivot) {
+                        i++;
+                    }
+                    while (points[j * 3 + axis] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i, j);
+                        i++;
+                        j--;
+                    }
+                }
+                if (nth <= j) {
+                    right = j;
+                } else if (nth >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            Object item = items[a];
+            items[a] = items[b];
+            items[b] = item;
+            for (int axis = 0; axis < 3; axis++) {
+                double value = points[a * 3 + axis];
+                points[a * 3 + axis] = points[b * 3 + axis];
+                points[b * 3 + axis] = value;
+            }
+        }
+    }
+
+    /**
+     * 1回の近傍検索の状態
+     */
+    private final class Search {
+
+        private final double[] query;
+        private final int k;
+        private final Predicate<? super T> filter;
+        /** 見つかった近傍（遠い順） */
+        private final PriorityQueue<Candidate> best;
+        private double limitSquared;
+
+        Search(double[] query, int k, double maxChord, Predicate<? super T> filter) {
+            this.query = query;
+            this.k = k;
+            this.filter = filter;
+            this.best = new PriorityQueue<>(k + 1,
+                    Comparator.comparingDouble(Candidate::squaredChord).reversed());
+            this.limitSquared = maxChord * maxChord;
+        }
+
+        void visit(int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            consider(middle);
+            if (to - from == 1) {
+                return;
+            }
+
+            int axis = axes[middle];
+            double delta = query[axis] - coordinates[middle * 3 + axis];
+            if (delta < 0) {
+                visit(from, middle);
+                if (delta * delta <= limitSquared) {
+                    visit(middle + 1, to);
+                }
+            } else {
+                visit(middle + 1, to);
+                if (delta * delta <= limitSquared) {
+                    visit(from, middle);
+                }
+            }
+        }
+
+        private void consider(int index) {
+            double dx = query[0] - coordinates[index * 3];
+            double dy = query[1] - coordinates[index * 3 + 1];
+            double dz = query[2] - coordinates[index * 3 + 2];
+            double squared = dx * dx + dy * dy + dz * dz;
+            if (squared > limitSquared || !filter.test(items.get(index))) {
+                return;
+            }
+            best.add(new Candidate(index, squared));
+            if (best.size() > k) {
+                best.poll();
+            }
+            if (best.size() == k) {
+                limitSquared = Math.min(limitSquared, best.peek().squaredChord());
+            }
+        }
+    }
+
+    /**
+     * 近傍の候補
+     *
+     * @param index        要素番号
+     * @param squaredChord 検索地点からの弦の長さの2乗
+     */
+    private record Candidate(int index, double squaredChord) {
+    }
+}
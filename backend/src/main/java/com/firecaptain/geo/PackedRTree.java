@@ -0,0 +1,154 @@
+package com.firecaptain.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 配列に詰めた不変のR木
+ *
+ * 外接矩形を持つ要素をSTR（Sort-Tile-Recursive）法でまとめて構築し、
+ * 指定地点を含む矩形の要素を検索します。各階層のノードの矩形は
+ * 配列に連続して格納され、ノードの走査でオブジェクトを生成しません。
+ *
+ * 構築後は変更できません。更新が必要な場合は新しい木を構築して差し替えます。
+ *
+ * @param <T> 格納する要素の型
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class PackedRTree<T> {
+
+    /** ノードあたりの子の数 */
+    private static final int NODE_CAPACITY = 16;
+
+    private final List<T> items;
+    /**
+     * 階層ごとの矩形（最小緯度, 最大緯度, 最小経度, 最大経度 の順に詰めて格納）。
+     * 0番目が葉（要素そのもの）で、最後が根です。
+     */
+    private final double[][] levels;
+
+    private PackedRTree(List<T> items, double[][] levels) {
+        this.items = items;
+        this.levels = levels;
+    }
+
+    /**
+     * 木を構築
+     *
+     * @param entries 要素と外接矩形
+     * @param <T>     要素の型
+     * @return 構築した木
+     */
+    public static <T> PackedRTree<T> build(List<Entry<T>> entries) {
+        List<Entry<T>> sorted = new ArrayList<>(entries);
+        int size = sorted.size();
+        if (size == 0) {
+            return new PackedRTree<>(List.of(), new double[0][]);
+        }
+
+        // 経度の中心で縦の短冊に分け、短冊内を緯度の中心で並べる
+        int leafNodes = (size + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int slices = (int) Math.ceil(Math.sqrt(leafNodes));
+        int sliceSize = slices * NODE_CAPACITY;
+        sorted.sort(Comparator.comparingDouble(e -> e.minLongitude() + e.maxLongitude()));
+        for (int from = 0; from < size; from += sliceSize) {
+            sorted.subList(from, Math.min(size, from + sliceSize))
+                    .sort(Comparator.comparingDouble(e -> e.minLatitude() + e.maxLatitude()));
+        }
+
+        List<double[]> levels = new ArrayList<>();
+        double[] leaves = new double[size * 4];
+        List<T> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Entry<T> entry = sorted.get(i);
+            leaves[i * 4] = entry.minLatitude();
+            leaves[i * 4 + 1] = entry.maxLatitude();
+            leaves[i * 4 + 2] = entry.minLongitude();
+            leaves[i * 4 + 3] = entry.maxLongitude();
+            items.add(entry.item());
+        }
+        levels.add(leaves);
+
+        double[] current = leaves;
+        while (current.length / 4 > 1) {
+            int children = current.length / 4;
+            int parents = (children + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            double[] parent = new double[parents * 4];
+            for (int p = 0; p < parents; p++) {
+                double minLat = Double.POSITIVE_INFINITY;
+                double maxLat = Double.NEGATIVE_INFINITY;
+                double minLon = Double.POSITIVE_INFINITY;
+                double maxLon = Double.NEGATIVE_INFINITY;
+                for (int c = p * NODE_CAPACITY; c < Math.min(children, (p + 1) * NODE_CAPACITY); c++) {
+                    minLat = Math.min(minLat, current[c * 4]);
+                    maxLat = Math.max(maxLat, current[c * 4 + 1]);
+                    minLon = Math.min(minLon, current[c * 4 + 2]);
+                    maxLon = Math.max(maxLon, current[c * 4 + 3]);
+                }
+                parent[p * 4] = minLat;
+                parent[p * 4 + 1] = maxLat;
+                parent[p * 4 + 2] = minLon;
+                parent[p * 4 + 3] = maxLon;
+            }
+            levels.add(parent);
+            current = parent;
+        }
+        return new PackedRTree<>(List.copyOf(items), levels.toArray(new double[0][]));
+    }
+
+    /**
+     * 格納されている要素数
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * 指定地点を外接矩形に含む要素を検索
+     *
+     * @param latitude  緯度
+     * @param longitude 経度
+     * @return 候補の要素（外接矩形のみで判定しているため、形状による判定は呼び出し側で行う）
+     */
+    public List<T> search(double latitude, double longitude) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<T> result = new ArrayList<>(2);
+        visit(levels.length - 1, 0, latitude, longitude, result);
+        return result;
+    }
+
+    private void visit(int level, int node, double latitude, double longitude, List<T> result) {
+        double[] boxes = levels[level];
+        int offset = node * 4;
+        if (latitude < boxes[offset] || latitude > boxes[offset + 1]
+                || longitude < boxes[offset + 2] || longitude > boxes[offset + 3]) {
+            return;
+        }
+        if (level == 0) {
+            result.add(items.get(node));
+            return;
+        }
+        int childCount = levels[level - 1].length / 4;
+        for (int child = node * NODE_CAPACITY; child < Math.min(childCount, (node + 1) * NODE_CAPACITY); child++) {
+            visit(level - 1, child, latitude, longitude, result);
+        }
+    }
+
+    /**
+     * 要素と外接矩形
+     *
+     * @param item         要素
+     * @param minLatitude  最小緯度
+     * @param maxLatitude  最大緯度
+     * @param minLongitude 最小経度
+     * @param maxLongitude 最大経度
+     * @param <T>          要素の型
+     */
+    public record Entry<T>(T item, double minLatitude, double maxLatitude, double minLongitude,
+            double maxLongitude) {
+    }
+}
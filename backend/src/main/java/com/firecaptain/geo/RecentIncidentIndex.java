@@ -0,0 +1,168 @@
+package com.firecaptain.geo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 直近の事案の時空間インデックス
+ *
+ * 一定時間（ウィンドウ）内に受け付けた事案を、空間セル（{@link SpatialCellId}）と
+ * ウィンドウ幅の時間区分の組をキーとするハッシュに保持し、同じ種別・近い地点・
+ * 近い時刻の事案を検索します。検索は周辺9セル × 前後3区分のバケットを参照するだけで、
+ * 保持している事案の総数によらず一定時間で終わります。
+ *
+ * セルの大きさは、周辺9セルで判定半径を必ず含むように判定半径から決めます
+ * （緯度60度以下の場合）。
+ *
+ * 検索と登録は一体として排他的に行うため、同時に受け付けた重複事案が
+ * どちらも新規として登録されることはありません。
+ *
+ * @param <T> 事案の種別
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class RecentIncidentIndex<T> {
+
+    private final long windowMillis;
+    private final double radiusKm;
+    private final int level;
+
+    /** (時間区分, セル) → 事案 */
+    private final Map<Long, List<Incident<T>>> buckets = new HashMap<>();
+
+    /**
+     * @param windowMillis 同一事案とみなす受付時刻の差（ミリ秒）
+     * @param radiusKm     同一事案とみなす距離（km）
+     */
+    public RecentIncidentIndex(long windowMillis, double radiusKm) {
+        if (windowMillis <= 0 || radiusKm <= 0) {
+            throw new IllegalArgumentException("Window and radius must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.radiusKm = radiusKm;
+        this.level = levelFor(radiusKm);
+    }
+
+    /**
+     * 同一とみなす事案を検索し、なければ新しい事案として登録
+     *
+     * 一致する事案が複数ある場合は最も近い事案を返します。
+     *
+     * @param id          事案のID
+     * @param type        事案の種別（nullの場合は種別を問わない）
+     * @param latitude    緯度
+     * @param longitude   経度
+     * @param epochMillis 受付時刻（エポックミリ秒）
+     * @return 同一とみなす既存の事案のID（新しい事案として登録した場合は空）
+     */
+    public synchronized Optional<Long> findOrRegister(long id, T type, double latitude, double longitude,
+            long epochMillis) {
+        long bucket = Math.floorDiv(epochMillis, windowMillis);
+        Incident<T> nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (long cell : SpatialCellId.neighborhood(latitude, longitude, level)) {
+            for (long candidateBucket = bucket - 1; candidateBucket <= bucket + 1; candidateBucket++) {
+                List<Incident<T>> incidents = buckets.get(key(candidateBucket, cell));
+                if (incidents == null) {
+                    continue;
+                }
+                for (Incident<T> incident : incidents) {
+                    if (Math.abs(incident.epochMillis() - epochMillis) > windowMillis
+                            || (type != null && incident.type() != null && !Objects.equals(type, incident.type()))) {
+                        continue;
+                    }
+                    double distance = GeoUtils.distanceKm(latitude, longitude,
+                            incident.latitude(), incident.longitude());
+                    if (distance <= radiusKm && distance < nearestDistance) {
+                        nearest = incident;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        if (nearest != null) {
+            return Optional.of(nearest.id());
+        }
+
+        long cell = SpatialCellId.encode(latitude, longitude, level);
+        buckets.computeIfAbsent(key(bucket, cell), k -> new ArrayList<>(2))
+                .add(new Incident<>(id, type, latitude, longitude, epochMillis));
+        return Optional.empty();
+    }
+
+    /**
+     * 登録した事案を削除（登録を取り消す場合）
+     *
+     * @param id          事案のID
+     * @param latitude    登録時の緯度
+     * @param longitude   登録時の経度
+     * @param epochMillis 登録時の受付時刻
+     */
+    public synchronized void remove(long id, double latitude, double longitude, long epochMillis) {
+        long key = key(Math.floorDiv(epochMillis, windowMillis), SpatialCellId.encode(latitude, longitude, level));
+        List<Incident<T>> incidents = buckets.get(key);
+        if (incidents != null) {
+            incidents.removeIf(incident -> incident.id() == id);
+            if (incidents.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * ウィンドウを過ぎた事案を削除
+     *
+     * @param nowMillis 現在時刻（エポックミリ秒）
+     * @return 削除した事案の数
+     */
+    public synchronized int evictExpired(long nowMillis) {
+        long oldestBucket = Math.floorDiv(nowMillis, windowMillis) - 1;
+        int evicted = 0;
+        Iterator<Map.Entry<Long, List<Incident<T>>>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, List<Incident<T>>> entry = iterator.next();
+            if ((entry.getKey() >> 32) < oldestBucket) {
+                evicted += entry.getValue().size();
+                iterator.remove();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 保持している事案の数
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (List<Incident<T>> incidents : buckets.values()) {
+            size += incidents.size();
+        }
+        return size;
+    }
+
+    /**
+     * 時間区分（上位）とセルID（下位32ビット）を1つのキーにする
+     */
+    private static long key(long bucket, long cell) {
+        return (bucket << 32) | cell;
+    }
+
+    /**
+     * 緯度方向のセルの高さが判定半径以上になる最も細かいレベル（{@link SpatialCellId#BLOCK_LEVEL}まで）
+     */
+    private static int levelFor(double radiusKm) {
+        int level = SpatialCellId.BLOCK_LEVEL;
+        while (level > 1 && 180.0 / (1 << level) * GeoUtils.KM_PER_DEGREE_LATITUDE < radiusKm) {
+            level--;
+        }
+        return level;
+    }
+
+    private record Incident<T>(long id, T type, double latitude, double longitude, long epochMillis) {
+    }
+}
@@ -0,0 +1,276 @@
+package com.firecaptain.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 道路ネットワークグラフ
+ *
+ * 交差点（ノード）と道路区間（エッジ）を圧縮行形式（CSR）の
+ * プリミティブ配列で保持する読み取り専用のグラフです。
+ * エッジの重みは走行時間（秒）です。
+ *
+ * グラフファイルはOSM抽出データなどから事前に変換したテキスト形式で、
+ * 1行に1レコードを記述します。
+ * <pre>
+ * # コメント
+ * N &lt;ノードID&gt; &lt;緯度&gt; &lt;経度&gt;
+ * E &lt;始点ノードID&gt; &lt;終点ノードID&gt; &lt;距離(m)&gt; &lt;制限速度(km/h)&gt; [一方通行 0|1]
+ * </pre>
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class RoadGraph {
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] edgeOffsets;
+    private final int[] edgeTargets;
+    private final float[] edgeSeconds;
+    private final SpatialGrid<Node> nodeIndex;
+
+    private RoadGraph(double[] latitudes, double[] longitudes, int[] edgeOffsets, int[] edgeTargets,
+            float[] edgeSeconds) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeTargets = edgeTargets;
+        this.edgeSeconds = edgeSeconds;
+        this.nodeIndex = new SpatialGrid<>(0.005);
+        for (int i = 0; i < latitudes.length; i++) {
+            nodeIndex.put(new Node(i, latitudes[i], longitudes[i]));
+        }
+    }
+
+    /**
+     * グラフファイルを読み込み
+     *
+     * @param file グラフファイル
+     * @return 道路ネットワークグラフ
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public static RoadGraph load(Path file) throws IOException {
+        Map<Long, Integer> nodeIndexById = new HashMap<>();
+        List<double[]> nodes = new ArrayList<>();
+        List<long[]> rawEdges = new ArrayList<>();
+        List<Float> rawSeconds = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                try {
+                    switch (fields[0]) {
+                        case "N" -> {
+                            nodeIndexById.put(Long.parseLong(fields[1]), nodes.size());
+                            nodes.add(new double[] { Double.parseDouble(fields[2]), Double.parseDouble(fields[3]) });
+                        }
+                        case "E" -> {
+                            long from = Long.parseLong(fields[1]);
+                            long to = Long.parseLong(fields[2]);
+                            double meters = Double.parseDouble(fields[3]);
+                            double speedKmh = Double.parseDouble(fields[4]);
+                            boolean oneWay = fields.length > 5 && "1".equals(fields[5]);
+                            float seconds = (float) (meters / (speedKmh / 3.6));
+                            rawEdges.add(new long[] { from, to });
+                            rawSeconds.add(seconds);
+                            if (!oneWay) {
+                                rawEdges.add(new long[] { to, from });
+                                rawSeconds.add(seconds);
+                            }
+                        }
+                        default -> throw new IOException("Unknown record type '" + fields[0] + "'");
+                    }
+                } catch (RuntimeException e) {
+                    throw new IOException("Invalid road graph record at line " + lineNumber + ": " + line, e);
+                }
+            }
+        }
+
+        int nodeCount = nodes.size();
+        double[] latitudes = new double[nodeCount];
+        double[] longitudes = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            latitudes[i] = nodes.get(i)[0];
+            longitudes[i] = nodes.get(i)[1];
+        }
+
+        // 始点ノードごとにエッジを並べたCSR配列を構築
+        int[] from = new int[rawEdges.size()];
+        int[] to = new int[rawEdges.size()];
+        int[] edgeOffsets = new int[nodeCount + 1];
+        int edgeCount = 0;
+        for (int i = 0; i < rawEdges.size(); i++) {
+            Integer source = nodeIndexById.get(rawEdges.get(i)[0]);
+            Integer target = nodeIndexById.get(rawEdges.get(i)[1]);
+            if (source == null || target == null) {
+                continue; // 抽出範囲外のノードを参照するエッジは無視
+            }
+            from[edgeCount] = source;
+            to[edgeCount] = target;
+            rawSeconds.set(edgeCount, rawSeconds.get(i));
+            edgeOffsets[source + 1]++;
+            edgeCount++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            edgeOffsets[i + 1] += edgeOffsets[i];
+        }
+
+        int[] edgeTargets = new int[edgeCount];
+        float[] edgeSeconds = new float[edgeCount];
+        int[] cursor = Arrays.copyOf(edgeOffsets, nodeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            int position = cursor[from[i]]++;
+            edgeTargets[position] = to[i];
+            edgeSeconds[position] = rawSeconds.get(i);
+        }
+
+        return new RoadGraph(latitudes, longitudes, edgeOffsets, edgeTargets, edgeSeconds);
+    }
+
+    /**
+     * ノード数
+     */
+    public int nodeCount() {
+        return latitudes.length;
+    }
+
+    /**
+     * エッジ数
+     */
+    public int edgeCount() {
+        return edgeTargets.length;
+    }
+
+    /**
+     * ノードの緯度
+     */
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+
+    /**
+     * ノードの経度
+     */
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+
+    /**
+     * 指定地点に最も近いノードを検索
+     *
+     * @param latitude      緯度
+     * @param longitude     経度
+     * @param maxDistanceKm 検索半径（km）
+     * @return ノード番号（範囲内にノードがない場合は-1）
+     */
+    public int nearestNode(double latitude, double longitude, double maxDistanceKm) {
+        List<SpatialGrid.Neighbor<Node>> nearest = nodeIndex.nearest(latitude, longitude, 1, maxDistanceKm,
+                node -> true);
+        return nearest.isEmpty() ? -1 : (int) nearest.get(0).item().id();
+    }
+
+    /**
+     * 単一始点の最短走行時間を計算（ダイクストラ法）
+     *
+     * @param source 始点ノード
+     * @return 各ノードまでの走行時間（秒、到達不能な場合は {@link Float#POSITIVE_INFINITY}）
+     */
+    public float[] shortestTimesFrom(int source) {
+        float[] times = new float[nodeCount()];
+        Arrays.fill(times, Float.POSITIVE_INFINITY);
+        times[source] = 0f;
+
+        // 非負のfloatはビット列の大小関係が値の大小関係と一致するため、
+        // 上位32ビットに時間、下位32ビットにノード番号を詰めて比較する
+        long[] heap = new long[Math.max(16, nodeCount())];
+        int heapSize = 0;
+        heap[heapSize++] = encode(0f, source);
+
+        while (heapSize > 0) {
+            long top = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+
+            int node = (int) top;
+            float time = Float.intBitsToFloat((int) (top >>> 32));
+            if (time > times[node]) {
+                continue;
+            }
+            for (int e = edgeOffsets[node]; e < edgeOffsets[node + 1]; e++) {
+                int target = edgeTargets[e];
+                float candidate = time + edgeSeconds[e];
+                if (candidate < times[target]) {
+                    times[target] = candidate;
+                    if (heapSize == heap.length) {
+                        heap = Arrays.copyOf(heap, heap.length * 2);
+                    }
+                    heap[heapSize++] = encode(candidate, target);
+                    siftUp(heap, heapSize - 1);
+                }
+            }
+        }
+        return times;
+    }
+
+    private static long encode(float time, int node) {
+        return ((long) Float.floatToIntBits(time) << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        long value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * 空間インデックス用のノード表現
+     */
+    private record Node(long id, double latitude, double longitude) implements GeoPoint {
+    }
+}
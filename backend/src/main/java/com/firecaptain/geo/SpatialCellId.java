@@ -0,0 +1,199 @@
+package com.firecaptain.geo;
+
+import java.util.Arrays;
+
+/**
+ * 階層的な空間セルID
+ *
+ * 経度・緯度をそれぞれ 2^level 等分した格子のセル番号を、ビットを交互に並べた
+ * Zオーダー（Morton順）の整数として表します。上位のレベルのセルIDは下位のレベルの
+ * セルIDを右シフトするだけで得られ、あるセルに含まれる下位のセルIDは
+ * 連続した範囲になります。このため集計はセルIDの等値比較、周辺検索は
+ * セルIDの範囲検索として、通常のB-treeインデックスで処理できます。
+ *
+ * 各レベルのおおよそのセルの大きさ（北緯35度付近、経度方向×緯度方向）は以下のとおりです。
+ * <ul>
+ * <li>{@link #DISTRICT_LEVEL}（12）: 約 8km × 5km</li>
+ * <li>{@link #BLOCK_LEVEL}（16）: 約 500m × 300m</li>
+ * <li>{@link #MAX_LEVEL}（24）: 約 2m × 1m</li>
+ * </ul>
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class SpatialCellId {
+
+    /** 最も細かいレベル */
+    public static final int MAX_LEVEL = 24;
+
+    /** 街区程度のレベル */
+    public static final int BLOCK_LEVEL = 16;
+
+    /** 地区程度のレベル */
+    public static final int DISTRICT_LEVEL = 12;
+
+    private SpatialCellId() {
+    }
+
+    /**
+     * 地点を含むセルのIDを計算
+     *
+     * @param latitude  緯度
+     * @param longitude 経度
+     * @param level     レベル（1〜{@link #MAX_LEVEL}）
+     * @return セルID
+     */
+    public static long encode(double latitude, double longitude, int level) {
+        checkLevel(level);
+        return interleave(column(longitude, level), row(latitude, level));
+    }
+
+    /**
+     * 上位レベルのセルIDを計算
+     *
+     * @param cellId      セルID
+     * @param level       セルIDのレベル
+     * @param parentLevel 上位のレベル（level以下）
+     * @return 上位レベルのセルID
+     */
+    public static long parent(long cellId, int level, int parentLevel) {
+        checkLevel(level);
+        checkLevel(parentLevel);
+        if (parentLevel > level) {
+            throw new IllegalArgumentException("Parent level " + parentLevel + " is finer than " + level);
+        }
+        return cellId >>> (2 * (level - parentLevel));
+    }
+
+    /**
+     * セルに含まれる下位レベルのセルIDの範囲
+     *
+     * @param cellId     セルID
+     * @param level      セルIDのレベル
+     * @param childLevel 下位のレベル（level以上）
+     * @return 下位レベルのセルIDの範囲
+     */
+    public static Range children(long cellId, int level, int childLevel) {
+        checkLevel(level);
+        checkLevel(childLevel);
+        if (childLevel < level) {
+            throw new IllegalArgumentException("Child level " + childLevel + " is coarser than " + level);
+        }
+        int shift = 2 * (childLevel - level);
+        return new Range(cellId << shift, ((cellId + 1) << shift) - 1);
+    }
+
+    /**
+     * 地点を含むセルとその周囲8セルのID
+     *
+     * 格子の端（経度±180度、緯度±90度）では存在するセルのみを返し、
+     * 日付変更線をまたぐ場合は反対側のセルを含めます。
+     *
+     * @param latitude  緯度
+     * @param longitude 経度
+     * @param level     レベル
+     * @return セルID（重複なし）
+     */
+    public static long[] neighborhood(double latitude, double longitude, int level) {
+        checkLevel(level);
+        int size = 1 << level;
+        int centerColumn = column(longitude, level);
+        int centerRow = row(latitude, level);
+        long[] cells = new long[9];
+        int count = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            int y = centerRow + dy;
+            if (y < 0 || y >= size) {
+                continue;
+            }
+            for (int dx = -1; dx <= 1; dx++) {
+                int x = Math.floorMod(centerColumn + dx, size);
+                long cell = interleave(x, y);
+                if (!contains(cells, count, cell)) {
+                    cells[count++] = cell;
+                }
+            }
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    /**
+     * セルの中心の緯度・経度
+     *
+     * @param cellId セルID
+     * @param level  セルIDのレベル
+     * @return {緯度, 経度}
+     */
+    public static double[] center(long cellId, int level) {
+        checkLevel(level);
+        int x = deinterleave(cellId);
+        int y = deinterleave(cellId >>> 1);
+        double size = 1 << level;
+        return new double[] {(y + 0.5) / size * 180.0 - 90.0, (x + 0.5) / size * 360.0 - 180.0};
+    }
+
+    private static int column(double longitude, int level) {
+        int size = 1 << level;
+        return clamp((int) Math.floor((longitude + 180.0) / 360.0 * size), size);
+    }
+
+    private static int row(double latitude, int level) {
+        int size = 1 << level;
+        return clamp((int) Math.floor((latitude + 90.0) / 180.0 * size), size);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    /**
+     * 列番号を偶数ビット、行番号を奇数ビットに配置
+     */
+    private static long interleave(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static long spread(int value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    private static int deinterleave(long value) {
+        long v = value & 0x5555555555555555L;
+        v = (v | (v >>> 1)) & 0x3333333333333333L;
+        v = (v | (v >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v >>> 4)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v >>> 8)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v >>> 16)) & 0x00000000FFFFFFFFL;
+        return (int) v;
+    }
+
+    private static boolean contains(long[] values, int count, long value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkLevel(int level) {
+        if (level < 1 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Level must be between 1 and " + MAX_LEVEL + ": " + level);
+        }
+    }
+
+    /**
+     * セルIDの範囲（両端を含む）
+     *
+     * @param first 最初のセルID
+     * @param last  最後のセルID
+     */
+    public record Range(long first, long last) {
+    }
+}
@@ -0,0 +1,370 @@
+package com.firecaptain.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 均一グリッドによる空間インデックス
+ *
+ * 要素を緯度・経度の固定サイズセルに振り分けて保持し、
+ * 指定地点の周囲のセルをリング状に広げながら探索することで
+ * k近傍検索を行います。探索は見つかったk件目の距離が
+ * 未探索セルまでの最短距離を下回った時点で打ち切られるため、
+ * 要素数が数万件でも探索コストは周辺セルの要素数にのみ依存します。
+ *
+ * 更新と検索は並行して実行できます。位置を持たない要素は
+ * 保持されますが、近傍検索の対象にはなりません。
+ *
+ * @param <T> 格納する要素の型
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public class SpatialGrid<T extends GeoPoint> {
+
+    /** 探索リング数の上限（セル数） */
+    private static final int MAX_RINGS = 2000;
+
+    private final double cellSizeDegrees;
+
+    /** 要素ID → 要素 */
+    private final Map<Long, T> items = new ConcurrentHashMap<>();
+
+    /** セルキー → セル内の要素ID */
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    /** 要素が存在したセル範囲（探索の打ち切りに使用、拡張のみ） */
+    private volatile int minCellX = Integer.MAX_VALUE;
+    private volatile int maxCellX = Integer.MIN_VALUE;
+    private volatile int minCellY = Integer.MAX_VALUE;
+    private volatile int maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * @param cellSizeDegrees セルの一辺の大きさ（度）
+     */
+    public SpatialGrid(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSizeDegrees);
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    /**
+     * 要素を登録または更新
+     *
+     * @param item 要素
+     * @return 置き換えられた要素（新規登録の場合はnull）
+     */
+    public T put(T item) {
+        T previous = items.put(item.id(), item);
+        long newCell = item.hasLocation() ? cellKey(item.latitude(), item.longitude()) : Long.MIN_VALUE;
+
+        if (previous != null && previous.hasLocation()) {
+            long oldCell = cellKey(previous.latitude(), previous.longitude());
+            if (oldCell == newCell) {
+                return previous;
+            }
+            Set<Long> oldMembers = cells.get(oldCell);
+            if (oldMembers != null) {
+                oldMembers.remove(item.id());
+            }
+        }
+
+        if (item.hasLocation()) {
+            cells.computeIfAbsent(newCell, k -> ConcurrentHashMap.newKeySet()).add(item.id());
+            expandBounds(cellX(item.longitude()), cellY(item.latitude()));
+        }
+        return previous;
+    }
+
+    /**
+     * 要素を削除
+     *
+     * @param id 要素ID
+     * @return 削除された要素（存在しない場合はnull）
+     */
+    public T remove(long id) {
+        T removed = items.remove(id);
+        if (removed != null && removed.hasLocation()) {
+            Set<Long> members = cells.get(cellKey(removed.latitude(), removed.longitude()));
+            if (members != null) {
+                members.remove(id);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 指定した要素を条件付きで削除
+     *
+     * 現在登録されている要素が指定した要素と同一の場合のみ削除します。
+     *
+     * @param item 削除する要素
+     * @return 削除された場合はtrue
+     */
+    public boolean remove(T item) {
+        if (!items.remove(item.id(), item)) {
+            return false;
+        }
+        if (item.hasLocation()) {
+            Set<Long> members = cells.get(cellKey(item.latitude(), item.longitude()));
+            if (members != null) {
+                members.remove(item.id());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 要素を条件付きで置き換え
+     *
+     * 現在登録されている要素が expected と同一の場合のみ置き換えます。
+     *
+     * @param expected 置き換え前の要素
+     * @param updated  置き換え後の要素（IDは expected と同じであること）
+     * @return 置き換えられた場合はtrue
+     */
+    public boolean replace(T expected, T updated) {
+        if (expected.id() != updated.id()) {
+            throw new IllegalArgumentException("Cannot replace item " + expected.id() + " with " + updated.id());
+        }
+        if (!items.replace(expected.id(), expected, updated)) {
+            return false;
+        }
+        long newCell = updated.hasLocation() ? cellKey(updated.latitude(), updated.longitude()) : Long.MIN_VALUE;
+        if (expected.hasLocation()) {
+            long oldCell = cellKey(expected.latitude(), expected.longitude());
+            if (oldCell == newCell) {
+                return true;
+            }
+            Set<Long> oldMembers = cells.get(oldCell);
+            if (oldMembers != null) {
+                oldMembers.remove(updated.id());
+            }
+        }
+        if (updated.hasLocation()) {
+            cells.computeIfAbsent(newCell, k -> ConcurrentHashMap.newKeySet()).add(updated.id());
+            expandBounds(cellX(updated.longitude()), cellY(updated.latitude()));
+        }
+        return true;
+    }
+
+    /**
+     * 要素を取得
+     *
+     * @param id 要素ID
+     * @return 要素（存在しない場合はnull）
+     */
+    public T get(long id) {
+        return items.get(id);
+    }
+
+    /**
+     * 指定したID以外の要素を削除
+     *
+     * @param ids 残す要素IDの集合
+     */
+    public void retainAll(Set<Long> ids) {
+        for (Long id : new ArrayList<>(items.keySet())) {
+            if (!ids.contains(id)) {
+                remove(id);
+            }
+        }
+    }
+
+    /**
+     * 登録されているすべての要素
+     */
+    public Collection<T> values() {
+        return items.values();
+    }
+
+    /**
+     * 登録されている要素数
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * k近傍検索
+     *
+     * 検索地点のセルから外側へリング状にセルを走査します。走査するセル数が
+     * 要素数を上回る範囲まで広がった場合は、全要素の評価に切り替えます。
+     *
+     * @param latitude      検索地点の緯度
+     * @param longitude     検索地点の経度
+     * @param k             取得件数
+     * @param maxDistanceKm 検索半径（km、制限しない場合は {@link Double#POSITIVE_INFINITY}）
+     * @param filter        要素の絞り込み条件
+     * @return 距離の近い順に並んだ近傍要素
+     */
+    public List<Neighbor<T>> nearest(double latitude, double longitude, int k, double maxDistanceKm,
+            Predicate<? super T> filter) {
+        if (k <= 0 || items.isEmpty() || minCellX > maxCellX) {
+            return List.of();
+        }
+
+        PriorityQueue<Neighbor<T>> best = new PriorityQueue<>(k,
+                Comparator.comparingDouble(Neighbor<T>::distanceKm).reversed());
+        int centerX = cellX(longitude);
+        int centerY = cellY(latitude);
+        long extent = Math.max(
+                Math.max(Math.abs((long) centerX - minCellX), Math.abs((long) centerX - maxCellX)),
+                Math.max(Math.abs((long) centerY - minCellY), Math.abs((long) centerY - maxCellY)));
+        int maxRing = (int) Math.min(MAX_RINGS, extent);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double ringLowerBoundKm = ringLowerBoundKm(latitude, ring);
+            if (ringLowerBoundKm > maxDistanceKm) {
+                break;
+            }
+            if (best.size() == k && best.peek().distanceKm() <= ringLowerBoundKm) {
+                break;
+            }
+            // 走査するセル数が要素数を超える場合（条件を満たす要素がk件に満たない場合など）は全件を評価
+            long side = 2L * ring + 1;
+            if (side * side > items.size()) {
+                best.clear();
+                scanAll(latitude, longitude, k, maxDistanceKm, filter, best);
+                break;
+            }
+            scanRing(centerX, centerY, ring, latitude, longitude, k, maxDistanceKm, filter, best);
+        }
+
+        List<Neighbor<T>> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    /**
+     * 指定リング上のセルを走査
+     */
+    private void scanRing(int centerX, int centerY, int ring, double latitude, double longitude, int k,
+            double maxDistanceKm, Predicate<? super T> filter, PriorityQueue<Neighbor<T>> best) {
+        if (ring == 0) {
+            scanCell(centerX, centerY, latitude, longitude, k, maxDistanceKm, filter, best);
+            return;
+        }
+        for (int dx = -ring; dx <= ring; dx++) {
+            scanCell(centerX + dx, centerY - ring, latitude, longitude, k, maxDistanceKm, filter, best);
+            scanCell(centerX + dx, centerY + ring, latitude, longitude, k, maxDistanceKm, filter, best);
+        }
+        for (int dy = -ring + 1; dy <= ring - 1; dy++) {
+            scanCell(centerX - ring, centerY + dy, latitude, longitude, k, maxDistanceKm, filter, best);
+            scanCell(centerX + ring, centerY + dy, latitude, longitude, k, maxDistanceKm, filter, best);
+        }
+    }
+
+    /**
+     * 全要素を評価
+     */
+    private void scanAll(double latitude, double longitude, int k, double maxDistanceKm,
+            Predicate<? super T> filter, PriorityQueue<Neighbor<T>> best) {
+        for (T item : items.values()) {
+            if (item.hasLocation() && filter.test(item)) {
+                offer(item, GeoUtils.distanceKm(latitude, longitude, item.latitude(), item.longitude()), k,
+                        maxDistanceKm, best);
+            }
+        }
+    }
+
+    /**
+     * 単一セル内の要素を評価
+     */
+    private void scanCell(int x, int y, double latitude, double longitude, int k, double maxDistanceKm,
+            Predicate<? super T> filter, PriorityQueue<Neighbor<T>> best) {
+        long key = cellKey(x, y);
+        Set<Long> members = cells.get(key);
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+        for (Long id : members) {
+            T item = items.get(id);
+            // 走査中に移動・削除された要素は移動先のセルで評価される
+            if (item == null || !item.hasLocation() || cellKey(item.latitude(), item.longitude()) != key) {
+                continue;
+            }
+            if (!filter.test(item)) {
+                continue;
+            }
+            offer(item, GeoUtils.distanceKm(latitude, longitude, item.latitude(), item.longitude()), k,
+                    maxDistanceKm, best);
+        }
+    }
+
+    /**
+     * 近傍の候補に追加（k件を超える場合は最も遠い要素と入れ替え）
+     */
+    private static <T> void offer(T item, double distance, int k, double maxDistanceKm,
+            PriorityQueue<Neighbor<T>> best) {
+        if (distance > maxDistanceKm) {
+            return;
+        }
+        if (best.size() < k) {
+            best.add(new Neighbor<>(item, distance));
+        } else if (distance < best.peek().distanceKm()) {
+            best.poll();
+            best.add(new Neighbor<>(item, distance));
+        }
+    }
+
+    /**
+     * 指定リングより外側にある要素までの最短距離の下限
+     */
+    private double ringLowerBoundKm(double latitude, int ring) {
+        if (ring == 0) {
+            return 0.0;
+        }
+        double degrees = (ring - 1) * cellSizeDegrees;
+        double farthestLatitude = Math.min(89.9, Math.abs(latitude) + (ring + 1) * cellSizeDegrees);
+        return degrees * Math.min(GeoUtils.KM_PER_DEGREE_LATITUDE, GeoUtils.kmPerDegreeLongitude(farthestLatitude));
+    }
+
+    private synchronized void expandBounds(int x, int y) {
+        if (x < minCellX) {
+            minCellX = x;
+        }
+        if (x > maxCellX) {
+            maxCellX = x;
+        }
+        if (y < minCellY) {
+            minCellY = y;
+        }
+        if (y > maxCellY) {
+            maxCellY = y;
+        }
+    }
+
+    private int cellX(double longitude) {
+        return (int) Math.floor(longitude / cellSizeDegrees);
+    }
+
+    private int cellY(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDegrees);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return cellKey(cellX(longitude), cellY(latitude));
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 近傍検索の結果
+     *
+     * @param item       要素
+     * @param distanceKm 検索地点からの距離（km）
+     * @param <T>        要素の型
+     */
+    public record Neighbor<T>(T item, double distanceKm) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.firecaptain.geo;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 移動軌跡の圧縮形式
+ *
+ * 時刻順に並んだ位置を、時刻（ミリ秒）・緯度・経度（いずれも1e-6度単位の整数）
+ * それぞれの前の点との差分として、ZigZag符号化した可変長整数で格納します。
+ * 車両の測位間隔（数秒）では各差分が1〜3バイトに収まり、1点あたりおおむね
+ * 6〜8バイトになります。
+ *
+ * 形式は先頭の版番号（1バイト）、点の数、各点の差分の順です。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class TrackCodec {
+
+    /** 形式の版 */
+    private static final int FORMAT_VERSION = 1;
+
+    /** 座標の単位（1e-6度、約0.1m） */
+    private static final double COORDINATE_SCALE = 1_000_000.0;
+
+    private TrackCodec() {
+    }
+
+    /**
+     * 位置を圧縮
+     *
+     * @param points 時刻順の位置
+     * @return 圧縮したデータ
+     */
+    public static byte[] encode(List<TrackPoint> points) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(points.size() * 8 + 8);
+        out.write(FORMAT_VERSION);
+        writeVarLong(out, points.size());
+        long previousTime = 0;
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        for (TrackPoint point : points) {
+            long latitude = Math.round(point.latitude() * COORDINATE_SCALE);
+            long longitude = Math.round(point.longitude() * COORDINATE_SCALE);
+            writeVarLong(out, zigZag(point.epochMillis() - previousTime));
+            writeVarLong(out, zigZag(latitude - previousLatitude));
+            writeVarLong(out, zigZag(longitude - previousLongitude));
+            previousTime = point.epochMillis();
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 指定期間の位置を展開
+     *
+     * @param data       圧縮したデータ
+     * @param fromMillis 期間の開始（エポックミリ秒、含む）
+     * @param toMillis   期間の終了（エポックミリ秒、含む）
+     * @return 期間内の位置（時刻順）
+     * @throws IllegalArgumentException データが不正な場合
+     */
+    public static List<TrackPoint> decode(byte[] data, long fromMillis, long toMillis) {
+        Reader reader = new Reader(data);
+        int version = reader.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported track format version: " + version);
+        }
+        long count = reader.readVarLong();
+        List<TrackPoint> points = new ArrayList<>();
+        long time = 0;
+        long latitude = 0;
+        long longitude = 0;
+        for (long i = 0; i < count; i++) {
+            time += unZigZag(reader.readVarLong());
+            latitude += unZigZag(reader.readVarLong());
+            longitude += unZigZag(reader.readVarLong());
+            if (time > toMillis) {
+                break;
+            }
+            if (time >= fromMillis) {
+                points.add(new TrackPoint(time, latitude / COORDINATE_SCALE, longitude / COORDINATE_SCALE));
+            }
+        }
+        return points;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated track data");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in track data");
+        }
+    }
+
+    /**
+     * 軌跡上の位置
+     *
+     * @param epochMillis 測位時刻（エポックミリ秒）
+     * @param latitude    緯度
+     * @param longitude   経度
+     */
+    public record TrackPoint(long epochMillis, double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,504 @@
+package com.firecaptain.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 受付ジャーナル（追記専用のログ）
+ *
+ * 受け付けた通報を、メモリマップしたセグメントファイルに順に追記します。
+ * 各レコードは長さ・CRC32C・連番・本体からなり、起動時にCRCと連番を検証して、
+ * 書き込み途中で停止したレコード以降を破棄します。
+ *
+ * <pre>
+ * レコード: [長さ int][CRC32C int][連番 long][本体]
+ * </pre>
+ *
+ * {@link #sync(long)} はグループコミットで、同時に待っている追記をまとめて
+ * 1回のディスクへの書き出し（fsync）で永続化します。
+ *
+ * 取り出し済みの位置はチェックポイントファイルに記録し（{@link #markDrained(long)}）、
+ * すべてのレコードを取り出し済みのセグメントは予備として消去し、次のセグメントに
+ * マップしたまま再利用します。Javaにはマップを明示的に解除する手段がなく、削除した
+ * ファイルのマップはバッファがGCで回収されるまで残るため、予備を
+ * {@value #MAX_SPARE_SEGMENTS} 個まで保持して、定常時にはマップを新たに作成しないように
+ * します。予備の上限を超えた分（滞留の解消後など）のみ削除し、GCでの解除に任せます。
+ * 再起動後はチェックポイントより後のレコードから取り出しを再開します。
+ * 取り出しは1つのスレッドから行うこと。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class IntakeJournal implements Closeable {
+
+    /** レコードのヘッダー（長さ・CRC・連番）の大きさ */
+    static final int HEADER_SIZE = 16;
+
+    /** 再利用のために保持する取り出し済みセグメントの最大数 */
+    static final int MAX_SPARE_SEGMENTS = 2;
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{20})\\.log");
+    private static final String SPARE_PREFIX = "spare-";
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    private final Path directory;
+    private final int segmentSize;
+
+    /** 古い順のセグメント（末尾が追記中） */
+    private final List<Segment> segments = new ArrayList<>();
+
+    /** 再利用を待つ消去済みのセグメント */
+    private final List<Segment> spares = new ArrayList<>();
+
+    /** 次に追記するレコードの連番 */
+    private long nextSequence;
+
+    /** ディスクへの書き出しが完了した最後の連番 */
+    private volatile long durableSequence;
+
+    /** 取り出し済みの最後の連番 */
+    private volatile long drainedSequence;
+
+    /** 取り出しの続きの位置（直前の {@link #read(long, int)} の終了位置） */
+    private ReadCursor readCursor;
+
+    private final Object syncLock = new Object();
+
+    private IntakeJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * ジャーナルを開く（既存のセグメントを検証して復元）
+     *
+     * @param directory   ジャーナルのディレクトリ
+     * @param segmentSize セグメントファイルの大きさ（バイト）
+     * @return ジャーナル
+     * @throws IOException 読み書きに失敗した場合
+     */
+    public static IntakeJournal open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        IntakeJournal journal = new IntakeJournal(directory, segmentSize);
+        journal.recover();
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        drainedSequence = readCheckpoint();
+        long expectedSequence = -1;
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            for (Path file : stream.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SPARE_PREFIX)) {
+                    // 消去の途中で停止した可能性があるため、前回の予備は使わない
+                    Files.delete(file);
+                } else if (SEGMENT_NAME.matcher(name).matches()) {
+                    files.add(file);
+                }
+            }
+        }
+        for (Path file : files) {
+            Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+            matcher.matches();
+            Segment segment = Segment.map(file, Long.parseLong(matcher.group(1)),
+                    (int) Math.max(Files.size(file), segmentSize));
+            if (expectedSequence >= 0 && segment.firstSequence != expectedSequence) {
+                segment.close();
+                throw new IOException("Intake journal segment out of sequence: " + file);
+            }
+            segment.scan();
+            segments.add(segment);
+            expectedSequence = segment.firstSequence + segment.recordCount;
+        }
+
+        nextSequence = Math.max(expectedSequence, drainedSequence + 1);
+        if (segments.isEmpty() || last().firstSequence + last().recordCount != nextSequence) {
+            segments.add(createSegment(nextSequence));
+        }
+        durableSequence = nextSequence - 1;
+    }
+
+    /**
+     * レコードを追記（永続化には {@link #sync(long)} を呼び出すこと）
+     *
+     * @param payload 本体
+     * @return レコードの連番
+     * @throws IOException セグメントの作成に失敗した場合
+     */
+    public synchronized long append(byte[] payload) throws IOException {
+        int size = HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Record too large for intake journal: " + payload.length + " bytes");
+        }
+        Segment segment = last();
+        if (segment.writePosition + size > segment.buffer.capacity()) {
+            segment = createSegment(nextSequence);
+            segments.add(segment);
+        }
+
+        long sequence = nextSequence++;
+        int position = segment.writePosition;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putLong(position + 8, sequence);
+        buffer.put(position + HEADER_SIZE, payload);
+        buffer.putInt(position + 4, checksum(sequence, payload));
+        // 長さを最後に書き込み、長さが0の位置をジャーナルの末尾とする
+        buffer.putInt(position, payload.length);
+        segment.writePosition = position + size;
+        segment.recordCount++;
+        return sequence;
+    }
+
+    /**
+     * 指定した連番までのレコードをディスクへ書き出す
+     *
+     * 書き出し中に呼び出された場合は、完了を待って、まだ書き出されていなければ
+     * その時点までのレコードをまとめて書き出します。
+     *
+     * @param sequence 連番
+     */
+    public void sync(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            List<long[]> ranges = new ArrayList<>();
+            List<Segment> targets = new ArrayList<>();
+            long target;
+            synchronized (this) {
+                target = nextSequence - 1;
+                for (Segment segment : segments) {
+                    if (segment.writePosition > segment.forcedPosition) {
+                        targets.add(segment);
+                        ranges.add(new long[]{segment.forcedPosition, segment.writePosition});
+                    }
+                }
+            }
+            for (int i = 0; i < targets.size(); i++) {
+                long[] range = ranges.get(i);
+                targets.get(i).buffer.force((int) range[0], (int) (range[1] - range[0]));
+                targets.get(i).forcedPosition = (int) range[1];
+            }
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * 指定した連番より後のレコードを取得
+     *
+     * @param afterSequence 取得済みの最後の連番
+     * @param maxRecords    最大件数
+     * @return 連番順のレコード
+     */
+    public synchronized List<Record> read(long afterSequence, int maxRecords) {
+        List<Record> records = new ArrayList<>();
+        ReadCursor cursor = readCursor != null && readCursor.sequence == afterSequence
+                && segments.contains(readCursor.segment) ? readCursor : seek(afterSequence);
+        if (cursor == null) {
+            return records;
+        }
+
+        Segment segment = cursor.segment;
+        int position = cursor.position;
+        long sequence = cursor.sequence;
+        while (records.size() < maxRecords && sequence + 1 < nextSequence) {
+            if (position >= segment.writePosition) {
+                int index = segments.indexOf(segment);
+                if (index + 1 >= segments.size()) {
+                    break;
+                }
+                segment = segments.get(index + 1);
+                position = 0;
+                continue;
+            }
+            int length = segment.buffer.getInt(position);
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER_SIZE, payload);
+            sequence = segment.buffer.getLong(position + 8);
+            records.add(new Record(sequence, payload));
+            position += HEADER_SIZE + length;
+        }
+        readCursor = new ReadCursor(segment, position, sequence);
+        return records;
+    }
+
+    /**
+     * 指定した連番までのレコードを取り出し済みとして記録
+     *
+     * チェックポイントを更新し、すべてのレコードを取り出し済みのセグメントを予備として
+     * 消去します（予備が上限に達している場合は削除）。
+     *
+     * @param sequence 取り出し済みの最後の連番
+     * @throws IOException チェックポイントの書き込みに失敗した場合
+     */
+    public void markDrained(long sequence) throws IOException {
+        if (sequence <= drainedSequence) {
+            return;
+        }
+        writeCheckpoint(sequence);
+        drainedSequence = sequence;
+
+        List<Segment> removable = new ArrayList<>();
+        synchronized (this) {
+            while (segments.size() > 1 && segments.get(1).firstSequence - 1 <= sequence) {
+                removable.add(segments.remove(0));
+            }
+        }
+        for (Segment segment : removable) {
+            recycle(segment);
+        }
+    }
+
+    /**
+     * 取り出し済みの最後の連番
+     */
+    public long drainedSequence() {
+        return drainedSequence;
+    }
+
+    /**
+     * 未取り出しのレコードの数
+     */
+    public synchronized long backlog() {
+        return nextSequence - 1 - drainedSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync(Long.MAX_VALUE);
+        synchronized (this) {
+            for (Segment segment : segments) {
+                segment.close();
+            }
+            segments.clear();
+            for (Segment spare : spares) {
+                spare.close();
+                Files.deleteIfExists(spare.path);
+            }
+            spares.clear();
+        }
+    }
+
+    /**
+     * 連番の直後の位置を先頭から探す
+     */
+    private ReadCursor seek(long afterSequence) {
+        for (Segment segment : segments) {
+            if (afterSequence + 1 < segment.firstSequence
+                    || afterSequence >= segment.firstSequence + segment.recordCount) {
+                continue;
+            }
+            int position = 0;
+            for (long sequence = segment.firstSequence; sequence <= afterSequence; sequence++) {
+                position += HEADER_SIZE + segment.buffer.getInt(position);
+            }
+            return new ReadCursor(segment, position, afterSequence);
+        }
+        // 取り出し済みのレコードより前のセグメントが削除されている場合
+        Segment first = segments.get(0);
+        return afterSequence < first.firstSequence ? new ReadCursor(first, 0, first.firstSequence - 1) : null;
+    }
+
+    private Segment last() {
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * セグメントを作成（予備があれば名前を変えて再利用）
+     */
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(String.format("segment-%020d.log", firstSequence));
+        if (!spares.isEmpty()) {
+            Segment spare = spares.remove(spares.size() - 1);
+            try {
+                Files.move(spare.path, file);
+                return spare.reuse(file, firstSequence);
+            } catch (IOException e) {
+                spare.close();
+                Files.deleteIfExists(spare.path);
+            }
+        }
+        return Segment.map(file, firstSequence, segmentSize);
+    }
+
+    /**
+     * 取り出し済みのセグメントを消去して予備に加える（予備が上限に達している場合は削除）
+     */
+    private void recycle(Segment segment) throws IOException {
+        boolean reusable;
+        synchronized (this) {
+            reusable = spares.size() < MAX_SPARE_SEGMENTS && segment.buffer.capacity() == segmentSize;
+        }
+        if (!reusable) {
+            // マップはバッファがGCで回収されたときに解除される
+            segment.close();
+            Files.deleteIfExists(segment.path);
+            return;
+        }
+
+        // 再起動時に取り出し前のセグメントと区別できるよう、消去より先に名前を変える
+        Path spare = directory.resolve(String.format(SPARE_PREFIX + "%020d.log", segment.firstSequence));
+        Files.move(segment.path, spare);
+        segment.clear();
+        synchronized (this) {
+            spares.add(segment.reuse(spare, -1));
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() != 12) {
+            throw new IOException("Corrupted intake journal checkpoint: " + file);
+        }
+        long sequence = buffer.getLong();
+        if (buffer.getInt() != checksum(sequence, new byte[0])) {
+            throw new IOException("Corrupted intake journal checkpoint: " + file);
+        }
+        return sequence;
+    }
+
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(12).putLong(sequence).putInt(checksum(sequence, new byte[0]));
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * ジャーナルのレコード
+     *
+     * @param sequence 連番
+     * @param payload  本体
+     */
+    public record Record(long sequence, byte[] payload) {
+    }
+
+    private record ReadCursor(Segment segment, int position, long sequence) {
+    }
+
+    /**
+     * メモリマップしたセグメントファイル
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int forcedPosition;
+        private int recordCount;
+
+        private Segment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path path, long firstSequence, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                return new Segment(path, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * 有効なレコードの末尾を探し、書き込み途中のレコードを消去
+         */
+        void scan() {
+            int position = 0;
+            long sequence = firstSequence;
+            while (position + HEADER_SIZE <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > buffer.capacity() - position - HEADER_SIZE
+                        || buffer.getLong(position + 8) != sequence) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_SIZE, payload);
+                if (buffer.getInt(position + 4) != checksum(sequence, payload)) {
+                    break;
+                }
+                position += HEADER_SIZE + length;
+                sequence++;
+            }
+            writePosition = position;
+            forcedPosition = position;
+            recordCount = (int) (sequence - firstSequence);
+
+            // 末尾以降に残った書き込み途中のデータを消去
+            if (position + HEADER_SIZE <= buffer.capacity() && buffer.getInt(position) != 0) {
+                int length = buffer.capacity() - position;
+                buffer.put(position, new byte[length]);
+                buffer.force(position, length);
+            }
+        }
+
+        /**
+         * 同じファイルとマップを別のセグメントとして使用
+         */
+        Segment reuse(Path newPath, long newFirstSequence) {
+            return new Segment(newPath, newFirstSequence, channel, buffer);
+        }
+
+        /**
+         * 書き込み済みの範囲を消去（末尾以降は消去済み）
+         */
+        void clear() {
+            for (int position = 0; position < writePosition; position += ZEROS.length) {
+                buffer.put(position, ZEROS, 0, Math.min(ZEROS.length, writePosition - position));
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
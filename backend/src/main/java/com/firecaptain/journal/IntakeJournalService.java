@@ -0,0 +1,318 @@
+package com.firecaptain.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.entity.IntakeRequest;
+import com.firecaptain.repository.EmergencyReportRepository;
+import com.firecaptain.repository.IntakeRequestRepository;
+import com.firecaptain.service.EmergencyReportService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 受付ジャーナルを介した通報の受付
+ *
+ * 受け付けた通報を {@link IntakeJournal} に書き込み、ディスクへの書き出しが完了した
+ * 時点で受付完了とします。emergency_reports への登録はバックグラウンドの取り出し処理で
+ * 行うため、データベースが停止・遅延している間も受付の応答時間は影響を受けません。
+ *
+ * 取り出し処理は受付順に登録し、データベースに接続できない場合は、
+ * そのレコード以降を次回の実行で再試行します。それ以外の理由で登録できない
+ * レコードは {@link #MAX_RECORD_ATTEMPTS} 回まで再試行し、それでも登録できない場合
+ * （本体を読み込めない場合は直ちに）ジャーナルのディレクトリの {@value #DEAD_LETTER_FILE}
+ * に退避して取り出し済みとします。退避したレコードは
+ * fire_captain_intake_journal_dead_letters_total で数えます。
+ * 再起動後は未登録のレコードから再開し、登録済みの通報番号のレコードは読み飛ばします。
+ *
+ * 通報番号と受付日時は受付時に設定し、通報IDと重複事案の判定・出動指令の作成は
+ * 登録時に行います。冪等キーも登録時に記録し、既に記録されているキーの通報
+ * （受付前にデータベースを参照しないため、JVM内の表にないキーで再送された通報）は
+ * 登録しません。
+ *
+ * fire-captain.intake-journal.enabled=false の場合、またはジャーナルへの追記に
+ * 失敗した場合は、データベースに直接登録します。追記後のディスクへの書き出しに
+ * 失敗した場合は、レコードが後から取り出される可能性があるため、同じ通報番号で
+ * 直接登録します（取り出し時には登録済みの通報番号として読み飛ばされます）。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class IntakeJournalService {
+
+    /** 登録できないレコードを退避するまでの登録の試行回数 */
+    static final int MAX_RECORD_ATTEMPTS = 5;
+
+    /** 登録できないレコードの退避先（1行に「連番 タブ 本体のBase64」） */
+    static final String DEAD_LETTER_FILE = "dead-letter.log";
+
+    private final EmergencyReportService emergencyReportService;
+    private final EmergencyReportRepository emergencyReportRepository;
+    private final IntakeRequestRepository intakeRequestRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int drainBatchSize;
+
+    private volatile IntakeJournal journal;
+
+    private Counter deadLetterCounter;
+
+    /** 登録に失敗したレコードの連番と失敗回数（取り出し処理でのみ参照） */
+    private long failedSequence = -1;
+    private int failedAttempts;
+
+    public IntakeJournalService(EmergencyReportService emergencyReportService,
+            EmergencyReportRepository emergencyReportRepository,
+            IntakeRequestRepository intakeRequestRepository, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${fire-captain.intake-journal.enabled:false}") boolean enabled,
+            @Value("${fire-captain.intake-journal.directory:data/intake-journal}") Path directory,
+            @Value("${fire-captain.intake-journal.segment-size:16777216}") int segmentSize,
+            @Value("${fire-captain.intake-journal.drain-batch-size:200}") int drainBatchSize) {
+        this.emergencyReportService = emergencyReportService;
+        this.emergencyReportRepository = emergencyReportRepository;
+        this.intakeRequestRepository = intakeRequestRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.drainBatchSize = drainBatchSize;
+    }
+
+    /**
+     * ジャーナルを開く（未登録のレコードは取り出し処理で登録）
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = IntakeJournal.open(directory, segmentSize);
+        Gauge.builder("fire_captain_intake_journal_backlog", journal, IntakeJournal::backlog)
+                .description("Number of journaled reports not yet persisted")
+                .register(meterRegistry);
+        deadLetterCounter = Counter.builder("fire_captain_intake_journal_dead_letters_total")
+                .description("Journaled reports moved to the dead letter file")
+                .register(meterRegistry);
+        long backlog = journal.backlog();
+        if (backlog > 0) {
+            log.info("Replaying {} journaled emergency reports from {}", backlog, directory);
+        }
+    }
+
+    /**
+     * 通報を受付
+     *
+     * @param report         受け付ける通報
+     * @param idempotencyKey 冪等キー（nullの場合は記録しない）
+     * @return 通報番号と受付日時を設定した通報（ジャーナル経由の場合、IDは未設定）
+     */
+    public EmergencyReport accept(EmergencyReport report, String idempotencyKey) {
+        IntakeJournal current = journal;
+        if (current == null) {
+            return emergencyReportService.createEmergencyReport(report, idempotencyKey);
+        }
+
+        emergencyReportService.prepareIntake(report);
+        long sequence;
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(new JournaledReport(idempotencyKey, report));
+            sequence = current.append(payload);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to journal emergency report {}, persisting directly", report.getReportNumber(), e);
+            return emergencyReportService.createEmergencyReport(report, idempotencyKey);
+        }
+        try {
+            current.sync(sequence);
+        } catch (RuntimeException e) {
+            log.error("Failed to sync journaled emergency report {}, persisting directly",
+                    report.getReportNumber(), e);
+            return persistAppended(report, idempotencyKey);
+        }
+        log.info("Journaled emergency report: {}", report.getReportNumber());
+        return report;
+    }
+
+    /**
+     * ジャーナルの通報を emergency_reports に登録
+     */
+    @Scheduled(fixedDelayString = "${fire-captain.intake-journal.drain-interval-ms:200}")
+    public synchronized void drain() {
+        IntakeJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        List<IntakeJournal.Record> records;
+        while (!(records = current.read(current.drainedSequence(), drainBatchSize)).isEmpty()) {
+            long drained = current.drainedSequence();
+            boolean interrupted = false;
+            for (IntakeJournal.Record record : records) {
+                if (!drainRecord(record)) {
+                    interrupted = true;
+                    break;
+                }
+                drained = record.sequence();
+            }
+            try {
+                current.markDrained(drained);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (interrupted) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 停止時に取り出せるレコードを登録してジャーナルを閉じる
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        IntakeJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        drain();
+        journal = null;
+        current.close();
+    }
+
+    /**
+     * 追記済みの通報を受付時の通報番号で直接登録
+     *
+     * 取り出し処理が先に同じ通報番号で登録した場合は、その通報を返します。
+     */
+    private EmergencyReport persistAppended(EmergencyReport report, String idempotencyKey) {
+        try {
+            return emergencyReportService.createJournaledReport(report, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            return emergencyReportRepository.findByReportNumber(report.getReportNumber()).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * レコードを登録、または退避
+     *
+     * @return 取り出し済みとしてよい場合はtrue（次回の実行で再試行する場合はfalse）
+     */
+    private boolean drainRecord(IntakeJournal.Record record) {
+        JournaledReport entry;
+        try {
+            entry = objectMapper.readValue(record.payload(), JournaledReport.class);
+        } catch (IOException e) {
+            return deadLetter(record, e);
+        }
+        try {
+            persist(entry);
+            return true;
+        } catch (RuntimeException e) {
+            if (isDatabaseUnavailable(e)) {
+                log.warn("Database unavailable, retrying journaled record {} later: {}",
+                        record.sequence(), e.getMessage());
+                return false;
+            }
+            failedAttempts = record.sequence() == failedSequence ? failedAttempts + 1 : 1;
+            failedSequence = record.sequence();
+            if (failedAttempts < MAX_RECORD_ATTEMPTS) {
+                log.warn("Failed to persist journaled record {} (attempt {}/{}), retrying later: {}",
+                        record.sequence(), failedAttempts, MAX_RECORD_ATTEMPTS, e.getMessage());
+                return false;
+            }
+            return deadLetter(record, e);
+        }
+    }
+
+    /**
+     * 登録できないレコードを退避
+     *
+     * @return 退避できた場合はtrue
+     */
+    private boolean deadLetter(IntakeJournal.Record record, Exception cause) {
+        Path file = directory.resolve(DEAD_LETTER_FILE);
+        String line = record.sequence() + "\t" + Base64.getEncoder().encodeToString(record.payload()) + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            log.error("Failed to move journaled record {} to {}, retrying later", record.sequence(), file, e);
+            return false;
+        }
+        deadLetterCounter.increment();
+        log.error("Moved journaled record {} to {}", record.sequence(), file, cause);
+        return true;
+    }
+
+    /**
+     * データベースに接続できないことによる失敗かどうか（どのレコードも登録できない）
+     */
+    private static boolean isDatabaseUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void persist(JournaledReport entry) {
+        EmergencyReport report = entry.report();
+        // 停止前に登録済みで、チェックポイントの更新前に停止した場合
+        if (emergencyReportRepository.findByReportNumber(report.getReportNumber()).isPresent()) {
+            log.debug("Journaled emergency report {} already persisted", report.getReportNumber());
+            return;
+        }
+        // 同じ冪等キーで再送された通報
+        String idempotencyKey = entry.idempotencyKey();
+        if (idempotencyKey != null && intakeRequestRepository
+                .findByKindAndIdempotencyKey(IntakeRequest.IntakeKind.EMERGENCY_REPORT, idempotencyKey).isPresent()) {
+            log.warn("Skipping journaled emergency report {}: idempotency key {} already recorded",
+                    report.getReportNumber(), idempotencyKey);
+            return;
+        }
+        try {
+            emergencyReportService.createJournaledReport(report, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // 同じ冪等キーの通報が他のノードで登録済み
+            log.warn("Skipping journaled emergency report {}: {}", report.getReportNumber(), e.getMessage());
+        }
+    }
+
+    /**
+     * ジャーナルのレコード本体
+     *
+     * @param idempotencyKey 冪等キー（nullの場合は記録しない）
+     * @param report         受付時の通報
+     */
+    record JournaledReport(String idempotencyKey, EmergencyReport report) {
+    }
+}
@@ -0,0 +1,377 @@
+package com.firecaptain.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.repository.EmergencyReportRepository;
+import com.firecaptain.service.DispatchPipeline;
+import com.firecaptain.service.DispatchSloMetrics;
+import com.firecaptain.service.EmergencyReportService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 履歴通報の再生
+ *
+ * emergency_reports の履歴、またはCSV・JSONLのエクスポートから通報を読み込み、
+ * {@link EmergencyReportService#createEmergencyReport(EmergencyReport)} で再投入します。
+ * 通報間の間隔は元の受付日時の差を速度倍率で割った値を保ちます。
+ *
+ * 再生中は投入スループット、パイプラインのキュー滞留数、受付処理の所要時間を集計し、
+ * 終了時に出動指令SLOメトリクスの段階別レイテンシと合わせて結果を返します。
+ * 段階別レイテンシは直近5分間の集計のため、再生以外の通報も含まれます。
+ * 負荷試験用のため、fire-captain.replay.enabled=true の場合のみ有効です。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "fire-captain.replay", name = "enabled", havingValue = "true")
+public class IncidentReplayService {
+
+    /** キュー滞留数の採取間隔（ミリ秒） */
+    private static final long QUEUE_SAMPLE_INTERVAL_MS = 100;
+
+    private final EmergencyReportService emergencyReportService;
+    private final EmergencyReportRepository emergencyReportRepository;
+    private final DispatchPipeline dispatchPipeline;
+    private final DispatchSloMetrics dispatchSloMetrics;
+    private final ObjectMapper objectMapper;
+    private final int defaultConcurrency;
+
+    /** 実行中または直近の再生 */
+    private final AtomicReference<ReplayRun> currentRun = new AtomicReference<>();
+
+    public IncidentReplayService(EmergencyReportService emergencyReportService,
+            EmergencyReportRepository emergencyReportRepository, DispatchPipeline dispatchPipeline,
+            DispatchSloMetrics dispatchSloMetrics, ObjectMapper objectMapper,
+            @Value("${fire-captain.replay.concurrency:8}") int defaultConcurrency) {
+        this.emergencyReportService = emergencyReportService;
+        this.emergencyReportRepository = emergencyReportRepository;
+        this.dispatchPipeline = dispatchPipeline;
+        this.dispatchSloMetrics = dispatchSloMetrics;
+        this.objectMapper = objectMapper;
+        this.defaultConcurrency = defaultConcurrency;
+    }
+
+    /**
+     * 再生を開始
+     *
+     * @param request 再生条件
+     * @return 開始時点の再生状況
+     * @throws IOException           ファイルの読み込みに失敗した場合
+     * @throws IllegalStateException 別の再生が実行中の場合
+     */
+    public ReplayReport start(ReplayRequest request) throws IOException {
+        if (request.speedFactor() <= 0) {
+            throw new IllegalArgumentException("speedFactor must be positive: " + request.speedFactor());
+        }
+        ReplayRun running = currentRun.get();
+        if (running != null && !running.isFinished()) {
+            throw new IllegalStateException("Replay already running");
+        }
+
+        List<EmergencyReport> reports = load(request);
+        int concurrency = request.concurrency() != null && request.concurrency() > 0
+                ? request.concurrency() : defaultConcurrency;
+        ReplayRun run = new ReplayRun(reports, request.speedFactor(), concurrency);
+        if (!currentRun.compareAndSet(running, run)) {
+            throw new IllegalStateException("Replay already running");
+        }
+        log.info("Starting replay of {} reports from {} at {}x with {} injectors",
+                reports.size(), request.source(), request.speedFactor(), concurrency);
+        run.start();
+        return run.report();
+    }
+
+    /**
+     * 実行中または直近の再生状況を取得
+     *
+     * @return 再生状況（未実行の場合はnull）
+     */
+    public ReplayReport getReport() {
+        ReplayRun run = currentRun.get();
+        return run != null ? run.report() : null;
+    }
+
+    /**
+     * 実行中の再生を中止
+     */
+    public void cancel() {
+        ReplayRun run = currentRun.get();
+        if (run != null) {
+            run.cancel();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancel();
+    }
+
+    private List<EmergencyReport> load(ReplayRequest request) throws IOException {
+        return switch (request.source()) {
+            case DATABASE -> {
+                if (request.from() == null || request.to() == null) {
+                    throw new IllegalArgumentException("from and to are required for DATABASE replay");
+                }
+                List<EmergencyReport> reports = emergencyReportRepository
+                        .findByReceivedAtBetween(request.from(), request.to());
+                reports.sort((a, b) -> a.getReceivedAt().compareTo(b.getReceivedAt()));
+                yield reports;
+            }
+            case CSV -> ReplayIncidentReader.readCsv(requirePath(request));
+            case JSONL -> ReplayIncidentReader.readJsonl(requirePath(request), objectMapper);
+        };
+    }
+
+    private static Path requirePath(ReplayRequest request) {
+        if (request.path() == null || request.path().isBlank()) {
+            throw new IllegalArgumentException("path is required for " + request.source() + " replay");
+        }
+        return Path.of(request.path());
+    }
+
+    /**
+     * 1回分の再生
+     *
+     * ペース配分用スレッドが元の間隔どおりに通報を取り出し、
+     * 投入用スレッドプールが受付処理を実行します。受付処理が遅延しても
+     * ペース配分は止まらず、遅れは投入遅延として計測されます。
+     */
+    private final class ReplayRun {
+
+        private final List<EmergencyReport> reports;
+        private final double speedFactor;
+        private final int concurrency;
+        private final ExecutorService injectors;
+        private final ScheduledExecutorService sampler;
+
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong maxScheduleLagMillis = new AtomicLong();
+        private final Map<String, Integer> maxQueueDepths = new ConcurrentHashMap<>();
+        /** 受付処理の所要時間（マイクロ秒、投入順） */
+        private final long[] intakeMicros;
+        private final AtomicInteger intakeSamples = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile boolean finished;
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        ReplayRun(List<EmergencyReport> reports, double speedFactor, int concurrency) {
+            this.reports = reports;
+            this.speedFactor = speedFactor;
+            this.concurrency = concurrency;
+            this.intakeMicros = new long[reports.size()];
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.injectors = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "fire-captain-replay-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "fire-captain-replay-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void start() {
+            startNanos = System.nanoTime();
+            sampler.scheduleAtFixedRate(this::sampleQueues, 0, QUEUE_SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            Thread pacer = new Thread(this::pace, "fire-captain-replay-pacer");
+            pacer.setDaemon(true);
+            pacer.start();
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+
+        private void pace() {
+            try {
+                LocalDateTime origin = reports.isEmpty() ? null : reports.get(0).getReceivedAt();
+                for (EmergencyReport source : reports) {
+                    if (cancelled) {
+                        break;
+                    }
+                    long offsetNanos = (long) (Duration.between(origin, source.getReceivedAt()).toNanos()
+                            / speedFactor);
+                    long dueNanos = startNanos + offsetNanos;
+                    long waitNanos;
+                    while ((waitNanos = dueNanos - System.nanoTime()) > 0 && !cancelled) {
+                        LockSupport.parkNanos(waitNanos);
+                    }
+                    long lagMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - dueNanos);
+                    maxScheduleLagMillis.accumulateAndGet(lagMillis, Math::max);
+
+                    EmergencyReport report = ReplayIncidentReader.copyForReplay(source);
+                    inFlight.incrementAndGet();
+                    injectors.execute(() -> inject(report));
+                }
+            } finally {
+                injectors.shutdown();
+                try {
+                    while (!injectors.awaitTermination(1, TimeUnit.SECONDS)) {
+                        if (cancelled) {
+                            injectors.shutdownNow();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    injectors.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+                sampler.shutdownNow();
+                endNanos = System.nanoTime();
+                finished = true;
+                ReplayReport report = report();
+                log.info("Replay finished: {} submitted, {} failed, {} reports/s sustained",
+                        report.submitted(), report.failed(), String.format("%.1f", report.throughputPerSecond()));
+            }
+        }
+
+        private void inject(EmergencyReport report) {
+            long begin = System.nanoTime();
+            try {
+                emergencyReportService.createEmergencyReport(report);
+                submitted.increment();
+                int index = intakeSamples.getAndIncrement();
+                if (index < intakeMicros.length) {
+                    intakeMicros[index] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+                }
+            } catch (Exception e) {
+                failed.increment();
+                log.warn("Replay intake failed: {}", e.getMessage());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private void sampleQueues() {
+            dispatchPipeline.getQueueDepths()
+                    .forEach((stage, depth) -> maxQueueDepths.merge(stage, depth, Math::max));
+        }
+
+        ReplayReport report() {
+            long end = finished ? endNanos : System.nanoTime();
+            double elapsedSeconds = Math.max(1e-9, (end - startNanos) / 1e9);
+            long submittedCount = submitted.sum();
+
+            int samples = Math.min(intakeSamples.get(), intakeMicros.length);
+            long[] sorted = Arrays.copyOf(intakeMicros, samples);
+            Arrays.sort(sorted);
+
+            return new ReplayReport(
+                    finished ? (cancelled ? ReplayState.CANCELLED : ReplayState.COMPLETED) : ReplayState.RUNNING,
+                    reports.size(), submittedCount, failed.sum(), inFlight.get(), speedFactor, concurrency,
+                    elapsedSeconds, submittedCount / elapsedSeconds, maxScheduleLagMillis.get(),
+                    new IntakeLatency(percentileMillis(sorted, 0.5), percentileMillis(sorted, 0.95),
+                            percentileMillis(sorted, 0.99), sorted.length > 0 ? sorted[sorted.length - 1] / 1000.0 : 0),
+                    dispatchPipeline.getQueueDepths(), new LinkedHashMap<>(maxQueueDepths),
+                    dispatchSloMetrics.snapshot());
+        }
+
+        private double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1000.0;
+        }
+    }
+
+    /**
+     * 再生元
+     */
+    public enum ReplaySource {
+        /** emergency_reports テーブル */
+        DATABASE,
+        /** CSVエクスポート */
+        CSV,
+        /** JSONLエクスポート */
+        JSONL
+    }
+
+    /**
+     * 再生状態
+     */
+    public enum ReplayState {
+        RUNNING,
+        COMPLETED,
+        CANCELLED
+    }
+
+    /**
+     * 再生条件
+     *
+     * @param source      再生元
+     * @param path        CSV・JSONLのファイルパス
+     * @param from        DATABASE再生の受付日時の開始
+     * @param to          DATABASE再生の受付日時の終了
+     * @param speedFactor 速度倍率（10なら元の10倍の速さ）
+     * @param concurrency 投入スレッド数（未指定時は設定値）
+     */
+    public record ReplayRequest(ReplaySource source, String path, LocalDateTime from, LocalDateTime to,
+            double speedFactor, Integer concurrency) {
+    }
+
+    /**
+     * 受付処理の所要時間（ミリ秒）
+     */
+    public record IntakeLatency(double p50, double p95, double p99, double max) {
+    }
+
+    /**
+     * 再生結果
+     *
+     * @param state                 再生状態
+     * @param total                 再生対象の通報数
+     * @param submitted             受付に成功した通報数
+     * @param failed                受付に失敗した通報数
+     * @param inFlight              受付処理中の通報数
+     * @param speedFactor           速度倍率
+     * @param concurrency           投入スレッド数
+     * @param elapsedSeconds        経過時間（秒）
+     * @param throughputPerSecond   受付スループット（件/秒）
+     * @param maxScheduleLagMillis  予定時刻からの最大投入遅延（ミリ秒）
+     * @param intakeLatency         受付処理の所要時間
+     * @param queueDepths           現在のパイプラインのキュー滞留数
+     * @param maxQueueDepths        再生中のキュー滞留数の最大値
+     * @param stageLatencies        出動指令SLOの段階別レイテンシ
+     */
+    public record ReplayReport(ReplayState state, int total, long submitted, long failed, int inFlight,
+            double speedFactor, int concurrency, double elapsedSeconds, double throughputPerSecond,
+            long maxScheduleLagMillis, IntakeLatency intakeLatency, Map<String, Integer> queueDepths,
+            Map<String, Integer> maxQueueDepths,
+            Map<DispatchSloMetrics.Stage, List<DispatchSloMetrics.StageLatency>> stageLatencies) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.firecaptain.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.firecaptain.entity.EmergencyReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 再生用の通報データ読み込み
+ *
+ * CSV・JSONL形式のエクスポートから通報を読み込みます。
+ * 読み込んだ通報は受付日時の昇順に並べて返します。
+ *
+ * CSVは1行目をヘッダーとし、以下の列を持ちます（順不同、不足可）。
+ * <pre>
+ * received_at, emergency_type, priority_level, caller_name, caller_phone,
+ * location_address, location_latitude, location_longitude, description
+ * </pre>
+ * JSONLは1行に1件の {@link EmergencyReport} をJSONで記述します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class ReplayIncidentReader {
+
+    private ReplayIncidentReader() {
+    }
+
+    /**
+     * CSVファイルを読み込み
+     *
+     * @param file CSVファイル
+     * @return 受付日時順の通報
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public static List<EmergencyReport> readCsv(Path file) throws IOException {
+        List<EmergencyReport> reports = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return reports;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = parseCsvLine(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(), i);
+            }
+
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = parseCsvLine(line);
+                try {
+                    reports.add(toReport(columns, fields));
+                } catch (RuntimeException e) {
+                    throw new IOException("Invalid replay record at line " + lineNumber + ": " + line, e);
+                }
+            }
+        }
+        reports.sort(Comparator.comparing(EmergencyReport::getReceivedAt));
+        return reports;
+    }
+
+    /**
+     * JSONLファイルを読み込み
+     *
+     * @param file         JSONLファイル
+     * @param objectMapper JSON変換に使用するマッパー
+     * @return 受付日時順の通報
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public static List<EmergencyReport> readJsonl(Path file, ObjectMapper objectMapper) throws IOException {
+        List<EmergencyReport> reports = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    reports.add(objectMapper.readValue(line, EmergencyReport.class));
+                }
+            }
+        }
+        reports.removeIf(report -> report.getReceivedAt() == null);
+        reports.sort(Comparator.comparing(EmergencyReport::getReceivedAt));
+        return reports;
+    }
+
+    /**
+     * 履歴の通報から再投入用の通報を作成
+     *
+     * 識別子・番号・ステータス・各種日時は引き継がず、
+     * 通報内容のみを複製します。
+     *
+     * @param source 履歴の通報
+     * @return 未登録の通報
+     */
+    public static EmergencyReport copyForReplay(EmergencyReport source) {
+        EmergencyReport report = new EmergencyReport();
+        report.setCallerName(source.getCallerName());
+        report.setCallerPhone(source.getCallerPhone());
+        report.setEmergencyType(source.getEmergencyType());
+        report.setLocationAddress(source.getLocationAddress());
+        report.setLocationLatitude(source.getLocationLatitude());
+        report.setLocationLongitude(source.getLocationLongitude());
+        report.setDescription(source.getDescription());
+        report.setPriorityLevel(source.getPriorityLevel());
+        return report;
+    }
+
+    private static EmergencyReport toReport(Map<String, Integer> columns, List<String> fields) {
+        EmergencyReport report = new EmergencyReport();
+        report.setReceivedAt(LocalDateTime.parse(require(columns, fields, "received_at")));
+        report.setEmergencyType(EmergencyReport.EmergencyType.valueOf(require(columns, fields, "emergency_type")));
+        report.setPriorityLevel(EmergencyReport.PriorityLevel.valueOf(require(columns, fields, "priority_level")));
+        report.setCallerName(valueOr(columns, fields, "caller_name", "REPLAY"));
+        report.setCallerPhone(valueOr(columns, fields, "caller_phone", "000-0000-0000"));
+        report.setLocationAddress(valueOr(columns, fields, "location_address", "-"));
+        String latitude = value(columns, fields, "location_latitude");
+        String longitude = value(columns, fields, "location_longitude");
+        report.setLocationLatitude(latitude != null ? Double.valueOf(latitude) : null);
+        report.setLocationLongitude(longitude != null ? Double.valueOf(longitude) : null);
+        report.setDescription(value(columns, fields, "description"));
+        return report;
+    }
+
+    private static String require(Map<String, Integer> columns, List<String> fields, String name) {
+        String value = value(columns, fields, name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing column: " + name);
+        }
+        return value;
+    }
+
+    private static String valueOr(Map<String, Integer> columns, List<String> fields, String name,
+            String defaultValue) {
+        String value = value(columns, fields, name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static String value(Map<String, Integer> columns, List<String> fields, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * CSVの1行を分割（ダブルクォートによる囲みとエスケープに対応）
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -45,6 +45,14 @@ public interface DispatchRepository extends JpaRepository<Dispatch, Long> {
      */
     List<Dispatch> findByEmergencyReportId(Long emergencyReportId);
 
+    /**
+     * 緊急通報の出動が存在するかを確認
+     * 
+     * @param emergencyReportId 緊急通報ID
+     * @return 存在する場合はtrue
+     */
+    boolean existsByEmergencyReportId(Long emergencyReportId);
+
     /**
      * 出動タイプで出動を検索
      * 
@@ -0,0 +1,29 @@
+package com.firecaptain.repository;
+
+import com.firecaptain.entity.DispatchUnit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * 出動部隊リポジトリ
+ * 
+ * 出動指令に割り当てられた部隊のデータアクセスを担当するリポジトリです。
+ * 
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Repository
+public interface DispatchUnitRepository extends JpaRepository<DispatchUnit, Long> {
+
+    /**
+     * 出動指令IDで割り当て部隊を検索（ユニットも同時に取得）
+     * 
+     * @param dispatchId 出動指令ID
+     * @return 割り当て部隊のリスト
+     */
+    @Query("SELECT du FROM DispatchUnit du JOIN FETCH du.unit WHERE du.dispatch.id = :dispatchId")
+    List<DispatchUnit> findByDispatchIdWithUnit(@Param("dispatchId") Long dispatchId);
+}
@@ -4,11 +4,13 @@ import com.firecaptain.entity.EmergencyCall;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,15 +33,83 @@ public interface EmergencyCallRepository extends JpaRepository<EmergencyCall, Lo
     @Query("SELECT ec FROM EmergencyCall ec WHERE ec.status IN ('PENDING', 'DISPATCHED', 'EN_ROUTE', 'ON_SCENE')")
     List<EmergencyCall> findActiveCalls();
 
-    @Query("SELECT ec FROM EmergencyCall ec WHERE " +
-            "6371 * acos(cos(radians(:latitude)) * cos(radians(ec.latitude)) * " +
-            "cos(radians(ec.longitude) - radians(:longitude)) + " +
-            "sin(radians(:latitude)) * sin(radians(ec.latitude))) <= :radius")
+    /**
+     * 指定半径内の通報を近い順に検索
+     *
+     * ST_DWithin で GIST インデックス（idx_emergency_calls_location）により候補を絞り込み、
+     * 球面距離で半径を判定して近い順に返します。
+     */
+    @Query(value = "SELECT ec.* FROM emergency_calls ec " +
+            "WHERE ST_DWithin(ST_SetSRID(ST_MakePoint(ec.longitude, ec.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326), " +
+            ":radius / (111.32 * cos(radians(:latitude)))) " +
+            "AND ST_DistanceSphere(ST_SetSRID(ST_MakePoint(ec.longitude, ec.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)) <= :radius * 1000 " +
+            "ORDER BY ST_DistanceSphere(ST_SetSRID(ST_MakePoint(ec.longitude, ec.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326))", nativeQuery = true)
     List<EmergencyCall> findCallsWithinRadius(
             @Param("latitude") Double latitude,
             @Param("longitude") Double longitude,
             @Param("radius") Double radiusKm);
 
+    /**
+     * 指定された範囲内の対応中の通報を新しい順に検索（idx_emergency_calls_lat_lng を使用）
+     *
+     * @param minLat   最小緯度
+     * @param maxLat   最大緯度
+     * @param minLng   最小経度
+     * @param maxLng   最大経度
+     * @param pageable 取得件数
+     * @return 範囲内の通報のリスト
+     */
+    @Query("SELECT ec FROM EmergencyCall ec WHERE ec.latitude BETWEEN :minLat AND :maxLat "
+            + "AND ec.longitude BETWEEN :minLng AND :maxLng "
+            + "AND ec.status IN ('PENDING', 'DISPATCHED', 'EN_ROUTE', 'ON_SCENE') ORDER BY ec.receivedAt DESC")
+    List<EmergencyCall> findActiveCallsInArea(@Param("minLat") Double minLat, @Param("maxLat") Double maxLat,
+            @Param("minLng") Double minLng, @Param("maxLng") Double maxLng, Pageable pageable);
+
+    /**
+     * 重複として受け付けた緊急通報を検索
+     */
+    List<EmergencyCall> findByDuplicateOfId(Long duplicateOfId);
+
+    /**
+     * 空間セルIDの範囲で検索（セルに含まれる細かいセルの範囲、または近傍セル）
+     */
+    List<EmergencyCall> findBySpatialCellBetween(Long firstCell, Long lastCell);
+
+    /**
+     * 街区レベルのセルで検索（近傍セルを指定した周辺検索）
+     */
+    List<EmergencyCall> findBySpatialCellBlockIn(Collection<Long> cells);
+
+    /**
+     * 期間内の通報数を地区レベルのセルごとに集計
+     */
+    @Query("SELECT ec.spatialCellDistrict, COUNT(ec) FROM EmergencyCall ec " +
+            "WHERE ec.spatialCellDistrict IS NOT NULL AND ec.receivedAt BETWEEN :startDate AND :endDate " +
+            "GROUP BY ec.spatialCellDistrict")
+    List<Object[]> countBySpatialCellDistrict(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * 空間セルIDが未設定で位置を持つ通報のIDと位置（バックフィル用）
+     */
+    @Query("SELECT ec.id, ec.latitude, ec.longitude FROM EmergencyCall ec " +
+            "WHERE ec.spatialCell IS NULL AND ec.latitude IS NOT NULL AND ec.longitude IS NOT NULL " +
+            "AND ec.id > :afterId ORDER BY ec.id")
+    List<Object[]> findLocationsWithoutSpatialCell(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 空間セルIDを設定（更新日時を変更しない）
+     */
+    @Modifying
+    @Query("UPDATE EmergencyCall ec SET ec.spatialCell = :cell, ec.spatialCellBlock = :blockCell, " +
+            "ec.spatialCellDistrict = :districtCell WHERE ec.id = :id")
+    int updateSpatialCells(@Param("id") Long id, @Param("cell") Long cell,
+            @Param("blockCell") Long blockCell, @Param("districtCell") Long districtCell);
+
     @Query("SELECT COUNT(ec) FROM EmergencyCall ec WHERE ec.status = :status")
     long countByStatus(@Param("status") EmergencyCall.CallStatus status);
 
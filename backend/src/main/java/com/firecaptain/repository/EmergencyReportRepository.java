@@ -4,6 +4,7 @@ import com.firecaptain.entity.EmergencyReport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -110,6 +112,79 @@ public interface EmergencyReportRepository extends JpaRepository<EmergencyReport
         @Query("SELECT er FROM EmergencyReport er ORDER BY er.receivedAt DESC")
         List<EmergencyReport> findLatestReports(Pageable pageable);
 
+        /**
+         * 出動指令が作成されていない受付済み通報を検索（重複として受け付けた通報を除く）
+         */
+        @Query("SELECT er FROM EmergencyReport er WHERE er.status = 'RECEIVED' AND er.receivedAt < :receivedBefore "
+                        + "AND er.duplicateOfId IS NULL AND NOT EXISTS (SELECT d FROM Dispatch d WHERE d.emergencyReport = er)")
+        List<EmergencyReport> findReceivedWithoutDispatch(@Param("receivedBefore") LocalDateTime receivedBefore);
+
+        /**
+         * 重複として受け付けた通報を検索
+         */
+        List<EmergencyReport> findByDuplicateOfId(Long duplicateOfId);
+
+        /**
+         * 空間セルIDの範囲で検索（セルに含まれる細かいセルの範囲、または近傍セル）
+         */
+        List<EmergencyReport> findBySpatialCellBetween(Long firstCell, Long lastCell);
+
+        /**
+         * 街区レベルのセルで検索（近傍セルを指定した周辺検索）
+         */
+        List<EmergencyReport> findBySpatialCellBlockIn(Collection<Long> cells);
+
+        /**
+         * 期間内の通報数を地区レベルのセルごとに集計
+         */
+        @Query("SELECT er.spatialCellDistrict, COUNT(er) FROM EmergencyReport er "
+                        + "WHERE er.spatialCellDistrict IS NOT NULL AND er.receivedAt BETWEEN :startDate AND :endDate "
+                        + "GROUP BY er.spatialCellDistrict")
+        List<Object[]> countBySpatialCellDistrict(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
+        /**
+         * 期間内の通報数を街区レベルのセルごとに集計
+         */
+        @Query("SELECT er.spatialCellBlock, COUNT(er) FROM EmergencyReport er "
+                        + "WHERE er.spatialCellBlock IS NOT NULL AND er.receivedAt BETWEEN :startDate AND :endDate "
+                        + "GROUP BY er.spatialCellBlock")
+        List<Object[]> countBySpatialCellBlock(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
+        /**
+         * 空間セルIDが未設定で位置を持つ通報のIDと位置（バックフィル用）
+         */
+        @Query("SELECT er.id, er.locationLatitude, er.locationLongitude FROM EmergencyReport er "
+                        + "WHERE er.spatialCell IS NULL AND er.locationLatitude IS NOT NULL "
+                        + "AND er.locationLongitude IS NOT NULL AND er.id > :afterId ORDER BY er.id")
+        List<Object[]> findLocationsWithoutSpatialCell(@Param("afterId") Long afterId, Pageable pageable);
+
+        /**
+         * 空間セルIDを設定（更新日時を変更しない）
+         */
+        @Modifying
+        @Query("UPDATE EmergencyReport er SET er.spatialCell = :cell, er.spatialCellBlock = :blockCell, "
+                        + "er.spatialCellDistrict = :districtCell WHERE er.id = :id")
+        int updateSpatialCells(@Param("id") Long id, @Param("cell") Long cell,
+                        @Param("blockCell") Long blockCell, @Param("districtCell") Long districtCell);
+
+        /**
+         * 指定された範囲内の対応中の通報を新しい順に検索（idx_emergency_reports_lat_lng を使用）
+         *
+         * @param minLat   最小緯度
+         * @param maxLat   最大緯度
+         * @param minLng   最小経度
+         * @param maxLng   最大経度
+         * @param pageable 取得件数
+         * @return 範囲内の通報のリスト
+         */
+        @Query("SELECT er FROM EmergencyReport er WHERE er.locationLatitude BETWEEN :minLat AND :maxLat "
+                        + "AND er.locationLongitude BETWEEN :minLng AND :maxLng "
+                        + "AND er.status IN ('RECEIVED', 'DISPATCHED', 'EN_ROUTE', 'ON_SCENE') ORDER BY er.receivedAt DESC")
+        List<EmergencyReport> findActiveReportsInArea(@Param("minLat") Double minLat, @Param("maxLat") Double maxLat,
+                        @Param("minLng") Double minLng, @Param("maxLng") Double maxLng, Pageable pageable);
+
         /**
          * 地理的範囲で検索（PostGIS使用）
          */
@@ -18,15 +18,53 @@ public interface FireStationRepository extends JpaRepository<FireStation, Long>
 
     List<FireStation> findByStationType(FireStation.StationType stationType);
 
-    @Query("SELECT fs FROM FireStation fs WHERE " +
-            "6371 * acos(cos(radians(:latitude)) * cos(radians(fs.latitude)) * " +
-            "cos(radians(fs.longitude) - radians(:longitude)) + " +
-            "sin(radians(:latitude)) * sin(radians(fs.latitude))) <= :radius")
+    /**
+     * 指定半径内の消防署を近い順に検索
+     *
+     * ST_DWithin で GIST インデックス（idx_fire_stations_location）により候補を絞り込み、
+     * 球面距離で半径を判定して近い順に返します。度単位の検索範囲は経度方向の縮みを
+     * 考慮した値のため、半径内の消防署を取りこぼしません。
+     */
+    @Query(value = "SELECT fs.* FROM fire_stations fs " +
+            "WHERE ST_DWithin(ST_SetSRID(ST_MakePoint(fs.longitude, fs.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326), " +
+            ":radius / (111.32 * cos(radians(:latitude)))) " +
+            "AND ST_DistanceSphere(ST_SetSRID(ST_MakePoint(fs.longitude, fs.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)) <= :radius * 1000 " +
+            "ORDER BY ST_DistanceSphere(ST_SetSRID(ST_MakePoint(fs.longitude, fs.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326))", nativeQuery = true)
     List<FireStation> findStationsWithinRadius(
             @Param("latitude") Double latitude,
             @Param("longitude") Double longitude,
             @Param("radius") Double radiusKm);
 
+    /**
+     * 指定半径内の運用中の消防署を近い順に最大件数まで検索
+     *
+     * KNN演算子（&lt;-&gt;）による GIST インデックス走査で近傍の候補を取得し、
+     * 平面距離と球面距離の順序の差を吸収するため候補を多めに取ってから
+     * 球面距離で並べ直します。
+     */
+    @Query(value = "SELECT * FROM (" +
+            "SELECT fs.* FROM fire_stations fs " +
+            "WHERE fs.is_active = true " +
+            "AND ST_DWithin(ST_SetSRID(ST_MakePoint(fs.longitude, fs.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326), " +
+            ":radius / (111.32 * cos(radians(:latitude)))) " +
+            "ORDER BY ST_SetSRID(ST_MakePoint(fs.longitude, fs.latitude), 4326) " +
+            "<-> ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) " +
+            "LIMIT :limit * 4) candidates " +
+            "WHERE ST_DistanceSphere(ST_SetSRID(ST_MakePoint(candidates.longitude, candidates.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)) <= :radius * 1000 " +
+            "ORDER BY ST_DistanceSphere(ST_SetSRID(ST_MakePoint(candidates.longitude, candidates.latitude), 4326), " +
+            "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)) " +
+            "LIMIT :limit", nativeQuery = true)
+    List<FireStation> findNearestActiveStations(
+            @Param("latitude") Double latitude,
+            @Param("longitude") Double longitude,
+            @Param("radius") Double radiusKm,
+            @Param("limit") int limit);
+
     @Query("SELECT fs FROM FireStation fs WHERE fs.isActive = true AND " +
             "fs.capacity > (SELECT COUNT(f) FROM Firefighter f WHERE f.fireStation = fs AND f.status = 'ACTIVE')")
     List<FireStation> findAvailableStations();
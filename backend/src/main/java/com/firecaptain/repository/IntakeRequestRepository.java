@@ -0,0 +1,33 @@
+package com.firecaptain.repository;
+
+import com.firecaptain.entity.IntakeRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 受付リクエストの冪等キーリポジトリ
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Repository
+public interface IntakeRequestRepository extends JpaRepository<IntakeRequest, Long> {
+
+    /**
+     * 種別と冪等キーで検索
+     */
+    Optional<IntakeRequest> findByKindAndIdempotencyKey(IntakeRequest.IntakeKind kind, String idempotencyKey);
+
+    /**
+     * 保持期間を過ぎたキーを削除
+     */
+    @Modifying
+    @Query("DELETE FROM IntakeRequest r WHERE r.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
@@ -2,9 +2,11 @@ package com.firecaptain.repository;
 
 import com.firecaptain.entity.Unit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -78,7 +80,7 @@ public interface UnitRepository extends JpaRepository<Unit, Long> {
     List<Unit> findAvailableUnitsByFireStation(@Param("fireStationId") Long fireStationId);
 
     /**
-     * 指定された範囲内のユニットを検索
+     * 指定された範囲内のユニットを検索（idx_units_lat_lng を使用）
      * 
      * @param minLat 最小緯度
      * @param maxLat 最大緯度
@@ -98,6 +100,21 @@ public interface UnitRepository extends JpaRepository<Unit, Long> {
     @Query("SELECT u FROM Unit u WHERE u.maintenanceStatus != 'OPERATIONAL'")
     List<Unit> findUnitsNeedingMaintenance();
 
+    /**
+     * 待機中のユニットを出動中に変更（条件付き更新）
+     * 
+     * 待機中の場合のみステータスを変更するため、同時に実行された
+     * 複数の部隊割り当てのうち1件だけが成功します。
+     * 
+     * @param unitId ユニットID
+     * @param now    更新日時
+     * @return 更新件数（他の指令に確保済みの場合は0）
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Unit u SET u.status = com.firecaptain.entity.Unit.UnitStatus.DISPATCHED, u.updatedAt = :now "
+            + "WHERE u.id = :unitId AND u.status = com.firecaptain.entity.Unit.UnitStatus.AVAILABLE")
+    int reserveIfAvailable(@Param("unitId") Long unitId, @Param("now") LocalDateTime now);
+
     /**
      * ユニット番号の存在確認
      * 
@@ -0,0 +1,29 @@
+package com.firecaptain.repository;
+
+import com.firecaptain.entity.UnitTrackChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ユニット移動軌跡チャンクリポジトリ
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Repository
+public interface UnitTrackChunkRepository extends JpaRepository<UnitTrackChunk, Long> {
+
+    /**
+     * 指定期間と重なるチャンクを時刻順に取得
+     */
+    @Query("SELECT c FROM UnitTrackChunk c WHERE c.unitId = :unitId "
+            + "AND c.startTime <= :endTime AND c.endTime >= :startTime ORDER BY c.startTime")
+    List<UnitTrackChunk> findOverlapping(@Param("unitId") Long unitId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+}
@@ -0,0 +1,164 @@
+package com.firecaptain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 業務番号（通報番号・指令番号・分析IDなど）の生成
+ *
+ * Snowflake方式で、ミリ秒単位の時刻・ノードID・同一ミリ秒内の連番から番号を作ります。
+ * 時刻と連番は1つの {@link AtomicLong} で管理し、ロックを使わずに更新します。
+ * 1ミリ秒に {@link #MAX_SEQUENCE} 件を超えた場合や時計が戻った場合は、
+ * 直前の時刻を引き継いで連番を進めるため、同じノードの番号は常に増加します。
+ * ノードIDをノードごとに異なる値に設定すれば、複数ノード間でも重複しません。
+ *
+ * 番号は {@code <接頭辞>-<yyyyMMddHHmmssSSS>-<ノードID 4桁>-<連番 4桁>} の形式で、
+ * 文字列として並べると発行時刻の順になります。時刻部分はUTCで表記するため、
+ * 夏時間の終了などでシステムのタイムゾーンの時刻が戻っても番号の順序は崩れません。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Component
+public class BusinessNumberGenerator {
+
+    /** ノードIDの最大値 */
+    public static final int MAX_NODE_ID = 1023;
+
+    /** 同一ミリ秒内の連番の最大値 */
+    public static final int MAX_SEQUENCE = 4095;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+
+    /** 数値IDの時刻の基準（2024-01-01T00:00:00Z） */
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    /** 時刻部分の桁数（yyyyMMddHHmmssSSS） */
+    private static final int TIMESTAMP_DIGITS = 17;
+
+    private final int nodeId;
+    private final Clock clock;
+
+    /** 直前に発行した時刻（エポックミリ秒）と連番（下位12ビット） */
+    private final AtomicLong state = new AtomicLong();
+
+    /** 直前に書式化した秒（秒が変わるまで再利用） */
+    private volatile FormattedSecond formattedSecond = new FormattedSecond(Long.MIN_VALUE, null);
+
+    public BusinessNumberGenerator(@Value("${fire-captain.numbering.node-id:0}") int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    BusinessNumberGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * 業務番号を生成
+     *
+     * @param prefix 接頭辞（例: ER、DISP）
+     * @return 業務番号
+     */
+    public String next(String prefix) {
+        long issued = advance();
+        long millis = issued >>> SEQUENCE_BITS;
+        int sequence = (int) (issued & MAX_SEQUENCE);
+
+        char[] chars = new char[prefix.length() + TIMESTAMP_DIGITS + 11];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        int position = prefix.length();
+        chars[position++] = '-';
+        secondDigits(Math.floorDiv(millis, 1000L)).getChars(0, 14, chars, position);
+        position += 14;
+        position = writeDigits(chars, position, (int) Math.floorMod(millis, 1000L), 3);
+        chars[position++] = '-';
+        position = writeDigits(chars, position, nodeId, 4);
+        chars[position++] = '-';
+        writeDigits(chars, position, sequence, 4);
+        return new String(chars);
+    }
+
+    /**
+     * 数値の業務IDを生成（時刻41ビット・ノードID10ビット・連番12ビット）
+     *
+     * @return 業務ID
+     */
+    public long nextId() {
+        long issued = advance();
+        long millis = issued >>> SEQUENCE_BITS;
+        return ((millis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS))
+                | ((long) nodeId << SEQUENCE_BITS)
+                | (issued & MAX_SEQUENCE);
+    }
+
+    /**
+     * 時刻と連番を進める
+     *
+     * @return 発行する時刻（上位）と連番（下位12ビット）
+     */
+    private long advance() {
+        while (true) {
+            long now = clock.millis();
+            long previous = state.get();
+            long previousMillis = previous >>> SEQUENCE_BITS;
+            long next;
+            if (now > previousMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if ((previous & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                // 同じミリ秒、または時計が戻った場合は直前の時刻で連番を進める
+                next = previous + 1;
+            } else {
+                // 連番を使い切った場合は次のミリ秒を先取りする
+                next = (previousMillis + 1) << SEQUENCE_BITS;
+            }
+            if (state.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 秒単位の時刻（UTC、yyyyMMddHHmmss）
+     */
+    private String secondDigits(long epochSecond) {
+        FormattedSecond cached = formattedSecond;
+        if (cached.epochSecond() == epochSecond) {
+            return cached.digits();
+        }
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        char[] chars = new char[14];
+        int position = writeDigits(chars, 0, dateTime.getYear(), 4);
+        position = writeDigits(chars, position, dateTime.getMonthValue(), 2);
+        position = writeDigits(chars, position, dateTime.getDayOfMonth(), 2);
+        position = writeDigits(chars, position, dateTime.getHour(), 2);
+        position = writeDigits(chars, position, dateTime.getMinute(), 2);
+        writeDigits(chars, position, dateTime.getSecond(), 2);
+        String digits = new String(chars);
+        formattedSecond = new FormattedSecond(epochSecond, digits);
+        return digits;
+    }
+
+    /**
+     * 数値を指定桁数の10進数で書き込み（上位桁は0埋め）
+     */
+    private static int writeDigits(char[] chars, int position, int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + width;
+    }
+
+    private record FormattedSecond(long epochSecond, String digits) {
+    }
+}
@@ -0,0 +1,384 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.FireStation;
+import com.firecaptain.entity.Unit;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.repository.FireStationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * 管轄カバレッジ管理サービス
+ *
+ * 管轄区域をグリッドセルに分割し、各セルを一定半径内でカバーしている
+ * 出動可能ユニット数を保持します。ユニットの出動・帰署・移動は
+ * {@link UnitAvailabilityIndex} の変更通知として受け取り、そのユニットの
+ * 周囲のセルだけを増減するため、1件の変更はミリ秒未満で反映されます。
+ *
+ * カバー数がしきい値を下回ったセルが生じると、他のセルのカバレッジを
+ * 損なわずに移動できる待機中ユニットを探し、最寄りの消防署への
+ * 配置転換（ムーブアップ）を推奨します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class CoverageService implements UnitAvailabilityIndex.Listener {
+
+    /** グリッドのセルサイズ（度、約1km） */
+    private static final double CELL_SIZE_DEGREES = 0.01;
+
+    /** 1回の評価で作成する推奨の上限 */
+    private static final int MAX_RECOMMENDATIONS = 5;
+
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
+    private final FireStationRepository fireStationRepository;
+    private final NotificationService notificationService;
+    private final double coverageRadiusKm;
+    private final int minUnitsPerCell;
+    private final Set<Unit.UnitType> unitTypes;
+
+    /** 現在のカバレッジ（再計算時に差し替え） */
+    private volatile CoverageState state = CoverageState.empty();
+
+    /** 最新の推奨 */
+    private volatile List<MoveUpRecommendation> recommendations = List.of();
+
+    public CoverageService(UnitAvailabilityIndex unitAvailabilityIndex,
+            FireStationRepository fireStationRepository, NotificationService notificationService,
+            @Value("${fire-captain.coverage.radius-km:5.0}") double coverageRadiusKm,
+            @Value("${fire-captain.coverage.min-units:1}") int minUnitsPerCell,
+            @Value("${fire-captain.coverage.unit-types:FIRE_ENGINE}") Set<Unit.UnitType> unitTypes) {
+        this.unitAvailabilityIndex = unitAvailabilityIndex;
+        this.fireStationRepository = fireStationRepository;
+        this.notificationService = notificationService;
+        this.coverageRadiusKm = coverageRadiusKm;
+        this.minUnitsPerCell = minUnitsPerCell;
+        this.unitTypes = unitTypes.isEmpty() ? EnumSet.noneOf(Unit.UnitType.class) : EnumSet.copyOf(unitTypes);
+        unitAvailabilityIndex.addListener(this);
+    }
+
+    @Override
+    public void unitAvailable(Unit.UnitType unitType, UnitAvailabilityIndex.AvailableUnit unit) {
+        applyUnit(state, unitType, unit, 1);
+    }
+
+    @Override
+    public void unitUnavailable(Unit.UnitType unitType, UnitAvailabilityIndex.AvailableUnit unit) {
+        applyUnit(state, unitType, unit, -1);
+    }
+
+    /**
+     * インデックス再構築後にカバレッジ全体を再計算
+     *
+     * 増分更新の取りこぼしや消防署の追加・廃止を取り込みます。
+     */
+    @Override
+    public void indexRebuilt() {
+        recompute();
+    }
+
+    /**
+     * カバレッジ全体を再計算
+     *
+     * 新しいカバー数は公開前にすべて集計します。集計と公開はインデックスの
+     * 変更を止めた状態で行うため、集計に含めたユニットの変更通知は公開後の
+     * カバー数にのみ反映されます。
+     */
+    public void recompute() {
+        long startTime = System.currentTimeMillis();
+
+        Map<Long, double[]> stationLocations = new HashMap<>();
+        for (FireStation station : fireStationRepository.findByIsActiveTrue()) {
+            if (station.getId() != null && GeoUtils.isValid(station.getLatitude(), station.getLongitude())) {
+                stationLocations.put(station.getId(), new double[] { station.getLatitude(), station.getLongitude() });
+            }
+        }
+
+        // 消防署の周囲を需要セル（カバーすべきセル）とする
+        CoverageState fresh = new CoverageState(stationLocations);
+        for (double[] location : stationLocations.values()) {
+            forEachCellWithinRadius(location[0], location[1],
+                    cell -> fresh.counts.putIfAbsent(cell, new AtomicInteger()));
+        }
+        fresh.deficitCells.addAll(fresh.counts.keySet());
+
+        unitAvailabilityIndex.runExclusively(() -> {
+            for (Unit.UnitType unitType : unitTypes) {
+                for (UnitAvailabilityIndex.AvailableUnit unit : unitAvailabilityIndex.findAvailable(unitType)) {
+                    applyUnit(fresh, unitType, unit, 1);
+                }
+            }
+            state = fresh;
+        });
+
+        log.info("Coverage recomputed: {} demand cells, {} below {} units in {}ms", fresh.counts.size(),
+                fresh.deficitCells.size(), minUnitsPerCell, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * カバー不足のセルを評価し、ムーブアップを推奨
+     */
+    @Scheduled(fixedDelayString = "${fire-captain.coverage.evaluation-interval-ms:10000}")
+    public void evaluate() {
+        CoverageState current = state;
+        if (current.deficitCells.isEmpty()) {
+            recommendations = List.of();
+            return;
+        }
+
+        List<MoveUpRecommendation> fresh = new ArrayList<>();
+        Set<Long> movedUnits = new HashSet<>();
+        Set<Long> targetStations = new HashSet<>();
+        Set<Long> resolvedCells = new HashSet<>();
+
+        for (Long deficitCell : current.deficitCells) {
+            if (fresh.size() >= MAX_RECOMMENDATIONS) {
+                break;
+            }
+            if (resolvedCells.contains(deficitCell)) {
+                continue;
+            }
+
+            double cellLatitude = cellCenterLatitude(deficitCell);
+            double cellLongitude = cellCenterLongitude(deficitCell);
+            Map.Entry<Long, double[]> target = nearestStation(current, cellLatitude, cellLongitude);
+            if (target == null || targetStations.contains(target.getKey())) {
+                continue;
+            }
+            double[] targetLocation = target.getValue();
+
+            // 移動先でカバー数がしきい値に達するセル
+            List<Long> gainedCells = new ArrayList<>();
+            forEachCellWithinRadius(targetLocation[0], targetLocation[1], cell -> {
+                AtomicInteger count = current.counts.get(cell);
+                if (count != null && count.get() + 1 >= minUnitsPerCell && count.get() < minUnitsPerCell) {
+                    gainedCells.add(cell);
+                }
+            });
+
+            MoveUpRecommendation best = null;
+            int bestLost = Integer.MAX_VALUE;
+            double bestDistance = Double.MAX_VALUE;
+            for (Unit.UnitType unitType : unitTypes) {
+                for (UnitAvailabilityIndex.AvailableUnit unit : unitAvailabilityIndex.findAvailable(unitType)) {
+                    double[] location = locationOf(current, unit);
+                    if (location == null || movedUnits.contains(unit.id())) {
+                        continue;
+                    }
+                    double distance = GeoUtils.distanceKm(location[0], location[1], targetLocation[0],
+                            targetLocation[1]);
+                    if (distance <= coverageRadiusKm) {
+                        continue; // 既に移動先の周囲をカバーしている
+                    }
+                    int lost = countCellsLost(current, location);
+                    if (lost < bestLost || (lost == bestLost && distance < bestDistance)) {
+                        bestLost = lost;
+                        bestDistance = distance;
+                        best = new MoveUpRecommendation(unit.id(), unitType, unit.stationId(), target.getKey(),
+                                gainedCells.size(), lost, distance);
+                    }
+                }
+            }
+
+            if (best != null && best.cellsGained() > best.cellsLost()) {
+                fresh.add(best);
+                movedUnits.add(best.unitId());
+                targetStations.add(best.toStationId());
+                resolvedCells.addAll(gainedCells);
+            }
+        }
+
+        publishNewRecommendations(fresh);
+        recommendations = List.copyOf(fresh);
+    }
+
+    /**
+     * カバレッジの概要を取得
+     */
+    public CoverageSummary getSummary() {
+        CoverageState current = state;
+        int demandCells = current.counts.size();
+        int deficitCells = current.deficitCells.size();
+        double coverageRatio = demandCells == 0 ? 1.0 : (double) (demandCells - deficitCells) / demandCells;
+        return new CoverageSummary(demandCells, deficitCells, coverageRatio, minUnitsPerCell, coverageRadiusKm,
+                recommendations);
+    }
+
+    /**
+     * ユニットの周囲のセルのカバー数を増減
+     */
+    private void applyUnit(CoverageState current, Unit.UnitType unitType, UnitAvailabilityIndex.AvailableUnit unit,
+            int delta) {
+        if (!unitTypes.contains(unitType) || !UnitAvailabilityIndex.UnitFilter.OPERATIONAL.test(unit)) {
+            return;
+        }
+        double[] location = locationOf(current, unit);
+        if (location == null) {
+            return;
+        }
+        forEachCellWithinRadius(location[0], location[1], cell -> {
+            AtomicInteger count = current.counts.get(cell);
+            if (count == null) {
+                return; // 需要セル以外は追跡しない
+            }
+            if (count.addAndGet(delta) < minUnitsPerCell) {
+                current.deficitCells.add(cell);
+            } else {
+                current.deficitCells.remove(cell);
+            }
+        });
+    }
+
+    /**
+     * ユニットを移動した場合にしきい値を下回るセル数
+     */
+    private int countCellsLost(CoverageState current, double[] location) {
+        int[] lost = new int[1];
+        forEachCellWithinRadius(location[0], location[1], cell -> {
+            AtomicInteger count = current.counts.get(cell);
+            if (count != null && count.get() == minUnitsPerCell) {
+                lost[0]++;
+            }
+        });
+        return lost[0];
+    }
+
+    /**
+     * 新たに作成された推奨を通知
+     */
+    private void publishNewRecommendations(List<MoveUpRecommendation> fresh) {
+        Set<String> previous = new HashSet<>();
+        for (MoveUpRecommendation recommendation : recommendations) {
+            previous.add(recommendation.unitId() + ":" + recommendation.toStationId());
+        }
+        for (MoveUpRecommendation recommendation : fresh) {
+            if (!previous.contains(recommendation.unitId() + ":" + recommendation.toStationId())) {
+                log.info("Move-up recommended: unit {} -> station {} (+{} / -{} cells)", recommendation.unitId(),
+                        recommendation.toStationId(), recommendation.cellsGained(), recommendation.cellsLost());
+                notificationService.sendSystemAlert("Move unit " + recommendation.unitId() + " to station "
+                        + recommendation.toStationId() + " to restore coverage", "MOVE_UP");
+            }
+        }
+    }
+
+    /**
+     * ユニットの位置（不明な場合は所属消防署の位置）
+     */
+    private double[] locationOf(CoverageState current, UnitAvailabilityIndex.AvailableUnit unit) {
+        if (unit.hasLocation()) {
+            return new double[] { unit.latitude(), unit.longitude() };
+        }
+        return current.stationLocations.get(unit.stationId());
+    }
+
+    /**
+     * 指定地点をカバー半径内に含む最寄りの消防署
+     */
+    private Map.Entry<Long, double[]> nearestStation(CoverageState current, double latitude, double longitude) {
+        Map.Entry<Long, double[]> nearest = null;
+        double nearestDistance = coverageRadiusKm;
+        for (Map.Entry<Long, double[]> station : current.stationLocations.entrySet()) {
+            double distance = GeoUtils.distanceKm(latitude, longitude, station.getValue()[0], station.getValue()[1]);
+            if (distance <= nearestDistance) {
+                nearest = station;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * 指定地点からカバー半径内に中心があるセルを列挙
+     */
+    private void forEachCellWithinRadius(double latitude, double longitude, LongConsumer action) {
+        int latitudeCells = (int) Math.ceil(coverageRadiusKm / GeoUtils.KM_PER_DEGREE_LATITUDE / CELL_SIZE_DEGREES);
+        int longitudeCells = (int) Math.ceil(coverageRadiusKm
+                / Math.max(GeoUtils.kmPerDegreeLongitude(latitude), 1.0) / CELL_SIZE_DEGREES);
+        int centerX = (int) Math.floor(longitude / CELL_SIZE_DEGREES);
+        int centerY = (int) Math.floor(latitude / CELL_SIZE_DEGREES);
+
+        for (int y = centerY - latitudeCells; y <= centerY + latitudeCells; y++) {
+            for (int x = centerX - longitudeCells; x <= centerX + longitudeCells; x++) {
+                double cellLatitude = (y + 0.5) * CELL_SIZE_DEGREES;
+                double cellLongitude = (x + 0.5) * CELL_SIZE_DEGREES;
+                if (GeoUtils.distanceKm(latitude, longitude, cellLatitude, cellLongitude) <= coverageRadiusKm) {
+                    action.accept(cellKey(x, y));
+                }
+            }
+        }
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    private static double cellCenterLatitude(long cellKey) {
+        return ((int) (cellKey >> 32) + 0.5) * CELL_SIZE_DEGREES;
+    }
+
+    private static double cellCenterLongitude(long cellKey) {
+        return ((int) cellKey + 0.5) * CELL_SIZE_DEGREES;
+    }
+
+    /**
+     * セルごとのカバー数とカバー不足セル
+     */
+    private static final class CoverageState {
+
+        private final Map<Long, double[]> stationLocations;
+        private final Map<Long, AtomicInteger> counts = new ConcurrentHashMap<>();
+        private final Set<Long> deficitCells = ConcurrentHashMap.newKeySet();
+
+        CoverageState(Map<Long, double[]> stationLocations) {
+            this.stationLocations = stationLocations;
+        }
+
+        static CoverageState empty() {
+            return new CoverageState(Map.of());
+        }
+    }
+
+    /**
+     * ムーブアップの推奨
+     *
+     * @param unitId        移動するユニットID
+     * @param unitType      ユニットタイプ
+     * @param fromStationId 所属消防署ID
+     * @param toStationId   移動先の消防署ID
+     * @param cellsGained   移動によりカバーされるセル数
+     * @param cellsLost     移動によりカバー不足になるセル数
+     * @param distanceKm    移動距離（直線、km）
+     */
+    public record MoveUpRecommendation(long unitId, Unit.UnitType unitType, long fromStationId, long toStationId,
+            int cellsGained, int cellsLost, double distanceKm) {
+    }
+
+    /**
+     * カバレッジの概要
+     *
+     * @param demandCells     カバー対象のセル数
+     * @param deficitCells    カバー不足のセル数
+     * @param coverageRatio   カバー率
+     * @param minUnitsPerCell セルあたりの必要ユニット数
+     * @param radiusKm        カバー半径（km）
+     * @param recommendations 最新のムーブアップ推奨
+     */
+    public record CoverageSummary(int demandCells, int deficitCells, double coverageRatio, int minUnitsPerCell,
+            double radiusKm, List<MoveUpRecommendation> recommendations) {
+    }
+}
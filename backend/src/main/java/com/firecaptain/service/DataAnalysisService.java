@@ -1,9 +1,12 @@
 package com.firecaptain.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.firecaptain.entity.DataAnalysis;
 import com.firecaptain.entity.EmergencyReport;
 import com.firecaptain.entity.Dispatch;
 import com.firecaptain.entity.SceneSupport;
+import com.firecaptain.geo.SpatialCellId;
 import com.firecaptain.repository.DataAnalysisRepository;
 import com.firecaptain.repository.EmergencyReportRepository;
 import com.firecaptain.repository.DispatchRepository;
@@ -18,10 +21,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +38,14 @@ public class DataAnalysisService {
     private final EmergencyReportRepository emergencyReportRepository;
     private final DispatchRepository dispatchRepository;
     private final SceneSupportRepository sceneSupportRepository;
+    private final ObjectMapper objectMapper;
+    private final BusinessNumberGenerator businessNumberGenerator;
+    
+    /** ホットスポットとみなすGi*統計量のzスコア（有意水準5%） */
+    private static final double HOTSPOT_Z_THRESHOLD = 1.96;
+    
+    /** 結果に含めるホットスポットの上限 */
+    private static final int MAX_HOTSPOTS = 100;
     
     /**
      * 定期的なデータ分析を実行
@@ -154,10 +167,8 @@ public class DataAnalysisService {
     /**
      * 分析IDを生成
      */
-    private String generateAnalysisId() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return "ANALYSIS-" + timestamp + "-" + random;
+    String generateAnalysisId() {
+        return businessNumberGenerator.next("ANALYSIS");
     }
     
     /**
@@ -239,11 +250,101 @@ public class DataAnalysisService {
     
     /**
      * 地理的分布分析
+     * 
+     * 期間内の通報数を街区レベルの空間セル（{@link SpatialCellId#BLOCK_LEVEL}、約500m）ごとに
+     * データベースで集計し、各セルと周囲8セルの件数から Getis-Ord Gi* 統計量を計算します。
+     * zスコアが {@link #HOTSPOT_Z_THRESHOLD} 以上のセルをホットスポットとして、
+     * 地図にそのまま描画できるJSON（{@link GeographicDistribution}）で保存します。
+     * 
+     * 件数0のセルは集計結果に現れないため、件数のあるセルを含む矩形内の全セルを
+     * 対象範囲として平均と分散を求めます。空間セルIDが未設定の通報は集計されません。
      */
     private void analyzeGeographicDistribution(DataAnalysis analysis, LocalDateTime startDate, LocalDateTime endDate) {
-        // ホットスポット分析
-        analysis.setHotspots("Geographic hotspots identified");
-        analysis.setInsights("Geographic distribution analysis completed");
+        int level = SpatialCellId.BLOCK_LEVEL;
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : emergencyReportRepository.countBySpatialCellBlock(startDate, endDate)) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        long locatedIncidents = counts.values().stream().mapToLong(Long::longValue).sum();
+        long totalIncidents = emergencyReportRepository.countByReceivedAtBetween(startDate, endDate);
+        
+        GeographicDistribution distribution = computeHotspots(counts, level, totalIncidents, locatedIncidents);
+        try {
+            analysis.setHotspots(objectMapper.writeValueAsString(distribution));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize geographic distribution", e);
+        }
+        analysis.setTotalIncidents((int) totalIncidents);
+        analysis.setInsights("Geographic distribution: " + locatedIncidents + " located incidents in "
+                + counts.size() + " cells, " + distribution.hotspots().size() + " hotspots (z >= "
+                + HOTSPOT_Z_THRESHOLD + ")");
+    }
+    
+    /**
+     * セルごとの件数からホットスポットを抽出
+     */
+    private GeographicDistribution computeHotspots(Map<Long, Long> counts, int level, long totalIncidents,
+                                                   long locatedIncidents) {
+        double cellHeight = 180.0 / (1 << level);
+        double cellWidth = 360.0 / (1 << level);
+        if (counts.isEmpty()) {
+            return new GeographicDistribution(level, cellWidth, cellHeight, totalIncidents, 0, 0, 0, 0.0, List.of());
+        }
+        
+        // 対象範囲（件数のあるセルを含む矩形）のセル数と件数の平均・標準偏差
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        double sumSquares = 0;
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            double[] center = SpatialCellId.center(entry.getKey(), level);
+            minLat = Math.min(minLat, center[0]);
+            maxLat = Math.max(maxLat, center[0]);
+            minLon = Math.min(minLon, center[1]);
+            maxLon = Math.max(maxLon, center[1]);
+            sumSquares += (double) entry.getValue() * entry.getValue();
+        }
+        long rows = Math.round((maxLat - minLat) / cellHeight) + 1;
+        long columns = Math.round((maxLon - minLon) / cellWidth) + 1;
+        long n = rows * columns;
+        double mean = (double) locatedIncidents / n;
+        double standardDeviation = Math.sqrt(Math.max(0.0, sumSquares / n - mean * mean));
+        
+        List<Hotspot> hotspots = new ArrayList<>();
+        if (n > 1 && standardDeviation > 0) {
+            for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+                double[] center = SpatialCellId.center(entry.getKey(), level);
+                long[] neighbors = SpatialCellId.neighborhood(center[0], center[1], level);
+                long neighborhoodCount = 0;
+                int weights = 0;
+                for (long neighbor : neighbors) {
+                    double[] neighborCenter = SpatialCellId.center(neighbor, level);
+                    // 対象範囲外の近傍セルは重みに含めない
+                    if (neighborCenter[0] < minLat - cellHeight / 2 || neighborCenter[0] > maxLat + cellHeight / 2
+                            || neighborCenter[1] < minLon - cellWidth / 2 || neighborCenter[1] > maxLon + cellWidth / 2) {
+                        continue;
+                    }
+                    neighborhoodCount += counts.getOrDefault(neighbor, 0L);
+                    weights++;
+                }
+                double denominator = standardDeviation * Math.sqrt((n * weights - (double) weights * weights) / (n - 1));
+                if (denominator <= 0) {
+                    continue;
+                }
+                double zScore = (neighborhoodCount - mean * weights) / denominator;
+                if (zScore >= HOTSPOT_Z_THRESHOLD) {
+                    hotspots.add(new Hotspot(entry.getKey(), center[0], center[1],
+                            center[0] - cellHeight / 2, center[0] + cellHeight / 2,
+                            center[1] - cellWidth / 2, center[1] + cellWidth / 2,
+                            entry.getValue(), neighborhoodCount, zScore));
+                }
+            }
+        }
+        hotspots.sort(Comparator.comparingDouble(Hotspot::zScore).reversed());
+        List<Hotspot> top = hotspots.size() > MAX_HOTSPOTS ? List.copyOf(hotspots.subList(0, MAX_HOTSPOTS)) : hotspots;
+        return new GeographicDistribution(level, cellWidth, cellHeight, totalIncidents, locatedIncidents,
+                counts.size(), n, mean, top);
     }
     
     /**
@@ -278,6 +379,43 @@ public class DataAnalysisService {
                 .build();
     }
     
+    /**
+     * 地理的分布分析の結果（{@link DataAnalysis#getHotspots()} にJSONで保存）
+     * 
+     * @param level             空間セルのレベル
+     * @param cellWidthDegrees  セルの幅（経度）
+     * @param cellHeightDegrees セルの高さ（緯度）
+     * @param totalIncidents    期間内の通報数
+     * @param locatedIncidents  空間セルIDを持つ通報数
+     * @param occupiedCells     件数のあるセル数
+     * @param studyAreaCells    対象範囲のセル数
+     * @param meanPerCell       対象範囲のセルあたりの平均件数
+     * @param hotspots          zスコアの高い順のホットスポット
+     */
+    public record GeographicDistribution(int level, double cellWidthDegrees, double cellHeightDegrees,
+                                         long totalIncidents, long locatedIncidents, int occupiedCells,
+                                         long studyAreaCells, double meanPerCell, List<Hotspot> hotspots) {
+    }
+    
+    /**
+     * ホットスポットのセル
+     * 
+     * @param cell              空間セルID
+     * @param latitude          セル中心の緯度
+     * @param longitude         セル中心の経度
+     * @param minLatitude       セルの南端
+     * @param maxLatitude       セルの北端
+     * @param minLongitude      セルの西端
+     * @param maxLongitude      セルの東端
+     * @param count             セル内の件数
+     * @param neighborhoodCount セルと周囲8セルの件数
+     * @param zScore            Gi*統計量のzスコア
+     */
+    public record Hotspot(long cell, double latitude, double longitude, double minLatitude, double maxLatitude,
+                          double minLongitude, double maxLongitude, long count, long neighborhoodCount,
+                          double zScore) {
+    }
+    
     /**
      * 統計情報クラス
      */
@@ -0,0 +1,302 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.Dispatch;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.repository.EmergencyReportRepository;
+import com.firecaptain.util.TransactionHooks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 出動指令パイプライン
+ *
+ * 通報受付後の処理を以下の段階に分け、段階ごとの専用スレッドで実行します。
+ * <ol>
+ * <li>受付（呼び出し元のトランザクションで通報を登録）</li>
+ * <li>出動指令作成</li>
+ * <li>部隊割り当て</li>
+ * <li>通知</li>
+ * </ol>
+ *
+ * 各段階のキューは上限付きの優先度キューで、負荷が高い場合でも
+ * CRITICAL・HIGH の事案が LOW の事案を追い越して処理されます。
+ * 各段階は独立したトランザクションで実行されるため、受付のREST呼び出しは
+ * 通報の登録がコミットされた時点で応答できます。
+ *
+ * キューが満杯で投入できなかった通報や、処理中に停止した通報は、
+ * 受付済みで出動指令のない通報として定期的に再投入されます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class DispatchPipeline {
+
+    /** 再投入の対象とする受付からの経過時間（秒） */
+    private static final long RECOVERY_DELAY_SECONDS = 30;
+
+    private final DispatchService dispatchService;
+    private final NotificationService notificationService;
+    private final EmergencyReportRepository emergencyReportRepository;
+
+    private final PipelineStage dispatchCreationStage;
+    private final PipelineStage unitAssignmentStage;
+    private final PipelineStage notificationStage;
+
+    /** 出動指令作成待ち・作成中の通報ID（再投入の重複防止） */
+    private final Set<Long> inFlightReports = ConcurrentHashMap.newKeySet();
+
+    public DispatchPipeline(DispatchService dispatchService, NotificationService notificationService,
+            EmergencyReportRepository emergencyReportRepository,
+            @Value("${fire-captain.pipeline.queue-capacity:1000}") int queueCapacity,
+            @Value("${fire-captain.pipeline.workers:4}") int workers) {
+        this.dispatchService = dispatchService;
+        this.notificationService = notificationService;
+        this.emergencyReportRepository = emergencyReportRepository;
+        this.dispatchCreationStage = new PipelineStage("dispatch-creation", workers, queueCapacity);
+        this.unitAssignmentStage = new PipelineStage("unit-assignment", workers, queueCapacity);
+        this.notificationStage = new PipelineStage("notification", Math.max(1, workers / 2), queueCapacity);
+    }
+
+    /**
+     * 受付済みの通報をパイプラインに投入
+     *
+     * トランザクション内で呼び出された場合は、通報の登録がコミットされた後に
+     * 投入します。ロールバックされた通報は投入されません。
+     *
+     * @param report 登録済みの通報
+     */
+    public void submit(EmergencyReport report) {
+        TransactionHooks.afterCommit(() -> enqueueDispatchCreation(report));
+    }
+
+    /**
+     * 作成済みの出動指令を部隊割り当て段階に投入
+     *
+     * @param dispatch 登録済みの出動指令
+     */
+    public void submitAssignment(Dispatch dispatch) {
+        TransactionHooks.afterCommit(() -> enqueueUnitAssignment(dispatch));
+    }
+
+    /**
+     * 段階ごとのキュー滞留数
+     *
+     * @return 段階名 → 滞留数
+     */
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        for (PipelineStage stage : List.of(dispatchCreationStage, unitAssignmentStage, notificationStage)) {
+            depths.put(stage.name(), stage.queueDepth());
+        }
+        return depths;
+    }
+
+    /**
+     * 出動指令のない受付済み通報を再投入
+     *
+     * キューが満杯で投入できなかった通報や、再起動により処理が
+     * 中断された通報を拾い上げます。検索後に出動指令の作成が完了した通報も
+     * 再投入されることがあるため、作成時に既存の出動指令を確認します。
+     */
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000) // 30秒ごと
+    public void recoverPendingReports() {
+        List<EmergencyReport> pending = emergencyReportRepository
+                .findReceivedWithoutDispatch(LocalDateTime.now().minusSeconds(RECOVERY_DELAY_SECONDS));
+        int resubmitted = 0;
+        for (EmergencyReport report : pending) {
+            if (!inFlightReports.contains(report.getId())) {
+                enqueueDispatchCreation(report);
+                resubmitted++;
+            }
+        }
+        if (resubmitted > 0) {
+            log.warn("Resubmitted {} emergency reports without dispatch", resubmitted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchCreationStage.shutdown();
+        unitAssignmentStage.shutdown();
+        notificationStage.shutdown();
+    }
+
+    /**
+     * 出動指令作成段階
+     */
+    private void enqueueDispatchCreation(EmergencyReport report) {
+        if (!inFlightReports.add(report.getId())) {
+            return;
+        }
+        boolean accepted = dispatchCreationStage.offer(report.getPriorityLevel(), () -> {
+            try {
+                // 再投入時に処理中だった指令作成が完了している場合は作成しない
+                dispatchService.createDispatchIfAbsent(report).ifPresent(this::enqueueUnitAssignment);
+            } catch (Exception e) {
+                log.error("Error creating dispatch for report: {}", report.getReportNumber(), e);
+            } finally {
+                inFlightReports.remove(report.getId());
+            }
+        });
+        if (!accepted) {
+            inFlightReports.remove(report.getId());
+            log.warn("Dispatch creation queue full, report {} will be retried", report.getReportNumber());
+        }
+    }
+
+    /**
+     * 部隊割り当て段階
+     */
+    private void enqueueUnitAssignment(Dispatch dispatch) {
+        boolean accepted = unitAssignmentStage.offer(dispatch.getPriorityLevel(), () -> {
+            try {
+                dispatchService.assignUnits(dispatch, this::enqueueNotification, this::alertAssignmentFailure);
+            } catch (Exception e) {
+                log.error("Error assigning units to dispatch: {}", dispatch.getDispatchNumber(), e);
+            }
+        });
+        if (!accepted) {
+            // 出動指令は登録済みのため破棄せず、呼び出し元スレッドで割り当てる
+            log.warn("Unit assignment queue full, assigning dispatch {} inline", dispatch.getDispatchNumber());
+            dispatchService.assignUnits(dispatch, this::enqueueNotification, this::alertAssignmentFailure);
+        }
+    }
+
+    /**
+     * 部隊を割り当てられなかった出動指令を警報として通知
+     */
+    private void alertAssignmentFailure(Dispatch dispatch) {
+        notificationService.sendSystemAlert("Unit assignment failed for dispatch " + dispatch.getDispatchNumber()
+                + ", assign units manually", "UNIT_ASSIGNMENT_FAILED");
+    }
+
+    /**
+     * 通知段階
+     */
+    private void enqueueNotification(Dispatch dispatch) {
+        boolean accepted = notificationStage.offer(dispatch.getPriorityLevel(),
+                () -> notificationService.sendDispatchNotification(dispatch));
+        if (!accepted) {
+            // 部隊は割り当て済みのため破棄せず、呼び出し元スレッドで通知する
+            log.warn("Notification queue full, notifying dispatch {} inline", dispatch.getDispatchNumber());
+            notificationService.sendDispatchNotification(dispatch);
+        }
+    }
+
+    /**
+     * パイプラインの1段階
+     *
+     * 優先度キューを作業キューとするスレッドプールです。キューは本来
+     * 上限を持たないため、待機中のタスク数をセマフォで制限します。
+     * 投入時に許可を取得し、ワーカーがタスクを取り出した時点で返却するため、
+     * 並行して投入しても待機中のタスクが上限を超えることはありません。
+     */
+    private static final class PipelineStage {
+
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final Semaphore queueSlots;
+        private final AtomicLong sequence = new AtomicLong();
+
+        PipelineStage(String name, int workers, int capacity) {
+            this.name = name;
+            this.queueSlots = new Semaphore(capacity);
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                    new PriorityBlockingQueue<>(Math.min(capacity, 64)), runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "fire-captain-" + name + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // 全タスクが優先度キューを経由するよう、ワーカーを先に起動しておく
+            this.executor.prestartAllCoreThreads();
+        }
+
+        String name() {
+            return name;
+        }
+
+        int queueDepth() {
+            return executor.getQueue().size();
+        }
+
+        /**
+         * タスクを投入
+         *
+         * @return 投入できた場合はtrue（キューが満杯の場合はfalse）
+         */
+        boolean offer(EmergencyReport.PriorityLevel priorityLevel, Runnable task) {
+            if (executor.isShutdown() || !queueSlots.tryAcquire()) {
+                return false;
+            }
+            Runnable dequeued = () -> {
+                queueSlots.release();
+                task.run();
+            };
+            try {
+                // PriorityBlockingQueueで順序付けるため、submitではなくexecuteで投入する
+                executor.execute(new PrioritizedTask(priorityLevel, sequence.incrementAndGet(), dequeued));
+            } catch (RejectedExecutionException e) {
+                // 確認後に停止された場合
+                queueSlots.release();
+                return false;
+            }
+            return true;
+        }
+
+        void shutdown() {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Pipeline stage {} did not drain within 30 seconds", name);
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 緊急度の高い順、同じ緊急度では投入順に実行されるタスク
+     */
+    private record PrioritizedTask(EmergencyReport.PriorityLevel priorityLevel, long sequence, Runnable task)
+            implements Runnable, Comparable<PrioritizedTask> {
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int byPriority = Integer.compare(rank(other.priorityLevel), rank(priorityLevel));
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+
+        private static int rank(EmergencyReport.PriorityLevel priorityLevel) {
+            return priorityLevel != null ? priorityLevel.ordinal() : 0;
+        }
+    }
+}
@@ -4,20 +4,36 @@ import com.firecaptain.entity.Dispatch;
 import com.firecaptain.entity.DispatchUnit;
 import com.firecaptain.entity.EmergencyReport;
 import com.firecaptain.entity.Unit;
+import com.firecaptain.geo.GeoUtils;
 import com.firecaptain.repository.DispatchRepository;
+import com.firecaptain.repository.DispatchUnitRepository;
 import com.firecaptain.repository.UnitRepository;
+import com.firecaptain.util.HungarianAlgorithm;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 /**
  * 出動指令管理サービス
@@ -35,15 +51,46 @@ import java.util.UUID;
 @Transactional
 public class DispatchService {
 
+    /** 1指令あたりの最大割り当て部隊数 */
+    private static final int MAX_UNITS_PER_DISPATCH = 3;
+
+    /** 走行時間で並べ替える候補数の倍率 */
+    private static final int CANDIDATE_FACTOR = 4;
+
+    /** 走行時間を推定できない場合の所要時間（分） */
+    private static final int DEFAULT_TRAVEL_MINUTES = 15;
+
+    /** 一括割り当てで部隊を割り当てられない枠のコスト（秒換算） */
+    private static final double UNASSIGNED_PENALTY_SECONDS = 3600.0;
+
+    /** 一括割り当てで候補外の部隊を示すコスト */
+    private static final double INFEASIBLE_COST = 1.0e12;
+
+    /** 一括割り当てが失敗した指令を次の割り当て枠で再試行する回数 */
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
     private final DispatchRepository dispatchRepository;
+    private final DispatchUnitRepository dispatchUnitRepository;
     private final UnitRepository unitRepository;
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
+    private final TravelTimeService travelTimeService;
     private final SceneSupportService sceneSupportService;
+    private final DispatchSloMetrics dispatchSloMetrics;
+    private final BusinessNumberGenerator businessNumberGenerator;
+    private final PlatformTransactionManager transactionManager;
+
+    /** 一括割り当て待ちの出動指令 */
+    private final Queue<PendingAssignment> pendingAssignments = new ConcurrentLinkedQueue<>();
+
+    /** 一括割り当てモード（一定時間内の指令をまとめて最適化） */
+    @Value("${fire-captain.dispatch.batching.enabled:false}")
+    private boolean batchingEnabled;
 
     /**
      * 緊急通報から出動指令を作成
      * 
-     * 緊急通報の内容に基づいて出動指令を自動生成し、
-     * 適切な部隊の割り当てを行います。
+     * 緊急通報の内容に基づいて出動指令を自動生成します。
+     * 部隊の割り当ては {@link DispatchPipeline} の部隊割り当て段階で行われます。
      * 
      * @param report 緊急通報情報
      * @return 作成された出動指令
@@ -61,13 +108,29 @@ public class DispatchService {
         dispatch.setDispatchedAt(LocalDateTime.now());
 
         Dispatch savedDispatch = dispatchRepository.save(dispatch);
-
-        // 非同期で部隊割り当てを実行
-        assignUnitsAsync(savedDispatch);
-
+        dispatchSloMetrics.record(DispatchSloMetrics.Stage.DISPATCH_CREATED, savedDispatch);
         return savedDispatch;
     }
 
+    /**
+     * 出動指令のない緊急通報から出動指令を作成
+     * 
+     * 出動指令パイプラインの再投入と処理中の指令作成が重なった場合に
+     * 同じ通報の出動指令を二重に作成しないよう、作成と同じトランザクションで
+     * 既存の出動指令を確認します。
+     * 
+     * @param report 緊急通報情報
+     * @return 作成された出動指令（既に作成済みの場合は空）
+     */
+    @CacheEvict(value = "dispatches", allEntries = true)
+    public Optional<Dispatch> createDispatchIfAbsent(EmergencyReport report) {
+        if (dispatchRepository.existsByEmergencyReportId(report.getId())) {
+            log.info("Dispatch already exists for emergency report: {}", report.getReportNumber());
+            return Optional.empty();
+        }
+        return Optional.of(createDispatchFromReport(report));
+    }
+
     /**
      * 指令番号による出動指令の検索（キャッシュ付き）
      * 
@@ -130,73 +193,297 @@ public class DispatchService {
             case COMPLETED -> dispatch.setCompletedAt(LocalDateTime.now()); // 完了時刻
         }
 
+        // 完了・取消時は割り当て部隊を待機中に戻す
+        if (status == Dispatch.DispatchStatus.COMPLETED || status == Dispatch.DispatchStatus.CANCELLED) {
+            releaseUnits(dispatch, status == Dispatch.DispatchStatus.COMPLETED
+                    ? DispatchUnit.UnitStatus.COMPLETED
+                    : DispatchUnit.UnitStatus.CANCELLED);
+        }
+
         return dispatchRepository.save(dispatch);
     }
 
     /**
-     * 部隊を指令に割り当て
+     * 出動部隊を作成
      */
-    @CacheEvict(value = "dispatches", key = "#dispatch.dispatchNumber")
-    public DispatchUnit assignUnitToDispatch(Dispatch dispatch, Unit unit) {
-        log.info("Assigning unit {} to dispatch: {}", unit.getUnitNumber(), dispatch.getDispatchNumber());
+    private DispatchUnit createDispatchUnit(Dispatch dispatch, Unit unit, LocalDateTime estimatedArrival) {
+        log.info("Assigning unit {} to dispatch: {}", unit.getId(), dispatch.getDispatchNumber());
 
         DispatchUnit dispatchUnit = new DispatchUnit();
         dispatchUnit.setDispatch(dispatch);
         dispatchUnit.setUnit(unit);
         dispatchUnit.setStatus(DispatchUnit.UnitStatus.DISPATCHED);
         dispatchUnit.setDispatchedAt(LocalDateTime.now());
-
-        // 到着予想時間を計算
-        LocalDateTime estimatedArrival = calculateEstimatedArrival(dispatch, unit);
         dispatchUnit.setEstimatedArrivalTime(estimatedArrival);
 
         return dispatchUnit;
     }
 
     /**
-     * 非同期で部隊割り当てを実行
+     * 部隊割り当てを実行
+     *
+     * 出動指令パイプラインの部隊割り当て段階から、出動指令の登録が
+     * コミットされた後に呼び出されます。割り当ては呼び出し元とは別の
+     * トランザクションで実行し、コミットされた後に onAssigned を呼び出します
+     * （一括割り当てモードでは割り当て枠の処理後）。割り当てが失敗して
+     * ロールバックされた場合は、onAssigned の代わりに onFailed を呼び出します。
+     *
+     * @param dispatch   出動指令
+     * @param onAssigned 割り当て完了時の処理（通知段階への投入）
+     * @param onFailed   割り当て失敗時の処理（警報の送信）
      */
-    @Async
-    public void assignUnitsAsync(Dispatch dispatch) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void assignUnits(Dispatch dispatch, Consumer<Dispatch> onAssigned, Consumer<Dispatch> onFailed) {
+        log.info("Assigning units to dispatch: {}", dispatch.getDispatchNumber());
+
+        // 一括割り当てモードでは次の割り当て枠でまとめて処理
+        if (batchingEnabled) {
+            pendingAssignments.offer(new PendingAssignment(dispatch, onAssigned, onFailed, 0));
+            return;
+        }
+
         try {
-            log.info("Assigning units to dispatch: {}", dispatch.getDispatchNumber());
+            inNewTransaction(() -> assignIndividually(dispatch));
+        } catch (Exception e) {
+            log.error("Error assigning units to dispatch: {}", dispatch.getDispatchNumber(), e);
+            onFailed.accept(dispatch);
+            return;
+        }
+        onAssigned.accept(dispatch);
+    }
 
-            // 利用可能な部隊を検索
-            // DispatchTypeをUnitTypeに変換する必要がある
-            Unit.UnitType unitType = convertDispatchTypeToUnitType(dispatch.getDispatchType());
-            List<Unit> availableUnits = unitRepository.findAvailableUnitsByType(unitType);
+    /**
+     * 指令ごとに部隊を割り当て
+     */
+    private void assignIndividually(Dispatch dispatch) {
+        // DispatchTypeをUnitTypeに変換する必要がある
+        Unit.UnitType unitType = convertDispatchTypeToUnitType(dispatch.getDispatchType());
+
+        // 到着予想時間の短い順に候補を並べ、先頭から確保できた部隊を割り当てる
+        List<UnitCandidate> candidates = selectOptimalUnits(unitType, dispatch);
+        List<UnitCandidate> reservedUnits = reserveUnits(unitType, candidates, MAX_UNITS_PER_DISPATCH);
+        completeAssignment(dispatch, unitType, reservedUnits);
+    }
+
+    /**
+     * 一括割り当て待ちの出動指令を処理
+     *
+     * 割り当て枠（既定2秒）の間に作成された出動指令をユニットタイプごとに
+     * まとめ、緊急度と到着予想時間で重み付けした最小コスト割り当てを
+     * 1回だけ解きます。指令ごとに近傍検索と確保を繰り返す貪欲法と比べ、
+     * 同時多発時に緊急度の高い事案へ近い部隊を優先して振り分けられます。
+     *
+     * ユニットタイプごとに別のトランザクションで実行し、失敗したタイプの指令は
+     * 次の割り当て枠で再試行します。再試行を繰り返しても失敗する場合は、
+     * 失敗の原因となった指令を切り分けるため、指令ごとに割り当てます。
+     * 割り当て完了時の処理は、割り当てがコミットされた後に呼び出します。
+     * 指令ごとの割り当ても失敗した指令は、割り当て失敗時の処理を呼び出します。
+     */
+    @Scheduled(fixedDelayString = "${fire-captain.dispatch.batching.window-ms:2000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void assignPendingBatch() {
+        if (pendingAssignments.isEmpty()) {
+            return;
+        }
 
-            // 優先度に基づいて部隊を選択
-            List<Unit> selectedUnits = selectOptimalUnits(availableUnits, dispatch);
+        Map<Unit.UnitType, List<PendingAssignment>> batches = new EnumMap<>(Unit.UnitType.class);
+        PendingAssignment pending;
+        while ((pending = pendingAssignments.poll()) != null) {
+            batches.computeIfAbsent(convertDispatchTypeToUnitType(pending.dispatch().getDispatchType()),
+                    type -> new ArrayList<>()).add(pending);
+        }
 
-            // 部隊を割り当て
-            for (Unit unit : selectedUnits) {
-                assignUnitToDispatch(dispatch, unit);
+        for (Map.Entry<Unit.UnitType, List<PendingAssignment>> batch : batches.entrySet()) {
+            List<Dispatch> dispatches = batch.getValue().stream().map(PendingAssignment::dispatch).toList();
+            try {
+                inNewTransaction(() -> assignBatch(batch.getKey(), dispatches));
+            } catch (Exception e) {
+                log.error("Error assigning {} units to {} batched dispatches", batch.getKey(),
+                        dispatches.size(), e);
+                retryFailedBatch(batch.getValue());
+                continue;
             }
+            batch.getValue().forEach(PendingAssignment::assigned);
+        }
+    }
 
-            // 必要に応じて現場支援を要求
-            if (requiresSceneSupport(dispatch)) {
-                sceneSupportService.requestSceneSupport(dispatch);
+    /**
+     * 一括割り当てが失敗した指令を再試行
+     */
+    private void retryFailedBatch(List<PendingAssignment> failed) {
+        for (PendingAssignment pending : failed) {
+            if (pending.attempts() + 1 < MAX_BATCH_ATTEMPTS) {
+                pendingAssignments.offer(pending.retry());
+                continue;
             }
+            Dispatch dispatch = pending.dispatch();
+            log.warn("Batch assignment failed {} times, assigning dispatch {} individually", MAX_BATCH_ATTEMPTS,
+                    dispatch.getDispatchNumber());
+            try {
+                inNewTransaction(() -> assignIndividually(dispatch));
+            } catch (Exception e) {
+                log.error("Error assigning units to dispatch: {}", dispatch.getDispatchNumber(), e);
+                pending.failed();
+                continue;
+            }
+            pending.assigned();
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Error assigning units to dispatch: {}", dispatch.getDispatchNumber(), e);
+    /**
+     * 新しいトランザクションで処理を実行（例外の場合はロールバック）
+     */
+    private void inNewTransaction(Runnable action) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.executeWithoutResult(status -> action.run());
+    }
+
+    /**
+     * 同一ユニットタイプの出動指令群に部隊を一括割り当て
+     */
+    private void assignBatch(Unit.UnitType unitType, List<Dispatch> dispatches) {
+        long startTime = System.currentTimeMillis();
+
+        // 緊急度の高い順に並べ、各指令の候補を取得
+        List<Dispatch> ordered = new ArrayList<>(dispatches);
+        ordered.sort(Comparator.comparingInt((Dispatch d) -> priorityWeight(d.getPriorityLevel())).reversed());
+        List<List<UnitCandidate>> candidatesByDispatch = new ArrayList<>(ordered.size());
+        for (Dispatch dispatch : ordered) {
+            candidatesByDispatch.add(selectOptimalUnits(unitType, dispatch));
+        }
+
+        // 各指令の割り当て枠を行として最小コスト割り当てを解く
+        List<List<UnitCandidate>> assigned = solveAssignment(ordered, candidatesByDispatch);
+
+        // 最適解の部隊を確保し、競合で確保できなかった枠は残りの候補で補う
+        List<List<UnitCandidate>> reservedByDispatch = new ArrayList<>(ordered.size());
+        for (List<UnitCandidate> units : assigned) {
+            reservedByDispatch.add(new ArrayList<>(reserveUnits(unitType, units, MAX_UNITS_PER_DISPATCH)));
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            List<UnitCandidate> reserved = reservedByDispatch.get(i);
+            if (reserved.size() < MAX_UNITS_PER_DISPATCH) {
+                reserved.addAll(reserveUnits(unitType, candidatesByDispatch.get(i),
+                        MAX_UNITS_PER_DISPATCH - reserved.size()));
+                reserved.sort(UnitCandidate.BY_TRAVEL_TIME);
+            }
+        }
+
+        for (int i = 0; i < ordered.size(); i++) {
+            completeAssignment(ordered.get(i), unitType, reservedByDispatch.get(i));
+        }
+        log.info("Batch-assigned {} units to {} dispatches in {}ms", unitType, ordered.size(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 最小コスト割り当てを解く
+     *
+     * 行は「指令×割り当て枠」、列は候補部隊と未割り当てを表すダミー列です。
+     * コストは推定走行時間に緊急度の重みと枠の重み（2台目以降は半減）を
+     * 掛けたもので、未割り当ての場合は一定時間分のペナルティを課します。
+     *
+     * @param dispatches           出動指令
+     * @param candidatesByDispatch 指令ごとの候補部隊
+     * @return 指令ごとに割り当てられた部隊（到着予想時間の短い順）
+     */
+    private List<List<UnitCandidate>> solveAssignment(List<Dispatch> dispatches,
+            List<List<UnitCandidate>> candidatesByDispatch) {
+        Map<Long, Integer> columnByUnit = new LinkedHashMap<>();
+        for (List<UnitCandidate> candidates : candidatesByDispatch) {
+            for (UnitCandidate candidate : candidates) {
+                columnByUnit.putIfAbsent(candidate.unit().id(), columnByUnit.size());
+            }
+        }
+
+        int unitColumns = columnByUnit.size();
+        int rows = candidatesByDispatch.size() * MAX_UNITS_PER_DISPATCH;
+        double[][] cost = new double[rows][unitColumns + rows];
+        UnitCandidate[][] candidateAt = new UnitCandidate[rows][unitColumns];
+
+        for (int d = 0; d < candidatesByDispatch.size(); d++) {
+            List<UnitCandidate> candidates = candidatesByDispatch.get(d);
+            double weight = priorityWeight(dispatches.get(d).getPriorityLevel());
+            for (int slot = 0; slot < MAX_UNITS_PER_DISPATCH; slot++) {
+                int row = d * MAX_UNITS_PER_DISPATCH + slot;
+                double slotWeight = weight / (1 << slot);
+                Arrays.fill(cost[row], 0, unitColumns, INFEASIBLE_COST);
+                Arrays.fill(cost[row], unitColumns, unitColumns + rows,
+                        UNASSIGNED_PENALTY_SECONDS * slotWeight);
+                for (UnitCandidate candidate : candidates) {
+                    int column = columnByUnit.get(candidate.unit().id());
+                    double seconds = candidate.hasTravelTime() ? candidate.travelSeconds()
+                            : DEFAULT_TRAVEL_MINUTES * 60.0;
+                    cost[row][column] = seconds * slotWeight;
+                    candidateAt[row][column] = candidate;
+                }
+            }
+        }
+
+        int[] solution = HungarianAlgorithm.solve(cost);
+
+        List<List<UnitCandidate>> assigned = new ArrayList<>(candidatesByDispatch.size());
+        for (int d = 0; d < candidatesByDispatch.size(); d++) {
+            List<UnitCandidate> units = new ArrayList<>(MAX_UNITS_PER_DISPATCH);
+            for (int slot = 0; slot < MAX_UNITS_PER_DISPATCH; slot++) {
+                int row = d * MAX_UNITS_PER_DISPATCH + slot;
+                int column = solution[row];
+                if (column >= 0 && column < unitColumns && candidateAt[row][column] != null) {
+                    units.add(candidateAt[row][column]);
+                }
+            }
+            units.sort(UnitCandidate.BY_TRAVEL_TIME);
+            assigned.add(units);
+        }
+        return assigned;
+    }
+
+    /**
+     * 確保した部隊で割り当てを確定
+     *
+     * 出動部隊をまとめて登録し、最も早い到着予想時間を指令に記録します。
+     */
+    private void completeAssignment(Dispatch dispatch, Unit.UnitType unitType, List<UnitCandidate> reservedUnits) {
+        if (reservedUnits.size() < MAX_UNITS_PER_DISPATCH) {
+            log.warn("Only {} {} units could be reserved for dispatch: {}", reservedUnits.size(), unitType,
+                    dispatch.getDispatchNumber());
+        }
+
+        // 出動部隊をまとめて登録（参照のみ取得し、ユニットの読み込みは行わない）
+        LocalDateTime now = LocalDateTime.now();
+        List<DispatchUnit> dispatchUnits = new ArrayList<>(reservedUnits.size());
+        for (UnitCandidate reserved : reservedUnits) {
+            dispatchUnits.add(createDispatchUnit(dispatch,
+                    unitRepository.getReferenceById(reserved.unit().id()), reserved.estimatedArrival(now)));
+        }
+        dispatchUnitRepository.saveAll(dispatchUnits);
+        dispatchUnitRepository.flush();
+
+        // 最も早い到着予想時間を指令に記録
+        if (!reservedUnits.isEmpty() && reservedUnits.get(0).hasTravelTime()) {
+            dispatch.setEstimatedArrivalTime(reservedUnits.get(0).estimatedArrival(now));
+            dispatchRepository.save(dispatch);
+        }
+        dispatchSloMetrics.record(DispatchSloMetrics.Stage.UNITS_ASSIGNED, dispatch);
+
+        // 必要に応じて現場支援を要求
+        if (requiresSceneSupport(dispatch)) {
+            sceneSupportService.requestSceneSupport(dispatch);
         }
     }
 
     /**
      * 指令番号を生成
      */
-    private String generateDispatchNumber() {
-        String timestamp = LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return "DISP-" + timestamp + "-" + random;
+    String generateDispatchNumber() {
+        return businessNumberGenerator.next("DISP");
     }
 
     /**
      * 通報タイプから指令タイプを決定
      */
-    private Dispatch.DispatchType determineDispatchType(EmergencyReport.EmergencyType emergencyType) {
+    Dispatch.DispatchType determineDispatchType(EmergencyReport.EmergencyType emergencyType) {
         return switch (emergencyType) {
             case FIRE -> Dispatch.DispatchType.FIRE_ENGINE;
             case MEDICAL -> Dispatch.DispatchType.AMBULANCE;
@@ -209,22 +496,98 @@ public class DispatchService {
 
     /**
      * 最適な部隊を選択
+     *
+     * 事案地点に近い運用可能な部隊を候補として取得し、道路ネットワーク上の
+     * 走行時間が短い順に並べます。事案地点が不明な場合は任意の運用可能な
+     * 部隊を候補とします。並行する割り当てで先に確保される場合に備えて、
+     * 割り当て数より多くの候補を返します。
      */
-    private List<Unit> selectOptimalUnits(List<Unit> availableUnits, Dispatch dispatch) {
-        // 距離、可用性、能力に基づいて最適な部隊を選択
-        // 実装は簡略化
-        return availableUnits.stream()
-                .limit(3) // 最大3部隊まで
+    List<UnitCandidate> selectOptimalUnits(Unit.UnitType unitType, Dispatch dispatch) {
+        EmergencyReport report = dispatch.getEmergencyReport();
+        if (report == null || !GeoUtils.isValid(report.getLocationLatitude(), report.getLocationLongitude())) {
+            return unitAvailabilityIndex.findAvailable(unitType).stream()
+                    .limit(MAX_UNITS_PER_DISPATCH * CANDIDATE_FACTOR)
+                    .map(unit -> new UnitCandidate(unit, Double.NaN))
+                    .toList();
+        }
+
+        double latitude = report.getLocationLatitude();
+        double longitude = report.getLocationLongitude();
+
+        // 直線距離の近傍は道路上の近さと一致しないため、多めに候補を取得して走行時間で並べ替える
+        return unitAvailabilityIndex.findNearest(unitType, latitude, longitude,
+                MAX_UNITS_PER_DISPATCH * CANDIDATE_FACTOR, UnitAvailabilityIndex.UnitFilter.OPERATIONAL)
+                .stream()
+                .map(unit -> new UnitCandidate(unit, travelTimeService.estimateSeconds(unit, latitude, longitude)))
+                .sorted(UnitCandidate.BY_TRAVEL_TIME)
                 .toList();
     }
 
     /**
-     * 到着予想時間を計算
+     * 候補の先頭から部隊を確保
+     *
+     * インメモリインデックス上の比較と交換で確保したうえで、データベースの
+     * 条件付き更新（待機中の場合のみ出動中に変更）で確定します。いずれかで
+     * 競合した候補は読み飛ばし、次の候補を試します。
      */
-    private LocalDateTime calculateEstimatedArrival(Dispatch dispatch, Unit unit) {
-        // 距離と平均速度から到着時間を計算
-        // 実装は簡略化
-        return LocalDateTime.now().plusMinutes(15);
+    private List<UnitCandidate> reserveUnits(Unit.UnitType unitType, List<UnitCandidate> candidates, int limit) {
+        List<UnitCandidate> reserved = new ArrayList<>(limit);
+        LocalDateTime now = LocalDateTime.now();
+        for (UnitCandidate candidate : candidates) {
+            if (reserved.size() >= limit) {
+                break;
+            }
+            if (!unitAvailabilityIndex.tryReserve(unitType, candidate.unit())) {
+                continue;
+            }
+            if (unitRepository.reserveIfAvailable(candidate.unit().id(), now) == 1) {
+                reserved.add(candidate);
+            } else {
+                log.debug("Unit {} was no longer available in the database", candidate.unit().id());
+            }
+        }
+        return reserved;
+    }
+
+    /**
+     * 割り当て部隊を解除して待機中に戻す
+     */
+    private void releaseUnits(Dispatch dispatch, DispatchUnit.UnitStatus finalStatus) {
+        List<DispatchUnit> dispatchUnits = dispatchUnitRepository.findByDispatchIdWithUnit(dispatch.getId());
+        List<Unit> releasedUnits = new ArrayList<>(dispatchUnits.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (DispatchUnit dispatchUnit : dispatchUnits) {
+            if (dispatchUnit.getStatus() == DispatchUnit.UnitStatus.COMPLETED
+                    || dispatchUnit.getStatus() == DispatchUnit.UnitStatus.CANCELLED) {
+                continue;
+            }
+            dispatchUnit.setStatus(finalStatus);
+            dispatchUnit.setCompletedAt(now);
+
+            Unit unit = dispatchUnit.getUnit();
+            unit.setStatus(Unit.UnitStatus.AVAILABLE);
+            unit.setUpdatedAt(now);
+            releasedUnits.add(unit);
+        }
+
+        // 保存によりコミット後にインメモリインデックスへ再登録される
+        unitRepository.saveAll(releasedUnits);
+        log.info("Released {} units from dispatch: {}", releasedUnits.size(), dispatch.getDispatchNumber());
+    }
+
+    /**
+     * 緊急度の重み
+     */
+    private static int priorityWeight(EmergencyReport.PriorityLevel priorityLevel) {
+        if (priorityLevel == null) {
+            return 1;
+        }
+        return switch (priorityLevel) {
+            case CRITICAL -> 8;
+            case HIGH -> 4;
+            case MEDIUM -> 2;
+            case LOW -> 1;
+        };
     }
 
     /**
@@ -239,7 +602,7 @@ public class DispatchService {
     /**
      * DispatchTypeをUnitTypeに変換
      */
-    private Unit.UnitType convertDispatchTypeToUnitType(Dispatch.DispatchType dispatchType) {
+    Unit.UnitType convertDispatchTypeToUnitType(Dispatch.DispatchType dispatchType) {
         return switch (dispatchType) {
             case FIRE_ENGINE -> Unit.UnitType.FIRE_ENGINE;
             case AMBULANCE -> Unit.UnitType.AMBULANCE;
@@ -267,6 +630,53 @@ public class DispatchService {
                 .build();
     }
 
+    /**
+     * 部隊候補と推定走行時間
+     *
+     * @param unit          出動可能ユニット
+     * @param travelSeconds 推定走行時間（秒、不明な場合は {@link Double#NaN}）
+     */
+    record UnitCandidate(UnitAvailabilityIndex.AvailableUnit unit, double travelSeconds) {
+
+        /** 走行時間の短い順（不明なものは最後） */
+        static final Comparator<UnitCandidate> BY_TRAVEL_TIME = Comparator.comparingDouble(
+                c -> c.hasTravelTime() ? c.travelSeconds() : Double.MAX_VALUE);
+
+        boolean hasTravelTime() {
+            return !Double.isNaN(travelSeconds);
+        }
+
+        LocalDateTime estimatedArrival(LocalDateTime from) {
+            return hasTravelTime()
+                    ? from.plusSeconds(Math.round(travelSeconds))
+                    : from.plusMinutes(DEFAULT_TRAVEL_MINUTES);
+        }
+    }
+
+    /**
+     * 一括割り当て待ちの出動指令
+     *
+     * @param dispatch   出動指令
+     * @param onAssigned 割り当て完了時の処理
+     * @param onFailed   割り当て失敗時の処理
+     * @param attempts   失敗した一括割り当ての回数
+     */
+    private record PendingAssignment(Dispatch dispatch, Consumer<Dispatch> onAssigned, Consumer<Dispatch> onFailed,
+            int attempts) {
+
+        PendingAssignment retry() {
+            return new PendingAssignment(dispatch, onAssigned, onFailed, attempts + 1);
+        }
+
+        void assigned() {
+            onAssigned.accept(dispatch);
+        }
+
+        void failed() {
+            onFailed.accept(dispatch);
+        }
+    }
+
     /**
      * 統計情報クラス
      */
@@ -0,0 +1,169 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.Dispatch;
+import com.firecaptain.entity.EmergencyReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 出動指令SLOメトリクス
+ *
+ * 通報受付（{@link EmergencyReport#getReceivedAt()}）から各段階の完了までの
+ * 経過時間を、緊急事態タイプ・緊急度のタグ付きヒストグラムとして記録します。
+ * Prometheus 向けにはパーセンタイル用のバケットを、アクチュエーターの
+ * dispatchslo エンドポイント向けには直近5分間の p50/p95/p99 と最大値、
+ * および起動後の累計件数を公開します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class DispatchSloMetrics {
+
+    /** メトリクス名 */
+    public static final String METRIC_NAME = "fire_captain_dispatch_stage_latency";
+
+    /** パーセンタイルを集計する期間 */
+    private static final Duration ROLLING_WINDOW = Duration.ofMinutes(5);
+
+    private final MeterRegistry meterRegistry;
+
+    /** 段階・タイプ・緊急度ごとのタイマー */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public DispatchSloMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 段階の完了を記録
+     *
+     * @param stage    完了した段階
+     * @param dispatch 出動指令（通報を保持していること）
+     */
+    public void record(Stage stage, Dispatch dispatch) {
+        EmergencyReport report = dispatch.getEmergencyReport();
+        if (report == null) {
+            return;
+        }
+        record(stage, report.getEmergencyType(), dispatch.getPriorityLevel(), report.getReceivedAt());
+    }
+
+    /**
+     * 段階の完了を記録
+     *
+     * @param stage         完了した段階
+     * @param emergencyType 緊急事態タイプ
+     * @param priorityLevel 緊急度
+     * @param receivedAt    通報受付日時
+     */
+    public void record(Stage stage, EmergencyReport.EmergencyType emergencyType,
+            EmergencyReport.PriorityLevel priorityLevel, LocalDateTime receivedAt) {
+        if (receivedAt == null) {
+            return;
+        }
+        long elapsedMillis = Duration.between(receivedAt, LocalDateTime.now()).toMillis();
+        timer(stage, emergencyType, priorityLevel).record(Math.max(0, elapsedMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 段階ごとの直近のパーセンタイルを取得
+     *
+     * @return 段階 → タイプ・緊急度ごとの統計
+     */
+    public Map<Stage, List<StageLatency>> snapshot() {
+        Map<Stage, List<StageLatency>> result = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            result.put(stage, new ArrayList<>());
+        }
+        for (Timer timer : timers.values()) {
+            Stage stage = Stage.valueOf(timer.getId().getTag("stage").toUpperCase());
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            double p50 = Double.NaN;
+            double p95 = Double.NaN;
+            double p99 = Double.NaN;
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                double millis = value.value(TimeUnit.MILLISECONDS);
+                if (value.percentile() == 0.5) {
+                    p50 = millis;
+                } else if (value.percentile() == 0.95) {
+                    p95 = millis;
+                } else if (value.percentile() == 0.99) {
+                    p99 = millis;
+                }
+            }
+            result.get(stage).add(new StageLatency(timer.getId().getTag("emergency_type"),
+                    timer.getId().getTag("priority_level"), snapshot.count(), p50, p95, p99,
+                    snapshot.max(TimeUnit.MILLISECONDS)));
+        }
+        return result;
+    }
+
+    private Timer timer(Stage stage, EmergencyReport.EmergencyType emergencyType,
+            EmergencyReport.PriorityLevel priorityLevel) {
+        String type = emergencyType != null ? emergencyType.name() : "UNKNOWN";
+        String priority = priorityLevel != null ? priorityLevel.name() : "UNKNOWN";
+        return timers.computeIfAbsent(stage.name() + ":" + type + ":" + priority,
+                key -> Timer.builder(METRIC_NAME)
+                        .description("Elapsed time from emergency report intake to the end of each dispatch stage")
+                        .tag("stage", stage.tagValue())
+                        .tag("emergency_type", type)
+                        .tag("priority_level", priority)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(10))
+                        .maximumExpectedValue(Duration.ofMinutes(10))
+                        .distributionStatisticExpiry(ROLLING_WINDOW)
+                        .distributionStatisticBufferLength(5)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * 計測する段階
+     */
+    public enum Stage {
+        /** 出動指令の作成完了 */
+        DISPATCH_CREATED,
+        /** 部隊割り当ての完了 */
+        UNITS_ASSIGNED,
+        /** 最初の出動指令通知の送信 */
+        NOTIFIED;
+
+        String tagValue() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * 段階の経過時間の統計（ミリ秒）
+     *
+     * パーセンタイルと最大値は直近5分間の値ですが、件数はタイマーの
+     * 累計（起動後の総数）です。直近の件数が必要な場合は、Prometheus で
+     * カウンターの増分を集計してください。
+     *
+     * @param emergencyType 緊急事態タイプ
+     * @param priorityLevel 緊急度
+     * @param totalCount    起動後の累計件数
+     * @param p50           直近5分間の50パーセンタイル
+     * @param p95           直近5分間の95パーセンタイル
+     * @param p99           直近5分間の99パーセンタイル
+     * @param max           直近5分間の最大値
+     */
+    public record StageLatency(String emergencyType, String priorityLevel, long totalCount, double p50, double p95,
+            double p99, double max) {
+    }
+}
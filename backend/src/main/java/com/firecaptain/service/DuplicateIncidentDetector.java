@@ -0,0 +1,129 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.EmergencyCall;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.geo.RecentIncidentIndex;
+import com.firecaptain.util.TransactionHooks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * 受付時の重複事案の判定
+ *
+ * 目視できる火災などでは、同じ事案について多数の通報が短時間に集中します。
+ * 直近に受け付けた事案を {@link RecentIncidentIndex} にメモリ上で保持し、
+ * 同じ種別で、判定半径内かつウィンドウ内に受け付けた事案がある場合は、
+ * 新しい通報をその事案の重複として扱います。判定にデータベースは使用しません。
+ *
+ * 緊急通報（{@link EmergencyCall}）と通報（{@link EmergencyReport}）は
+ * IDが別のため、それぞれ別のインデックスで判定します。位置が不明な通報は
+ * 判定せず、常に新しい事案とします。
+ *
+ * 新しい事案として登録した通報の登録がロールバックされた場合は、
+ * インデックスからも取り除きます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class DuplicateIncidentDetector {
+
+    private final boolean enabled;
+    private final RecentIncidentIndex<EmergencyCall.IncidentType> calls;
+    private final RecentIncidentIndex<EmergencyReport.EmergencyType> reports;
+    private final Counter duplicateCallCounter;
+    private final Counter duplicateReportCounter;
+
+    public DuplicateIncidentDetector(MeterRegistry meterRegistry,
+            @Value("${fire-captain.duplicate-detection.enabled:true}") boolean enabled,
+            @Value("${fire-captain.duplicate-detection.window-ms:600000}") long windowMillis,
+            @Value("${fire-captain.duplicate-detection.radius-km:0.3}") double radiusKm) {
+        this.enabled = enabled;
+        this.calls = new RecentIncidentIndex<>(windowMillis, radiusKm);
+        this.reports = new RecentIncidentIndex<>(windowMillis, radiusKm);
+        this.duplicateCallCounter = Counter.builder("fire_captain_duplicate_intakes_total")
+                .description("Number of intakes linked to an existing incident")
+                .tag("kind", "call")
+                .register(meterRegistry);
+        this.duplicateReportCounter = Counter.builder("fire_captain_duplicate_intakes_total")
+                .description("Number of intakes linked to an existing incident")
+                .tag("kind", "report")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 緊急通報の重複を判定し、重複でなければ新しい事案として登録
+     *
+     * @param call IDと受付日時が設定された緊急通報
+     * @return 重複先の緊急通報ID（新しい事案の場合は空）
+     */
+    public Optional<Long> findOriginal(EmergencyCall call) {
+        if (!enabled || call.getId() == null || call.getReceivedAt() == null
+                || !GeoUtils.isValid(call.getLatitude(), call.getLongitude())) {
+            return Optional.empty();
+        }
+        long receivedAt = toMillis(call.getReceivedAt());
+        Optional<Long> original = calls.findOrRegister(call.getId(), call.getIncidentType(),
+                call.getLatitude(), call.getLongitude(), receivedAt);
+        if (original.isPresent()) {
+            duplicateCallCounter.increment();
+        } else {
+            removeOnRollback(calls, call.getId(), call.getLatitude(), call.getLongitude(), receivedAt);
+        }
+        return original;
+    }
+
+    /**
+     * 通報の重複を判定し、重複でなければ新しい事案として登録
+     *
+     * @param report IDと受付日時が設定された通報
+     * @return 重複先の通報ID（新しい事案の場合は空）
+     */
+    public Optional<Long> findOriginal(EmergencyReport report) {
+        if (!enabled || report.getId() == null || report.getReceivedAt() == null
+                || !GeoUtils.isValid(report.getLocationLatitude(), report.getLocationLongitude())) {
+            return Optional.empty();
+        }
+        long receivedAt = toMillis(report.getReceivedAt());
+        Optional<Long> original = reports.findOrRegister(report.getId(), report.getEmergencyType(),
+                report.getLocationLatitude(), report.getLocationLongitude(), receivedAt);
+        if (original.isPresent()) {
+            duplicateReportCounter.increment();
+        } else {
+            removeOnRollback(reports, report.getId(), report.getLocationLatitude(),
+                    report.getLocationLongitude(), receivedAt);
+        }
+        return original;
+    }
+
+    /**
+     * ウィンドウを過ぎた事案を削除
+     */
+    @Scheduled(fixedDelayString = "${fire-captain.duplicate-detection.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        int evicted = calls.evictExpired(now) + reports.evictExpired(now);
+        if (evicted > 0) {
+            log.debug("Evicted {} expired incidents from duplicate detection", evicted);
+        }
+    }
+
+    private static void removeOnRollback(RecentIncidentIndex<?> index, long id, double latitude,
+            double longitude, long epochMillis) {
+        TransactionHooks.afterRollback(() -> index.remove(id, latitude, longitude, epochMillis));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
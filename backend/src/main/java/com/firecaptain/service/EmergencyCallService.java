@@ -3,6 +3,9 @@ package com.firecaptain.service;
 import com.firecaptain.entity.EmergencyCall;
 import com.firecaptain.entity.FireStation;
 import com.firecaptain.entity.Firefighter;
+import com.firecaptain.entity.IntakeRequest;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.geo.SpatialCellId;
 import com.firecaptain.repository.EmergencyCallRepository;
 import com.firecaptain.repository.FireStationRepository;
 import com.firecaptain.repository.FirefighterRepository;
@@ -37,10 +40,18 @@ import java.util.concurrent.CompletableFuture;
 @Transactional
 public class EmergencyCallService {
 
+    /** 消防署を割り当てる最大距離（km） */
+    private static final double STATION_SEARCH_RADIUS_KM = 10.0;
+
     private final EmergencyCallRepository emergencyCallRepository;
     private final FireStationRepository fireStationRepository;
     private final FirefighterRepository firefighterRepository;
     private final NotificationService notificationService;
+    private final StationSpatialIndex stationSpatialIndex;
+    private final GeocodingService geocodingService;
+    private final BusinessNumberGenerator businessNumberGenerator;
+    private final DuplicateIncidentDetector duplicateIncidentDetector;
+    private final IntakeIdempotencyService intakeIdempotencyService;
 
     /**
      * IDによる緊急通報の取得（キャッシュ付き）
@@ -100,17 +111,47 @@ public class EmergencyCallService {
      * 新しい緊急通報の作成
      * 
      * 通報番号の自動生成、受信時刻の設定、最適な消防署の自動割り当て、
-     * 通知の送信を行います。
+     * 通知の送信を行います。直近の同じ事案の重複と判定された通報は、
+     * 既存の緊急通報に紐付けるのみとします。
      * 
      * @param emergencyCall 作成する緊急通報情報
      * @return 作成された緊急通報情報
      */
     @CacheEvict(value = "emergencyCalls", allEntries = true)
     public EmergencyCall createEmergencyCall(EmergencyCall emergencyCall) {
+        return createEmergencyCall(emergencyCall, null);
+    }
+
+    /**
+     * 冪等キー付きの新しい緊急通報の作成
+     * 
+     * 冪等キーは緊急通報と同じトランザクションで記録し、同じキーが既に記録されている
+     * 場合は緊急通報も登録しません（{@link IntakeIdempotencyService}）。
+     * 
+     * @param emergencyCall  作成する緊急通報情報
+     * @param idempotencyKey 冪等キー（nullの場合は記録しない）
+     * @return 作成された緊急通報情報
+     */
+    @CacheEvict(value = "emergencyCalls", allEntries = true)
+    public EmergencyCall createEmergencyCall(EmergencyCall emergencyCall, String idempotencyKey) {
         emergencyCall.setReceivedAt(LocalDateTime.now());
         emergencyCall.setCallNumber(generateCallNumber());
+        geocodeIfMissing(emergencyCall);
+        assignSpatialCells(emergencyCall);
 
         EmergencyCall savedCall = emergencyCallRepository.save(emergencyCall);
+        if (idempotencyKey != null) {
+            intakeIdempotencyService.record(IntakeRequest.IntakeKind.EMERGENCY_CALL, idempotencyKey,
+                    savedCall.getId());
+        }
+
+        // 同じ事案の通報は既存の緊急通報に紐付け、消防署の割り当てと通知は行わない
+        Optional<Long> originalId = duplicateIncidentDetector.findOriginal(savedCall);
+        if (originalId.isPresent()) {
+            savedCall.setDuplicateOfId(originalId.get());
+            log.info("Emergency call {} linked to existing call {}", savedCall.getCallNumber(), originalId.get());
+            return savedCall;
+        }
 
         // 非同期で最適な消防署を割り当て
         assignOptimalStationAsync(savedCall);
@@ -157,15 +198,10 @@ public class EmergencyCallService {
     @Async
     public CompletableFuture<Void> assignOptimalStationAsync(EmergencyCall emergencyCall) {
         try {
-            List<FireStation> nearbyStations = fireStationRepository.findStationsWithinRadius(
-                    emergencyCall.getLatitude(),
-                    emergencyCall.getLongitude(),
-                    10.0 // 10km以内
-            );
-
-            if (!nearbyStations.isEmpty()) {
-                // 最も近い消防署を選択
-                FireStation optimalStation = nearbyStations.get(0);
+            Optional<FireStation> responsibleStation = findResponsibleStation(emergencyCall);
+
+            if (responsibleStation.isPresent()) {
+                FireStation optimalStation = responsibleStation.get();
                 emergencyCall.setAssignedStation(optimalStation);
                 emergencyCall.setDispatchedAt(LocalDateTime.now());
                 emergencyCall.setStatus(EmergencyCall.CallStatus.DISPATCHED);
@@ -182,6 +218,55 @@ public class EmergencyCallService {
         return CompletableFuture.completedFuture(null);
     }
 
+    /**
+     * 通報地点を担当する運用中の消防署を検索
+     *
+     * インメモリの消防署インデックスで管轄区域を判定し、どの管轄区域にも
+     * 含まれない場合は最寄りの消防署とします。起動直後でインデックスが
+     * 未構築の場合のみ、データベースの近傍検索を使用します。
+     */
+    private Optional<FireStation> findResponsibleStation(EmergencyCall emergencyCall) {
+        if (!GeoUtils.isValid(emergencyCall.getLatitude(), emergencyCall.getLongitude())) {
+            return Optional.empty();
+        }
+        if (stationSpatialIndex.isLoaded()) {
+            return stationSpatialIndex.findResponsible(emergencyCall.getLatitude(), emergencyCall.getLongitude(),
+                    STATION_SEARCH_RADIUS_KM);
+        }
+        return fireStationRepository.findNearestActiveStations(emergencyCall.getLatitude(),
+                emergencyCall.getLongitude(), STATION_SEARCH_RADIUS_KM, 1).stream().findFirst();
+    }
+
+    /**
+     * 位置が未設定で住所がある場合、住所辞書から位置を設定
+     */
+    private void geocodeIfMissing(EmergencyCall call) {
+        if (call.getLatitude() != null && call.getLongitude() != null) {
+            return;
+        }
+        geocodingService.geocode(call.getIncidentAddress()).ifPresent(match -> {
+            call.setLatitude(match.latitude());
+            call.setLongitude(match.longitude());
+        });
+    }
+
+    /**
+     * 通報地点から空間セルIDを設定（位置が不明な場合は未設定）
+     */
+    private void assignSpatialCells(EmergencyCall call) {
+        Double latitude = call.getLatitude();
+        Double longitude = call.getLongitude();
+        if (GeoUtils.isValid(latitude, longitude)) {
+            call.setSpatialCell(SpatialCellId.encode(latitude, longitude, SpatialCellId.MAX_LEVEL));
+            call.setSpatialCellBlock(SpatialCellId.encode(latitude, longitude, SpatialCellId.BLOCK_LEVEL));
+            call.setSpatialCellDistrict(SpatialCellId.encode(latitude, longitude, SpatialCellId.DISTRICT_LEVEL));
+        } else {
+            call.setSpatialCell(null);
+            call.setSpatialCellBlock(null);
+            call.setSpatialCellDistrict(null);
+        }
+    }
+
     private void updateTimestamps(EmergencyCall call, EmergencyCall.CallStatus newStatus) {
         switch (newStatus) {
             case DISPATCHED:
@@ -203,7 +288,7 @@ public class EmergencyCallService {
     }
 
     private String generateCallNumber() {
-        return "CALL-" + System.currentTimeMillis();
+        return businessNumberGenerator.next("CALL");
     }
 
     public long countByStatus(EmergencyCall.CallStatus status) {
@@ -213,4 +298,14 @@ public class EmergencyCallService {
     public List<EmergencyCall> findByAssignedStation(Long stationId) {
         return emergencyCallRepository.findByAssignedStation(stationId);
     }
+
+    /**
+     * 重複として紐付けられた緊急通報の取得
+     *
+     * @param id 重複先の緊急通報ID
+     * @return 紐付けられた緊急通報のリスト
+     */
+    public List<EmergencyCall> findDuplicates(Long id) {
+        return emergencyCallRepository.findByDuplicateOfId(id);
+    }
 }
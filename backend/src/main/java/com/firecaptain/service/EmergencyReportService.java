@@ -1,19 +1,20 @@
 package com.firecaptain.service;
 
 import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.entity.IntakeRequest;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.geo.SpatialCellId;
 import com.firecaptain.repository.EmergencyReportRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -22,28 +23,86 @@ import java.util.UUID;
 public class EmergencyReportService {
     
     private final EmergencyReportRepository emergencyReportRepository;
-    private final DispatchService dispatchService;
+    private final DispatchPipeline dispatchPipeline;
+    private final GeocodingService geocodingService;
+    private final BusinessNumberGenerator businessNumberGenerator;
+    private final DuplicateIncidentDetector duplicateIncidentDetector;
+    private final IntakeIdempotencyService intakeIdempotencyService;
     
     /**
      * 新しい通報を受付
      */
     @CacheEvict(value = "emergencyReports", allEntries = true)
     public EmergencyReport createEmergencyReport(EmergencyReport report) {
+        return createEmergencyReport(report, null);
+    }
+    
+    /**
+     * 冪等キー付きで新しい通報を受付
+     * 
+     * 冪等キーは通報と同じトランザクションで記録し、同じキーが既に記録されている場合は
+     * 通報も登録しません（{@link IntakeIdempotencyService}）。
+     */
+    @CacheEvict(value = "emergencyReports", allEntries = true)
+    public EmergencyReport createEmergencyReport(EmergencyReport report, String idempotencyKey) {
+        prepareIntake(report);
         log.info("Creating new emergency report: {}", report.getReportNumber());
-        
+        return register(report, idempotencyKey);
+    }
+    
+    /**
+     * 受付ジャーナルから取り出した通報を登録
+     * 
+     * 通報番号と受付日時は受付時に設定済みのため、変更しません。
+     */
+    @CacheEvict(value = "emergencyReports", allEntries = true)
+    public EmergencyReport createJournaledReport(EmergencyReport report, String idempotencyKey) {
+        log.info("Creating journaled emergency report: {}", report.getReportNumber());
+        return register(report, idempotencyKey);
+    }
+    
+    /**
+     * 受付時の通報番号・受付日時・ステータスを設定
+     */
+    public void prepareIntake(EmergencyReport report) {
         // 通報番号を生成
         report.setReportNumber(generateReportNumber());
         report.setReceivedAt(LocalDateTime.now());
         report.setStatus(EmergencyReport.ReportStatus.RECEIVED);
+    }
+    
+    private EmergencyReport register(EmergencyReport report, String idempotencyKey) {
+        geocodeIfMissing(report);
+        assignSpatialCells(report);
         
         EmergencyReport savedReport = emergencyReportRepository.save(report);
+        if (idempotencyKey != null) {
+            intakeIdempotencyService.record(IntakeRequest.IntakeKind.EMERGENCY_REPORT, idempotencyKey,
+                    savedReport.getId());
+        }
+        
+        // 同じ事案の通報は既存の通報に紐付け、出動指令は作成しない
+        Optional<Long> originalId = duplicateIncidentDetector.findOriginal(savedReport);
+        if (originalId.isPresent()) {
+            savedReport.setDuplicateOfId(originalId.get());
+            log.info("Emergency report {} linked to existing report {}", savedReport.getReportNumber(),
+                    originalId.get());
+            return savedReport;
+        }
         
-        // 非同期で指令処理を開始
-        processDispatchAsync(savedReport);
+        // コミット後に出動指令パイプラインへ投入
+        dispatchPipeline.submit(savedReport);
         
         return savedReport;
     }
     
+    /**
+     * IDで検索
+     */
+    public Optional<EmergencyReport> findById(Long id) {
+        return emergencyReportRepository.findById(id);
+    }
+    
     /**
      * 通報番号で検索
      */
@@ -61,6 +120,15 @@ public class EmergencyReportService {
         return emergencyReportRepository.findByStatus(status);
     }
     
+    /**
+     * 重複として紐付けられた通報を検索
+     */
+    public List<EmergencyReport> findDuplicates(String reportNumber) {
+        return emergencyReportRepository.findByReportNumber(reportNumber)
+                .map(report -> emergencyReportRepository.findByDuplicateOfId(report.getId()))
+                .orElse(List.of());
+    }
+    
     /**
      * 緊急度で検索
      */
@@ -75,6 +143,7 @@ public class EmergencyReportService {
     @CacheEvict(value = "emergencyReports", key = "#report.reportNumber")
     public EmergencyReport updateEmergencyReport(EmergencyReport report) {
         log.info("Updating emergency report: {}", report.getReportNumber());
+        assignSpatialCells(report);
         return emergencyReportRepository.save(report);
     }
     
@@ -101,25 +170,40 @@ public class EmergencyReportService {
     }
     
     /**
-     * 非同期で指令処理を実行
+     * 位置が未設定で住所がある場合、住所辞書から位置を設定
+     */
+    private void geocodeIfMissing(EmergencyReport report) {
+        if (report.getLocationLatitude() != null && report.getLocationLongitude() != null) {
+            return;
+        }
+        geocodingService.geocode(report.getLocationAddress()).ifPresent(match -> {
+            report.setLocationLatitude(match.latitude());
+            report.setLocationLongitude(match.longitude());
+        });
+    }
+    
+    /**
+     * 通報地点から空間セルIDを設定（位置が不明な場合は未設定）
      */
-    @Async
-    public void processDispatchAsync(EmergencyReport report) {
-        try {
-            log.info("Processing dispatch for emergency report: {}", report.getReportNumber());
-            dispatchService.createDispatchFromReport(report);
-        } catch (Exception e) {
-            log.error("Error processing dispatch for report: {}", report.getReportNumber(), e);
+    private void assignSpatialCells(EmergencyReport report) {
+        Double latitude = report.getLocationLatitude();
+        Double longitude = report.getLocationLongitude();
+        if (GeoUtils.isValid(latitude, longitude)) {
+            report.setSpatialCell(SpatialCellId.encode(latitude, longitude, SpatialCellId.MAX_LEVEL));
+            report.setSpatialCellBlock(SpatialCellId.encode(latitude, longitude, SpatialCellId.BLOCK_LEVEL));
+            report.setSpatialCellDistrict(SpatialCellId.encode(latitude, longitude, SpatialCellId.DISTRICT_LEVEL));
+        } else {
+            report.setSpatialCell(null);
+            report.setSpatialCellBlock(null);
+            report.setSpatialCellDistrict(null);
         }
     }
     
     /**
      * 通報番号を生成
      */
-    private String generateReportNumber() {
-        String timestamp = LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return "ER-" + timestamp + "-" + random;
+    String generateReportNumber() {
+        return businessNumberGenerator.next("ER");
     }
     
     /**
@@ -0,0 +1,147 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.EmergencyCall;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.entity.Unit;
+import com.firecaptain.geo.BoundingBox;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.repository.EmergencyCallRepository;
+import com.firecaptain.repository.EmergencyReportRepository;
+import com.firecaptain.repository.UnitRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 半径検索サービス
+ *
+ * 半径検索を、半径の円を含む緯度・経度の範囲（{@link BoundingBox}）による
+ * 範囲検索と、JVM内での大圏距離による判定の2段階で行います。
+ * 範囲検索は (緯度, 経度) の複合インデックスで処理されるため、
+ * テーブル全体を走査せずに候補を絞り込めます。
+ *
+ * 緊急通報・通報は対応中のもののみを対象とし、範囲検索の候補は受付の新しい順に
+ * {@link #MAX_CANDIDATES} 件までに制限します。
+ *
+ * ユニットの位置はライトビハインドで書き込まれるため（{@link UnitLocationService}）、
+ * 数秒前の位置で検索されます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class GeoQueryService {
+
+    /** 検索できる最大半径（km） */
+    public static final double MAX_RADIUS_KM = 100.0;
+
+    /** 範囲検索で取得する緊急通報・通報の最大件数 */
+    public static final int MAX_CANDIDATES = 1000;
+
+    private static final Pageable CANDIDATE_LIMIT = PageRequest.of(0, MAX_CANDIDATES);
+
+    private final UnitRepository unitRepository;
+    private final EmergencyCallRepository emergencyCallRepository;
+    private final EmergencyReportRepository emergencyReportRepository;
+
+    /**
+     * 指定半径内のユニットを近い順に検索
+     *
+     * @param latitude  中心の緯度
+     * @param longitude 中心の経度
+     * @param radiusKm  半径（km）
+     * @return 半径内のユニットと距離
+     * @throws IllegalArgumentException 座標または半径が不正な場合
+     */
+    public List<Nearby<Unit>> findUnitsWithinRadius(double latitude, double longitude, double radiusKm) {
+        BoundingBox box = boundingBox(latitude, longitude, radiusKm);
+        List<Unit> candidates = unitRepository.findUnitsInArea(box.minLatitude(), box.maxLatitude(),
+                box.minLongitude(), box.maxLongitude());
+        return refine(candidates, Unit::getCurrentLatitude, Unit::getCurrentLongitude,
+                latitude, longitude, radiusKm);
+    }
+
+    /**
+     * 指定半径内の対応中の緊急通報を近い順に検索
+     *
+     * @param latitude  中心の緯度
+     * @param longitude 中心の経度
+     * @param radiusKm  半径（km）
+     * @return 半径内の緊急通報と距離
+     * @throws IllegalArgumentException 座標または半径が不正な場合
+     */
+    public List<Nearby<EmergencyCall>> findCallsWithinRadius(double latitude, double longitude, double radiusKm) {
+        BoundingBox box = boundingBox(latitude, longitude, radiusKm);
+        List<EmergencyCall> candidates = emergencyCallRepository.findActiveCallsInArea(box.minLatitude(),
+                box.maxLatitude(), box.minLongitude(), box.maxLongitude(), CANDIDATE_LIMIT);
+        return refine(candidates, EmergencyCall::getLatitude, EmergencyCall::getLongitude,
+                latitude, longitude, radiusKm);
+    }
+
+    /**
+     * 指定半径内の対応中の通報を近い順に検索
+     *
+     * @param latitude  中心の緯度
+     * @param longitude 中心の経度
+     * @param radiusKm  半径（km）
+     * @return 半径内の通報と距離
+     * @throws IllegalArgumentException 座標または半径が不正な場合
+     */
+    public List<Nearby<EmergencyReport>> findReportsWithinRadius(double latitude, double longitude,
+            double radiusKm) {
+        BoundingBox box = boundingBox(latitude, longitude, radiusKm);
+        List<EmergencyReport> candidates = emergencyReportRepository.findActiveReportsInArea(box.minLatitude(),
+                box.maxLatitude(), box.minLongitude(), box.maxLongitude(), CANDIDATE_LIMIT);
+        return refine(candidates, EmergencyReport::getLocationLatitude, EmergencyReport::getLocationLongitude,
+                latitude, longitude, radiusKm);
+    }
+
+    private static BoundingBox boundingBox(double latitude, double longitude, double radiusKm) {
+        if (!GeoUtils.isValid(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("Radius must be in (0, " + MAX_RADIUS_KM + "] km: " + radiusKm);
+        }
+        return BoundingBox.around(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * 範囲検索の候補を距離で判定し、近い順に並べる
+     */
+    private static <T> List<Nearby<T>> refine(List<T> candidates, Function<T, Double> latitudeOf,
+            Function<T, Double> longitudeOf, double latitude, double longitude, double radiusKm) {
+        List<Nearby<T>> result = new ArrayList<>();
+        for (T candidate : candidates) {
+            Double candidateLatitude = latitudeOf.apply(candidate);
+            Double candidateLongitude = longitudeOf.apply(candidate);
+            if (!GeoUtils.isValid(candidateLatitude, candidateLongitude)) {
+                continue;
+            }
+            double distance = GeoUtils.distanceKm(latitude, longitude, candidateLatitude, candidateLongitude);
+            if (distance <= radiusKm) {
+                result.add(new Nearby<>(candidate, distance));
+            }
+        }
+        result.sort(Comparator.comparingDouble(Nearby::distanceKm));
+        return result;
+    }
+
+    /**
+     * 検索結果
+     *
+     * @param item       検索された対象
+     * @param distanceKm 中心からの距離（km）
+     */
+    public record Nearby<T>(T item, double distanceKm) {
+    }
+}
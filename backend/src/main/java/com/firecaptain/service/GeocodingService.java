@@ -0,0 +1,104 @@
+package com.firecaptain.service;
+
+import com.firecaptain.geo.Gazetteer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * オフライン住所ジオコーディングサービス
+ *
+ * 起動時にローカルの住所辞書（{@link Gazetteer}）を読み込み、通報受付時に
+ * 住所から緯度・経度を外部サービスに問い合わせずに求めます。
+ * 同じ住所の再検索に備えて、直近の検索結果（見つからなかった結果を含む）を
+ * LRUキャッシュに保持します。
+ *
+ * 住所辞書が設定されていない場合は何も返しません。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class GeocodingService {
+
+    private final String gazetteerFile;
+
+    /** 読み込み済みの住所辞書（ロード完了後に差し替え） */
+    private volatile Gazetteer gazetteer;
+
+    /** 住所 → 検索結果（アクセス順） */
+    private final Map<String, Optional<Gazetteer.Match>> cache;
+
+    public GeocodingService(@Value("${fire-captain.geocoding.gazetteer-file:}") String gazetteerFile,
+            @Value("${fire-captain.geocoding.cache-size:10000}") int cacheSize) {
+        this.gazetteerFile = gazetteerFile;
+        this.cache = new LinkedHashMap<>(Math.min(cacheSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Optional<Gazetteer.Match>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * 住所辞書を読み込み
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadGazetteer() {
+        if (gazetteerFile == null || gazetteerFile.isBlank()) {
+            log.info("No gazetteer configured, addresses without coordinates are not geocoded");
+            return;
+        }
+
+        Path path = Path.of(gazetteerFile);
+        if (!Files.isReadable(path)) {
+            log.warn("Gazetteer file not readable: {}, addresses without coordinates are not geocoded", path);
+            return;
+        }
+
+        try {
+            long startTime = System.currentTimeMillis();
+            gazetteer = Gazetteer.load(path);
+            synchronized (cache) {
+                cache.clear();
+            }
+            log.info("Gazetteer loaded: {} addresses in {}ms", gazetteer.size(),
+                    System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Failed to load gazetteer: {}", path, e);
+        }
+    }
+
+    /**
+     * 住所から位置を検索
+     *
+     * @param address 住所
+     * @return 一致した位置（見つからない場合や、住所辞書が未設定の場合は空）
+     */
+    public Optional<Gazetteer.Match> geocode(String address) {
+        Gazetteer current = gazetteer;
+        if (current == null || address == null || address.isBlank()) {
+            return Optional.empty();
+        }
+        synchronized (cache) {
+            Optional<Gazetteer.Match> cached = cache.get(address);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Optional<Gazetteer.Match> result = current.lookup(address);
+        synchronized (cache) {
+            cache.put(address, result);
+        }
+        return result;
+    }
+}
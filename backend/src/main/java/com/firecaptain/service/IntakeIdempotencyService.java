@@ -0,0 +1,246 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.IntakeRequest;
+import com.firecaptain.repository.IntakeRequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 受付エンドポイントの冪等性
+ *
+ * Idempotency-Key ヘッダー付きの受付リクエストについて、同じキーの再送に対しては
+ * 受付処理を再実行せず、最初の応答を返します。
+ *
+ * 応答は件数と保持時間に上限のあるJVM内の表に保持し、同じキーのリクエストが
+ * 処理中の場合は、その完了を待って同じ応答を返します。表にない場合（再起動後、
+ * 表から追い出された後、他のノードで受け付けた場合）は intake_requests テーブルの
+ * 記録から作成済みの通報を読み込んで返します。キーの記録は通報の登録と同じ
+ * トランザクションで行い、一意制約により同じキーで通報が2件登録されることはありません。
+ *
+ * 受付ジャーナル（{@link com.firecaptain.journal.IntakeJournalService}）を使用する
+ * 通報の受付では、受付の応答時間をデータベースから切り離すため、受付前に
+ * intake_requests を参照せずJVM内の表のみで判定します。表にないキーの再送は
+ * もう一度ジャーナルに書き込まれ、登録時に記録済みのキーとして除かれます。
+ *
+ * 失敗した受付の応答は保持しないため、クライアントは同じキーで再送できます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class IntakeIdempotencyService {
+
+    /** 冪等キーの最大長 */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    /** 再送への応答であることを示すヘッダー */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IntakeRequestRepository intakeRequestRepository;
+    private final long responseTtlMillis;
+    private final long inFlightWaitMillis;
+    private final long keyRetentionHours;
+    private final boolean reportsJournaled;
+
+    /** (種別, キー) → 応答（登録順） */
+    private final Map<String, Entry> responses;
+
+    public IntakeIdempotencyService(IntakeRequestRepository intakeRequestRepository,
+            @Value("${fire-captain.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${fire-captain.idempotency.response-ttl-ms:600000}") long responseTtlMillis,
+            @Value("${fire-captain.idempotency.in-flight-wait-ms:30000}") long inFlightWaitMillis,
+            @Value("${fire-captain.idempotency.key-retention-hours:24}") long keyRetentionHours,
+            @Value("${fire-captain.intake-journal.enabled:false}") boolean reportsJournaled) {
+        this.intakeRequestRepository = intakeRequestRepository;
+        this.responseTtlMillis = responseTtlMillis;
+        this.inFlightWaitMillis = inFlightWaitMillis;
+        this.keyRetentionHours = keyRetentionHours;
+        this.reportsJournaled = reportsJournaled;
+        this.responses = new LinkedHashMap<>(Math.min(maxEntries, 1024)) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 冪等キー付きで受付処理を実行
+     *
+     * @param kind      受付の種別
+     * @param key       冪等キー
+     * @param intake    受付処理（作成した通報の応答を返す）
+     * @param recovered 記録された通報IDから応答を作成（通報が見つからない場合は空）
+     * @return 受付処理の応答、または同じキーの最初の応答
+     */
+    public <T> ResponseEntity<T> execute(IntakeRequest.IntakeKind kind, String key,
+            Supplier<ResponseEntity<T>> intake, Function<Long, Optional<ResponseEntity<T>>> recovered) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String mapKey = kind + ":" + key;
+        Entry entry = new Entry(System.currentTimeMillis());
+        Entry existing;
+        synchronized (responses) {
+            existing = responses.get(mapKey);
+            if (existing == null || existing.isExpired(entry.createdAtMillis, responseTtlMillis)) {
+                // 登録順を保つため、期限切れの応答は削除してから登録する
+                responses.remove(mapKey);
+                responses.put(mapKey, entry);
+                existing = null;
+            }
+        }
+        if (existing != null) {
+            return awaitReplay(existing, kind, key);
+        }
+
+        try {
+            // ジャーナル経由の受付ではデータベースを参照しない（登録時に重複を除く）
+            Optional<ResponseEntity<T>> recorded = isJournaled(kind) ? Optional.empty()
+                    : recover(kind, key, recovered);
+            if (recorded.isPresent()) {
+                entry.response.complete(recorded.get());
+                return replayed(recorded.get());
+            }
+
+            ResponseEntity<T> response;
+            try {
+                response = intake.get();
+            } catch (DataIntegrityViolationException e) {
+                // 同じキーが他のノードで先に記録された
+                response = recover(kind, key, recovered)
+                        .map(IntakeIdempotencyService::replayed)
+                        .orElseThrow(() -> e);
+            }
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                // 受け付けられなかった応答は保持しない
+                forget(mapKey, entry);
+            }
+            entry.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            forget(mapKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 冪等キーを記録（通報の登録と同じトランザクションで呼び出すこと）
+     *
+     * @param kind       受付の種別
+     * @param key        冪等キー
+     * @param resourceId 作成した通報のID
+     * @throws DataIntegrityViolationException 同じキーが既に記録されている場合
+     */
+    @Transactional
+    public void record(IntakeRequest.IntakeKind kind, String key, Long resourceId) {
+        intakeRequestRepository.saveAndFlush(new IntakeRequest(null, kind, key, resourceId, LocalDateTime.now()));
+    }
+
+    /**
+     * 期限切れの応答と保持期間を過ぎたキーを削除
+     */
+    @Scheduled(fixedDelayString = "${fire-captain.idempotency.cleanup-interval-ms:300000}")
+    @Transactional
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        synchronized (responses) {
+            // 登録順のため、期限切れでない応答が現れた時点で打ち切る
+            Iterator<Entry> iterator = responses.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (!entry.isExpired(now, responseTtlMillis)) {
+                    break;
+                }
+                iterator.remove();
+            }
+        }
+        int deleted = intakeRequestRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(keyRetentionHours));
+        if (deleted > 0) {
+            log.debug("Deleted {} expired intake idempotency keys", deleted);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> awaitReplay(Entry existing, IntakeRequest.IntakeKind kind, String key) {
+        try {
+            ResponseEntity<T> response = (ResponseEntity<T>) existing.response
+                    .get(inFlightWaitMillis, TimeUnit.MILLISECONDS);
+            log.debug("Replaying {} response for idempotency key {}", kind, key);
+            return replayed(response);
+        } catch (TimeoutException e) {
+            log.warn("Request with idempotency key {} is still in progress", key);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (ExecutionException e) {
+            // 最初のリクエストが失敗した場合は、同じ失敗を返す（クライアントは再送できる）
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> Optional<ResponseEntity<T>> recover(IntakeRequest.IntakeKind kind, String key,
+            Function<Long, Optional<ResponseEntity<T>>> recovered) {
+        return intakeRequestRepository.findByKindAndIdempotencyKey(kind, key)
+                .flatMap(request -> recovered.apply(request.getResourceId()));
+    }
+
+    private boolean isJournaled(IntakeRequest.IntakeKind kind) {
+        return reportsJournaled && kind == IntakeRequest.IntakeKind.EMERGENCY_REPORT;
+    }
+
+    private void forget(String mapKey, Entry entry) {
+        synchronized (responses) {
+            responses.remove(mapKey, entry);
+        }
+    }
+
+    private static <T> ResponseEntity<T> replayed(ResponseEntity<T> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    /**
+     * 保持している応答（処理中の場合は未完了）
+     */
+    private static final class Entry {
+
+        private final long createdAtMillis;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        Entry(long createdAtMillis) {
+            this.createdAtMillis = createdAtMillis;
+        }
+
+        boolean isExpired(long nowMillis, long ttlMillis) {
+            return response.isDone() && nowMillis - createdAtMillis > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.EmergencyCall;
+import com.firecaptain.entity.EmergencyReport;
+import com.firecaptain.entity.Unit;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.geo.MapTile;
+import com.firecaptain.repository.EmergencyCallRepository;
+import com.firecaptain.repository.EmergencyReportRepository;
+import com.firecaptain.repository.UnitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 地図タイル単位のクラスタ済みマーカー
+ *
+ * 対応中の緊急通報・通報と位置を持つユニットをマーカーとしてJVM内に保持し、
+ * 地図タイル（z/x/y）ごとに {@code grid-size} × {@code grid-size} の格子で
+ * まとめたクラスタを返します。1タイルのクラスタ数は格子の数を超えないため、
+ * 事案数にかかわらず応答の大きさは一定です。
+ *
+ * 作成したタイルはズームレベルごとにキャッシュされます。マーカーが追加・移動・
+ * 削除されると、移動前後の位置を含むタイルだけを各ズームレベルで無効化します。
+ * 無効化と並行して作成されたタイルは、無効化より前の状態を含む可能性があるため
+ * キャッシュしません。
+ *
+ * マーカーはエンティティの保存（{@link com.firecaptain.aspect.MapTileAspect}）
+ * によって更新され、取りこぼしに備えて定期的にデータベースと再同期されます。
+ * 再同期中に更新されたマーカーは、データベースの読み込み結果より新しいため
+ * 再同期の対象から除きます。ユニットの位置は、受信済みの位置
+ * （{@link #moveUnit(long, double, double, LocalDateTime)}）より古い
+ * データベースの位置では上書きしません（位置はまとめて遅れて書き込まれるため）。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class MapTileService {
+
+    private static final Set<EmergencyCall.CallStatus> ACTIVE_CALL_STATUSES = EnumSet.of(
+            EmergencyCall.CallStatus.PENDING, EmergencyCall.CallStatus.DISPATCHED,
+            EmergencyCall.CallStatus.EN_ROUTE, EmergencyCall.CallStatus.ON_SCENE);
+
+    private static final Set<EmergencyReport.ReportStatus> ACTIVE_REPORT_STATUSES = EnumSet.of(
+            EmergencyReport.ReportStatus.RECEIVED, EmergencyReport.ReportStatus.DISPATCHED,
+            EmergencyReport.ReportStatus.EN_ROUTE, EmergencyReport.ReportStatus.ON_SCENE);
+
+    private final EmergencyCallRepository emergencyCallRepository;
+    private final EmergencyReportRepository emergencyReportRepository;
+    private final UnitRepository unitRepository;
+    private final int maxZoom;
+    private final int gridSize;
+    private final int maxCachedTilesPerZoom;
+
+    /** 表示中のマーカー */
+    private final Map<MarkerKey, Marker> markers = new ConcurrentHashMap<>();
+
+    /** ズームレベルごとのタイルキャッシュ */
+    private final ZoomLevel[] zoomLevels;
+
+    /** 無効化の順序を表す論理時刻 */
+    private final AtomicLong clock = new AtomicLong();
+
+    /** ユニットごとの受信済みの最新位置 */
+    private final Map<Long, UnitFix> unitFixes = new ConcurrentHashMap<>();
+
+    /** 再同期の排他（再同期どうしの重複を防ぐ） */
+    private final Object rebuildLock = new Object();
+
+    /**
+     * 再同期中に更新されたマーカー
+     *
+     * 再同期中以外はnull。マーカーの更新と同じく、このインスタンスのモニターで保護します。
+     */
+    private Set<MarkerKey> updatedDuringRebuild;
+
+    public MapTileService(EmergencyCallRepository emergencyCallRepository,
+            EmergencyReportRepository emergencyReportRepository,
+            UnitRepository unitRepository,
+            @Value("${fire-captain.map-tiles.max-zoom:18}") int maxZoom,
+            @Value("${fire-captain.map-tiles.grid-size:8}") int gridSize,
+            @Value("${fire-captain.map-tiles.max-cached-tiles-per-zoom:4096}") int maxCachedTilesPerZoom) {
+        if (maxZoom < 0 || maxZoom > MapTile.MAX_ZOOM) {
+            throw new IllegalArgumentException("Max zoom must be between 0 and " + MapTile.MAX_ZOOM + ": " + maxZoom);
+        }
+        if (gridSize < 1) {
+            throw new IllegalArgumentException("Grid size must be positive: " + gridSize);
+        }
+        this.emergencyCallRepository = emergencyCallRepository;
+        this.emergencyReportRepository = emergencyReportRepository;
+        this.unitRepository = unitRepository;
+        this.maxZoom = maxZoom;
+        this.gridSize = gridSize;
+        this.maxCachedTilesPerZoom = maxCachedTilesPerZoom;
+        this.zoomLevels = new ZoomLevel[maxZoom + 1];
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            zoomLevels[zoom] = new ZoomLevel();
+        }
+    }
+
+    /**
+     * データベースからマーカーを再同期
+     *
+     * 起動完了時と5分ごとに実行されます。差分のあるマーカーを含むタイルのみ無効化します。
+     * データベースの読み込み中に更新されたマーカーは変更しません。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000) // 5分ごと
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                updatedDuringRebuild = new HashSet<>();
+            }
+            try {
+                Map<MarkerKey, Marker> fresh = new HashMap<>();
+                for (EmergencyCall call : emergencyCallRepository.findActiveCalls()) {
+                    addMarker(fresh, toMarker(call));
+                }
+                for (EmergencyReport report : emergencyReportRepository.findActiveReports(Pageable.unpaged())) {
+                    addMarker(fresh, toMarker(report));
+                }
+                for (Unit unit : unitRepository.findAll()) {
+                    addMarker(fresh, toMarker(unit));
+                }
+
+                synchronized (this) {
+                    for (Marker existing : new ArrayList<>(markers.values())) {
+                        if (!fresh.containsKey(existing.key()) && !updatedDuringRebuild.contains(existing.key())) {
+                            remove(existing.key());
+                        }
+                    }
+                    for (Marker marker : fresh.values()) {
+                        if (!updatedDuringRebuild.contains(marker.key())) {
+                            put(marker);
+                        }
+                    }
+                }
+                log.info("Map tile markers rebuilt: {} markers", markers.size());
+            } finally {
+                synchronized (this) {
+                    updatedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 緊急通報の最新状態を反映
+     *
+     * @param call 保存された緊急通報
+     */
+    public void refresh(EmergencyCall call) {
+        if (call != null && call.getId() != null) {
+            update(new MarkerKey(MarkerKind.CALL, call.getId()), toMarker(call));
+        }
+    }
+
+    /**
+     * 通報の最新状態を反映
+     *
+     * @param report 保存された通報
+     */
+    public void refresh(EmergencyReport report) {
+        if (report != null && report.getId() != null) {
+            update(new MarkerKey(MarkerKind.REPORT, report.getId()), toMarker(report));
+        }
+    }
+
+    /**
+     * ユニットの最新状態を反映
+     *
+     * @param unit 保存されたユニット
+     */
+    public void refresh(Unit unit) {
+        if (unit != null && unit.getId() != null) {
+            update(new MarkerKey(MarkerKind.UNIT, unit.getId()), toMarker(unit));
+        }
+    }
+
+    /**
+     * ユニットの位置を反映
+     *
+     * 状態の変わらない位置更新をエンティティなしで反映するために使用します。
+     * 以後、これより古い位置を持つユニットエンティティでは位置を上書きしません。
+     *
+     * @param unitId     ユニットID
+     * @param latitude   緯度
+     * @param longitude  経度
+     * @param recordedAt 測位時刻
+     */
+    public void moveUnit(long unitId, double latitude, double longitude, LocalDateTime recordedAt) {
+        MarkerKey key = new MarkerKey(MarkerKind.UNIT, unitId);
+        unitFixes.merge(unitId, new UnitFix(latitude, longitude, recordedAt),
+                (current, latest) -> latest.isOlderThan(current) ? current : latest);
+        update(key, GeoUtils.isValid(latitude, longitude) ? Marker.of(key, latitude, longitude) : null);
+    }
+
+    /**
+     * マーカーを削除
+     *
+     * @param kind 種類
+     * @param id   エンティティID
+     */
+    public void remove(MarkerKind kind, Long id) {
+        if (id != null) {
+            if (kind == MarkerKind.UNIT) {
+                unitFixes.remove(id);
+            }
+            update(new MarkerKey(kind, id), null);
+        }
+    }
+
+    /**
+     * 指定タイルのクラスタを取得
+     *
+     * @param zoom ズームレベル（0〜{@code max-zoom}）
+     * @param x    タイルの列
+     * @param y    タイルの行
+     * @return クラスタ済みのタイル
+     * @throws IllegalArgumentException タイル座標が範囲外の場合
+     */
+    public Tile getTile(int zoom, int x, int y) {
+        if (zoom > maxZoom) {
+            throw new IllegalArgumentException("Zoom must not exceed " + maxZoom + ": " + zoom);
+        }
+        MapTile tile = new MapTile(zoom, x, y);
+        ZoomLevel level = zoomLevels[zoom];
+        long key = tile.key();
+        CachedTile cached = level.tiles.get(key);
+        if (cached != null && cached.tile() != null) {
+            return cached.tile();
+        }
+
+        if (level.tiles.size() >= maxCachedTilesPerZoom) {
+            level.clear(clock.incrementAndGet());
+        }
+        long builtAt = clock.get();
+        Tile built = buildTile(tile, builtAt);
+        level.tiles.compute(key, (k, current) -> {
+            if (current == null) {
+                return builtAt >= level.clearedAt ? new CachedTile(built, builtAt) : null;
+            }
+            if (current.tile() == null && current.stamp() <= builtAt) {
+                return new CachedTile(built, builtAt);
+            }
+            return current;
+        });
+        return built;
+    }
+
+    /**
+     * 表示中のマーカー数
+     */
+    public int markerCount() {
+        return markers.size();
+    }
+
+    private Tile buildTile(MapTile tile, long version) {
+        int size = 1 << tile.zoom();
+        Map<Integer, ClusterBuilder> cells = new HashMap<>();
+        for (Marker marker : markers.values()) {
+            double tileX = marker.projectedX() * size - tile.x();
+            double tileY = marker.projectedY() * size - tile.y();
+            if (tileX < 0 || tileX >= 1 || tileY < 0 || tileY >= 1) {
+                continue;
+            }
+            int cell = (int) (tileY * gridSize) * gridSize + (int) (tileX * gridSize);
+            cells.computeIfAbsent(cell, c -> new ClusterBuilder()).add(marker);
+        }
+        List<Cluster> clusters = new ArrayList<>(cells.size());
+        cells.values().forEach(builder -> clusters.add(builder.build()));
+        return new Tile(tile.zoom(), tile.x(), tile.y(), version, clusters);
+    }
+
+    /**
+     * マーカーを更新（再同期中の場合は更新を記録）
+     */
+    private synchronized void update(MarkerKey key, Marker marker) {
+        if (updatedDuringRebuild != null) {
+            updatedDuringRebuild.add(key);
+        }
+        if (marker == null) {
+            remove(key);
+        } else {
+            put(marker);
+        }
+    }
+
+    private void put(Marker marker) {
+        Marker previous = markers.put(marker.key(), marker);
+        if (marker.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            invalidate(previous);
+        }
+        invalidate(marker);
+    }
+
+    private void remove(MarkerKey key) {
+        Marker removed = markers.remove(key);
+        if (removed != null) {
+            invalidate(removed);
+        }
+    }
+
+    /**
+     * マーカーの位置を含むタイルを全ズームレベルで無効化
+     */
+    private void invalidate(Marker marker) {
+        long stamp = clock.incrementAndGet();
+        CachedTile invalidated = new CachedTile(null, stamp);
+        for (int zoom = 0; zoom <= maxZoom; zoom++) {
+            long key = MapTile.key(MapTile.index(marker.projectedX(), zoom), MapTile.index(marker.projectedY(), zoom));
+            // 並行する無効化のうち新しい方を残す
+            zoomLevels[zoom].tiles.merge(key, invalidated,
+                    (current, latest) -> current.tile() == null && current.stamp() > latest.stamp() ? current : latest);
+        }
+    }
+
+    private static void addMarker(Map<MarkerKey, Marker> markers, Marker marker) {
+        if (marker != null) {
+            markers.put(marker.key(), marker);
+        }
+    }
+
+    private static Marker toMarker(EmergencyCall call) {
+        if (call.getId() == null || !ACTIVE_CALL_STATUSES.contains(call.getStatus())
+                || !GeoUtils.isValid(call.getLatitude(), call.getLongitude())) {
+            return null;
+        }
+        return Marker.of(new MarkerKey(MarkerKind.CALL, call.getId()), call.getLatitude(), call.getLongitude());
+    }
+
+    private static Marker toMarker(EmergencyReport report) {
+        if (report.getId() == null || !ACTIVE_REPORT_STATUSES.contains(report.getStatus())
+                || !GeoUtils.isValid(report.getLocationLatitude(), report.getLocationLongitude())) {
+            return null;
+        }
+        return Marker.of(new MarkerKey(MarkerKind.REPORT, report.getId()), report.getLocationLatitude(),
+                report.getLocationLongitude());
+    }
+
+    private Marker toMarker(Unit unit) {
+        if (unit.getId() == null) {
+            return null;
+        }
+        MarkerKey key = new MarkerKey(MarkerKind.UNIT, unit.getId());
+        // まとめて書き込まれる前の位置を受信済みの場合は、受信した位置を使う
+        UnitFix fix = unitFixes.get(unit.getId());
+        if (fix != null && (unit.getLastLocationUpdate() == null || fix.isNewerThan(unit.getLastLocationUpdate()))) {
+            return GeoUtils.isValid(fix.latitude(), fix.longitude())
+                    ? Marker.of(key, fix.latitude(), fix.longitude()) : null;
+        }
+        if (!GeoUtils.isValid(unit.getCurrentLatitude(), unit.getCurrentLongitude())) {
+            return null;
+        }
+        return Marker.of(key, unit.getCurrentLatitude(), unit.getCurrentLongitude());
+    }
+
+    /**
+     * マーカーの種類
+     */
+    public enum MarkerKind {
+        CALL, // 緊急通報
+        REPORT, // 通報
+        UNIT // ユニット
+    }
+
+    /**
+     * タイルのクラスタ
+     *
+     * 1件だけのクラスタには種類とIDを設定し、複数件の場合はnullになります。
+     *
+     * @param latitude  構成するマーカーの重心の緯度
+     * @param longitude 構成するマーカーの重心の経度
+     * @param count     マーカー数
+     * @param calls     緊急通報の数
+     * @param reports   通報の数
+     * @param units     ユニットの数
+     * @param kind      1件の場合の種類
+     * @param id        1件の場合のエンティティID
+     */
+    public record Cluster(double latitude, double longitude, int count, int calls, int reports, int units,
+            MarkerKind kind, Long id) {
+    }
+
+    /**
+     * クラスタ済みのタイル
+     *
+     * @param zoom     ズームレベル
+     * @param x        タイルの列
+     * @param y        タイルの行
+     * @param version  作成時点の論理時刻（ETagに使用）
+     * @param clusters クラスタ
+     */
+    public record Tile(int zoom, int x, int y, long version, List<Cluster> clusters) {
+    }
+
+    private record MarkerKey(MarkerKind kind, long id) {
+    }
+
+    /**
+     * 受信済みのユニットの位置
+     *
+     * @param latitude   緯度
+     * @param longitude  経度
+     * @param recordedAt 測位時刻（不明な場合はnull）
+     */
+    private record UnitFix(double latitude, double longitude, LocalDateTime recordedAt) {
+
+        boolean isNewerThan(LocalDateTime time) {
+            return recordedAt != null && recordedAt.isAfter(time);
+        }
+
+        boolean isOlderThan(UnitFix other) {
+            return recordedAt != null && other.recordedAt != null && recordedAt.isBefore(other.recordedAt);
+        }
+    }
+
+    /**
+     * 投影済みの位置を持つマーカー
+     */
+    private record Marker(MarkerKey key, double latitude, double longitude, double projectedX, double projectedY) {
+
+        static Marker of(MarkerKey key, double latitude, double longitude) {
+            return new Marker(key, latitude, longitude, MapTile.projectX(longitude), MapTile.projectY(latitude));
+        }
+    }
+
+    /**
+     * キャッシュの項目
+     *
+     * tile がnullの項目は、stamp の時点で無効化されたことを表します。
+     */
+    private record CachedTile(Tile tile, long stamp) {
+    }
+
+    private static final class ZoomLevel {
+
+        final Map<Long, CachedTile> tiles = new ConcurrentHashMap<>();
+
+        /** 最後にキャッシュを空にした論理時刻（それ以前に作成したタイルは格納しない） */
+        volatile long clearedAt;
+
+        void clear(long stamp) {
+            clearedAt = stamp;
+            tiles.clear();
+        }
+    }
+
+    private static final class ClusterBuilder {
+
+        private double latitudeSum;
+        private double longitudeSum;
+        private int calls;
+        private int reports;
+        private int units;
+        private Marker first;
+
+        void add(Marker marker) {
+            if (first == null) {
+                first = marker;
+            }
+            latitudeSum += marker.latitude();
+            longitudeSum += marker.longitude();
+            switch (marker.key().kind()) {
+                case CALL -> calls++;
+                case REPORT -> reports++;
+                case UNIT -> units++;
+            }
+        }
+
+        Cluster build() {
+            int count = calls + reports + units;
+            if (count == 1) {
+                return new Cluster(first.latitude(), first.longitude(), 1, calls, reports, units,
+                        first.key().kind(), first.key().id());
+            }
+            return new Cluster(latitudeSum / count, longitudeSum / count, count, calls, reports, units, null, null);
+        }
+    }
+}
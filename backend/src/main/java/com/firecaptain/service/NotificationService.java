@@ -1,6 +1,8 @@
 package com.firecaptain.service;
 
+import com.firecaptain.entity.Dispatch;
 import com.firecaptain.entity.EmergencyCall;
+import com.firecaptain.entity.EmergencyReport;
 import com.firecaptain.entity.FireStation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +28,7 @@ import java.util.concurrent.CompletableFuture;
 public class NotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final DispatchSloMetrics dispatchSloMetrics;
 
     /**
      * 緊急通報の非同期通知送信
@@ -93,6 +96,24 @@ public class NotificationService {
         }
     }
 
+    /**
+     * 出動指令通知の送信
+     * 
+     * 出動指令の作成と部隊割り当てが完了した際に通知を送信します。
+     * 
+     * @param dispatch 出動指令
+     */
+    public void sendDispatchNotification(Dispatch dispatch) {
+        try {
+            messagingTemplate.convertAndSend("/topic/dispatches", createDispatchUpdate(dispatch));
+            dispatchSloMetrics.record(DispatchSloMetrics.Stage.NOTIFIED, dispatch);
+
+            log.info("Dispatch notification sent for dispatch: {}", dispatch.getDispatchNumber());
+        } catch (Exception e) {
+            log.error("Error sending dispatch notification", e);
+        }
+    }
+
     /**
      * システムアラートの送信
      * 
@@ -116,7 +137,7 @@ public class NotificationService {
      * @param emergencyCall 緊急通報情報
      * @return ダッシュボード更新オブジェクト
      */
-    private Object createDashboardUpdate(EmergencyCall emergencyCall) {
+    Object createDashboardUpdate(EmergencyCall emergencyCall) {
         return new DashboardUpdate(
                 emergencyCall.getId(),
                 emergencyCall.getCallNumber(),
@@ -131,7 +152,7 @@ public class NotificationService {
      * @param emergencyCall 緊急通報情報
      * @return ステータス更新オブジェクト
      */
-    private Object createStatusUpdate(EmergencyCall emergencyCall) {
+    Object createStatusUpdate(EmergencyCall emergencyCall) {
         return new StatusUpdate(
                 emergencyCall.getId(),
                 emergencyCall.getStatus(),
@@ -140,6 +161,22 @@ public class NotificationService {
                 emergencyCall.getClearedAt());
     }
 
+    /**
+     * 出動指令更新情報の作成
+     * 
+     * @param dispatch 出動指令
+     * @return 出動指令更新オブジェクト
+     */
+    Object createDispatchUpdate(Dispatch dispatch) {
+        return new DispatchUpdate(
+                dispatch.getId(),
+                dispatch.getDispatchNumber(),
+                dispatch.getDispatchType(),
+                dispatch.getPriorityLevel(),
+                dispatch.getStatus(),
+                dispatch.getEstimatedArrivalTime());
+    }
+
     /**
      * システムアラート情報の作成
      * 
@@ -147,7 +184,7 @@ public class NotificationService {
      * @param alertType アラートの種類
      * @return システムアラートオブジェクト
      */
-    private Object createSystemAlert(String message, String alertType) {
+    Object createSystemAlert(String message, String alertType) {
         return new SystemAlert(message, alertType, System.currentTimeMillis());
     }
 
@@ -233,6 +270,51 @@ public class NotificationService {
         }
     }
 
+    public static class DispatchUpdate {
+        private Long dispatchId;
+        private String dispatchNumber;
+        private Dispatch.DispatchType dispatchType;
+        private EmergencyReport.PriorityLevel priorityLevel;
+        private Dispatch.DispatchStatus status;
+        private java.time.LocalDateTime estimatedArrivalTime;
+
+        public DispatchUpdate(Long dispatchId, String dispatchNumber, Dispatch.DispatchType dispatchType,
+                EmergencyReport.PriorityLevel priorityLevel, Dispatch.DispatchStatus status,
+                java.time.LocalDateTime estimatedArrivalTime) {
+            this.dispatchId = dispatchId;
+            this.dispatchNumber = dispatchNumber;
+            this.dispatchType = dispatchType;
+            this.priorityLevel = priorityLevel;
+            this.status = status;
+            this.estimatedArrivalTime = estimatedArrivalTime;
+        }
+
+        // Getters
+        public Long getDispatchId() {
+            return dispatchId;
+        }
+
+        public String getDispatchNumber() {
+            return dispatchNumber;
+        }
+
+        public Dispatch.DispatchType getDispatchType() {
+            return dispatchType;
+        }
+
+        public EmergencyReport.PriorityLevel getPriorityLevel() {
+            return priorityLevel;
+        }
+
+        public Dispatch.DispatchStatus getStatus() {
+            return status;
+        }
+
+        public java.time.LocalDateTime getEstimatedArrivalTime() {
+            return estimatedArrivalTime;
+        }
+    }
+
     public static class SystemAlert {
         private String message;
         private String alertType;
@@ -0,0 +1,111 @@
+package com.firecaptain.service;
+
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.geo.SpatialCellId;
+import com.firecaptain.repository.EmergencyCallRepository;
+import com.firecaptain.repository.EmergencyReportRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 空間セルIDのバックフィル
+ *
+ * 空間セルIDの列を追加する前に登録された通報に、位置から計算した
+ * セルIDを少しずつ設定します。1回の実行で通報・緊急通報それぞれ
+ * 最大 {@code batch-size} 件をID順に更新します。位置が不正で設定できない行を
+ * 繰り返し読まないよう、処理済みのIDを覚えて続きから読み込みます。
+ * 更新はJPQLの一括更新で行うため、更新日時は変更されません。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+@Transactional
+public class SpatialCellBackfillService {
+
+    private final EmergencyReportRepository emergencyReportRepository;
+    private final EmergencyCallRepository emergencyCallRepository;
+    private final boolean enabled;
+    private final int batchSize;
+
+    /** 処理済みの最大ID（再起動後は先頭から） */
+    private long lastReportId;
+    private long lastCallId;
+
+    public SpatialCellBackfillService(EmergencyReportRepository emergencyReportRepository,
+            EmergencyCallRepository emergencyCallRepository,
+            @Value("${fire-captain.spatial-cells.backfill.enabled:true}") boolean enabled,
+            @Value("${fire-captain.spatial-cells.backfill.batch-size:500}") int batchSize) {
+        this.emergencyReportRepository = emergencyReportRepository;
+        this.emergencyCallRepository = emergencyCallRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 空間セルIDが未設定の通報を1バッチ分更新
+     */
+    @Scheduled(fixedDelayString = "${fire-captain.spatial-cells.backfill.interval-ms:60000}",
+            initialDelayString = "${fire-captain.spatial-cells.backfill.interval-ms:60000}")
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        int reports = backfillReports();
+        int calls = backfillCalls();
+        if (reports > 0 || calls > 0) {
+            log.info("Backfilled spatial cells: {} emergency reports, {} emergency calls", reports, calls);
+        }
+    }
+
+    private int backfillReports() {
+        List<Object[]> rows = emergencyReportRepository.findLocationsWithoutSpatialCell(lastReportId,
+                PageRequest.of(0, batchSize));
+        int updated = 0;
+        for (Object[] row : rows) {
+            lastReportId = (Long) row[0];
+            long[] cells = cells((Double) row[1], (Double) row[2]);
+            if (cells != null) {
+                updated += emergencyReportRepository.updateSpatialCells((Long) row[0], cells[0], cells[1], cells[2]);
+            }
+        }
+        return updated;
+    }
+
+    private int backfillCalls() {
+        List<Object[]> rows = emergencyCallRepository.findLocationsWithoutSpatialCell(lastCallId,
+                PageRequest.of(0, batchSize));
+        int updated = 0;
+        for (Object[] row : rows) {
+            lastCallId = (Long) row[0];
+            long[] cells = cells((Double) row[1], (Double) row[2]);
+            if (cells != null) {
+                updated += emergencyCallRepository.updateSpatialCells((Long) row[0], cells[0], cells[1], cells[2]);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * 位置から各レベルのセルIDを計算（位置が不正な場合はnull）
+     *
+     * @return {最も細かいレベル, 街区レベル, 地区レベル}
+     */
+    private static long[] cells(Double latitude, Double longitude) {
+        if (!GeoUtils.isValid(latitude, longitude)) {
+            return null;
+        }
+        return new long[] {
+                SpatialCellId.encode(latitude, longitude, SpatialCellId.MAX_LEVEL),
+                SpatialCellId.encode(latitude, longitude, SpatialCellId.BLOCK_LEVEL),
+                SpatialCellId.encode(latitude, longitude, SpatialCellId.DISTRICT_LEVEL)
+        };
+    }
+}
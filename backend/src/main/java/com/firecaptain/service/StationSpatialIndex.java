@@ -0,0 +1,300 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.FireStation;
+import com.firecaptain.geo.GeoPoint;
+import com.firecaptain.geo.GeoPolygon;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.geo.PackedKdTree;
+import com.firecaptain.geo.PackedRTree;
+import com.firecaptain.geo.SpatialGrid;
+import com.firecaptain.repository.FireStationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 消防署のインメモリ空間インデックス
+ *
+ * 運用中の消防署を不変の {@link PackedKdTree} として、管轄区域
+ * （{@link FireStation#getJurisdictionArea()} のGeoJSONまたはWKT）を
+ * 不変の {@link PackedRTree} として保持し、通報地点を管轄する消防署を
+ * データベースに問い合わせずに検索します。消防署の変更はまれなため、
+ * 変更のたびに木を作り直して参照ごと差し替えます。検索側は
+ * 差し替え前後どちらかの木をロックなしで参照します。
+ *
+ * インデックスは消防署の保存（{@link com.firecaptain.aspect.FireStationIndexAspect}）
+ * によって更新され、取りこぼしに備えて定期的にデータベースと再同期されます。
+ * データベースに接続できない間も、最後に構築した木で検索を続けます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StationSpatialIndex {
+
+    private final FireStationRepository fireStationRepository;
+
+    /** 現在の木（差し替えのみ、内容は変更しない） */
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /** 初回の構築が完了したかどうか */
+    private volatile boolean loaded;
+
+    /** 再構築の排他（再構築どうしの重複を防ぐ） */
+    private final Object rebuildLock = new Object();
+
+    /**
+     * 再構築中に反映された変更（消防署ID → 登録内容、除外の場合はnull）
+     *
+     * 再構築中以外はnull。このインスタンスのモニターで保護します。
+     */
+    private Map<Long, IndexedStation> changesDuringRebuild;
+
+    /**
+     * データベースからインデックスを再構築
+     *
+     * 起動完了時と10分ごとに実行されます。データベースの読み込み中は
+     * ロックを保持しないため、並行する {@link #refresh(FireStation)} などは
+     * 待たされません。読み込み中に反映された変更は、読み込み結果より新しいものとして
+     * 差し替え前に適用します。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000) // 10分ごと
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changesDuringRebuild = new HashMap<>();
+            }
+            try {
+                Map<Long, IndexedStation> stations = new LinkedHashMap<>();
+                for (FireStation station : fireStationRepository.findByIsActiveTrue()) {
+                    IndexedStation entry = IndexedStation.of(station);
+                    if (entry != null) {
+                        stations.put(entry.id(), entry);
+                    }
+                }
+                synchronized (this) {
+                    changesDuringRebuild.forEach((stationId, entry) -> {
+                        if (entry != null) {
+                            stations.put(stationId, entry);
+                        } else {
+                            stations.remove(stationId);
+                        }
+                    });
+                    swap(new ArrayList<>(stations.values()));
+                }
+                loaded = true;
+                log.info("Station spatial index rebuilt: {} active stations, {} jurisdictions",
+                        snapshot.stations().size(), snapshot.jurisdictions().size());
+            } catch (RuntimeException e) {
+                // 既存の木で検索を継続する
+                log.error("Failed to rebuild station spatial index, keeping {} stations",
+                        snapshot.stations().size(), e);
+            } finally {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 消防署の最新状態をインデックスに反映
+     *
+     * 運用中で位置を持つ場合は登録（または置き換え）し、それ以外の場合は除外します。
+     *
+     * @param station 保存された消防署
+     */
+    public synchronized void refresh(FireStation station) {
+        if (station == null || station.getId() == null) {
+            return;
+        }
+        List<IndexedStation> stations = withoutStation(station.getId());
+        IndexedStation entry = Boolean.TRUE.equals(station.getIsActive()) ? IndexedStation.of(station) : null;
+        if (entry != null) {
+            stations.add(entry);
+        }
+        swap(stations);
+        recordChange(station.getId(), entry);
+    }
+
+    /**
+     * 消防署をインデックスから除外
+     *
+     * @param stationId 消防署ID
+     */
+    public synchronized void remove(Long stationId) {
+        if (stationId == null) {
+            return;
+        }
+        swap(withoutStation(stationId));
+        recordChange(stationId, null);
+    }
+
+    /**
+     * 指定地点を担当する運用中の消防署を検索
+     *
+     * 地点を管轄区域に含む消防署を返します（管轄区域が重なる場合は最も近い消防署）。
+     * どの管轄区域にも含まれない場合や、管轄区域が未設定の場合は
+     * 検索半径内の最寄りの消防署を返します。
+     *
+     * @param latitude    通報地点の緯度
+     * @param longitude   通報地点の経度
+     * @param maxRadiusKm 最寄りの消防署を探す検索半径（km）
+     * @return 担当する消防署（該当しない場合は空）
+     */
+    public Optional<FireStation> findResponsible(double latitude, double longitude, double maxRadiusKm) {
+        Snapshot current = snapshot;
+        IndexedStation responsible = null;
+        double responsibleDistance = Double.POSITIVE_INFINITY;
+        for (IndexedStation candidate : current.jurisdictions().search(latitude, longitude)) {
+            if (!candidate.jurisdiction().contains(latitude, longitude)) {
+                continue;
+            }
+            double distance = GeoUtils.distanceKm(latitude, longitude, candidate.latitude(), candidate.longitude());
+            if (distance < responsibleDistance) {
+                responsible = candidate;
+                responsibleDistance = distance;
+            }
+        }
+        if (responsible != null) {
+            return Optional.of(responsible.station());
+        }
+        return findNearest(current, latitude, longitude, maxRadiusKm);
+    }
+
+    /**
+     * 指定地点の最寄りの運用中の消防署を検索
+     *
+     * @param latitude    通報地点の緯度
+     * @param longitude   通報地点の経度
+     * @param maxRadiusKm 検索半径（km）
+     * @return 最寄りの消防署（半径内にない場合は空）
+     */
+    public Optional<FireStation> findNearest(double latitude, double longitude, double maxRadiusKm) {
+        return findNearest(snapshot, latitude, longitude, maxRadiusKm);
+    }
+
+    private static Optional<FireStation> findNearest(Snapshot current, double latitude, double longitude,
+            double maxRadiusKm) {
+        List<SpatialGrid.Neighbor<IndexedStation>> nearest = current.stations().nearest(latitude, longitude, 1,
+                maxRadiusKm, station -> true);
+        return nearest.isEmpty() ? Optional.empty() : Optional.of(nearest.get(0).item().station());
+    }
+
+    /**
+     * インデックスが構築済みかどうか
+     *
+     * @return 初回の構築が完了している場合はtrue
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 指定した消防署を除いた現在の登録内容
+     */
+    private List<IndexedStation> withoutStation(long stationId) {
+        List<IndexedStation> stations = new ArrayList<>(snapshot.stations().size() + 1);
+        for (IndexedStation existing : snapshot.stations().values()) {
+            if (existing.id() != stationId) {
+                stations.add(existing);
+            }
+        }
+        return stations;
+    }
+
+    /**
+     * 再構築中の場合、変更を記録
+     */
+    private void recordChange(Long stationId, IndexedStation entry) {
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.put(stationId, entry);
+        }
+    }
+
+    private synchronized void swap(List<IndexedStation> stations) {
+        List<PackedRTree.Entry<IndexedStation>> jurisdictions = new ArrayList<>();
+        for (IndexedStation station : stations) {
+            GeoPolygon area = station.jurisdiction();
+            if (area != null) {
+                jurisdictions.add(new PackedRTree.Entry<>(station, area.minLatitude(), area.maxLatitude(),
+                        area.minLongitude(), area.maxLongitude()));
+            }
+        }
+        snapshot = new Snapshot(PackedKdTree.build(stations), PackedRTree.build(jurisdictions));
+    }
+
+    /**
+     * ある時点の消防署と管轄区域の木
+     *
+     * @param stations      消防署の位置
+     * @param jurisdictions 管轄区域の外接矩形
+     */
+    private record Snapshot(PackedKdTree<IndexedStation> stations, PackedRTree<IndexedStation> jurisdictions) {
+
+        static final Snapshot EMPTY = new Snapshot(PackedKdTree.empty(), PackedRTree.build(List.of()));
+    }
+
+    /**
+     * インデックスに登録された消防署
+     *
+     * 割り当てと通知に使うため、読み込み時点の消防署エンティティを保持します。
+     * 関連コレクションは読み込まれていないため参照しないでください。
+     *
+     * @param station      消防署
+     * @param latitude     緯度
+     * @param longitude    経度
+     * @param jurisdiction 管轄区域（未設定または解析できない場合はnull）
+     */
+    record IndexedStation(FireStation station, double latitude, double longitude, GeoPolygon jurisdiction)
+            implements GeoPoint {
+
+        @Override
+        public long id() {
+            return station.getId();
+        }
+
+        /**
+         * 消防署エンティティから作成
+         *
+         * @param station 消防署
+         * @return 登録内容（IDまたは位置が不明な場合はnull）
+         */
+        static IndexedStation of(FireStation station) {
+            if (station.getId() == null || station.getLatitude() == null || station.getLongitude() == null) {
+                return null;
+            }
+            return new IndexedStation(station, station.getLatitude(), station.getLongitude(),
+                    parseJurisdiction(station));
+        }
+
+        private static GeoPolygon parseJurisdiction(FireStation station) {
+            String area = station.getJurisdictionArea();
+            if (area == null || area.isBlank()) {
+                return null;
+            }
+            try {
+                return GeoPolygon.parse(area);
+            } catch (RuntimeException e) {
+                log.warn("Ignoring unparseable jurisdiction area of station {}: {}",
+                        station.getStationCode(), e.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.FireStation;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.geo.RoadGraph;
+import com.firecaptain.repository.FireStationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 走行時間推定サービス
+ *
+ * 起動時にローカルの道路ネットワークファイルを読み込み、各消防署から
+ * 管轄グリッドの各セルまでの最短走行時間を事前計算します（消防署×セルの
+ * 時間行列）。到着予想時間の計算はセル番号による配列参照のみで完了します。
+ *
+ * 道路ネットワークが設定されていない場合や、出動中で消防署から離れた
+ * ユニットについては、直線距離・迂回係数・平均速度による推定値を返します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class TravelTimeService {
+
+    /** 消防署にいるとみなす距離（km） */
+    private static final double AT_STATION_RADIUS_KM = 0.5;
+
+    /** 道路ノードへの接続を許容する距離（km） */
+    private static final double MAX_SNAP_DISTANCE_KM = 1.0;
+
+    /** 道路ノードまでの徒歩・構内移動の速度（km/h） */
+    private static final double ACCESS_SPEED_KMH = 20.0;
+
+    private final FireStationRepository fireStationRepository;
+    private final String graphFile;
+    private final double cellSizeDegrees;
+    private final double fallbackSpeedKmh;
+    private final double detourFactor;
+
+    /** 事前計算済みの時間行列（ロード完了後に差し替え） */
+    private volatile TravelTimeMatrix matrix;
+
+    public TravelTimeService(FireStationRepository fireStationRepository,
+            @Value("${fire-captain.routing.graph-file:}") String graphFile,
+            @Value("${fire-captain.routing.cell-size-degrees:0.005}") double cellSizeDegrees,
+            @Value("${fire-captain.routing.fallback-speed-kmh:40}") double fallbackSpeedKmh,
+            @Value("${fire-captain.routing.detour-factor:1.3}") double detourFactor) {
+        this.fireStationRepository = fireStationRepository;
+        this.graphFile = graphFile;
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.fallbackSpeedKmh = fallbackSpeedKmh;
+        this.detourFactor = detourFactor;
+    }
+
+    /**
+     * 道路ネットワークを読み込み、時間行列を構築
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRoadNetwork() {
+        if (graphFile == null || graphFile.isBlank()) {
+            log.info("No road graph configured, travel times use straight-line estimates");
+            return;
+        }
+
+        Path path = Path.of(graphFile);
+        if (!Files.isReadable(path)) {
+            log.warn("Road graph file not readable: {}, travel times use straight-line estimates", path);
+            return;
+        }
+
+        try {
+            long startTime = System.currentTimeMillis();
+            RoadGraph graph = RoadGraph.load(path);
+            List<FireStation> stations = fireStationRepository.findByIsActiveTrue();
+            matrix = TravelTimeMatrix.build(graph, stations, cellSizeDegrees);
+            log.info("Road graph loaded: {} nodes, {} edges, {} stations x {} cells in {}ms",
+                    graph.nodeCount(), graph.edgeCount(), matrix.stationCount(), matrix.cellCount(),
+                    System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Failed to load road graph: {}", path, e);
+        }
+    }
+
+    /**
+     * ユニットから事案地点までの走行時間を推定
+     *
+     * @param unit         出動可能ユニット
+     * @param destLatitude 事案地点の緯度
+     * @param destLongitude 事案地点の経度
+     * @return 推定走行時間（秒、推定できない場合は {@link Double#NaN}）
+     */
+    public double estimateSeconds(UnitAvailabilityIndex.AvailableUnit unit, double destLatitude,
+            double destLongitude) {
+        TravelTimeMatrix current = matrix;
+        if (current != null) {
+            double[] station = current.stationLocation(unit.stationId());
+            boolean atStation = station != null && (!unit.hasLocation()
+                    || GeoUtils.distanceKm(unit.latitude(), unit.longitude(), station[0], station[1])
+                            <= AT_STATION_RADIUS_KM);
+            if (atStation) {
+                double seconds = current.lookup(unit.stationId(), destLatitude, destLongitude);
+                if (!Double.isNaN(seconds)) {
+                    return seconds;
+                }
+            }
+        }
+
+        if (unit.hasLocation()) {
+            return estimateStraightLineSeconds(unit.latitude(), unit.longitude(), destLatitude, destLongitude);
+        }
+        if (current != null) {
+            double[] station = current.stationLocation(unit.stationId());
+            if (station != null) {
+                return estimateStraightLineSeconds(station[0], station[1], destLatitude, destLongitude);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * 直線距離による走行時間を推定
+     *
+     * @return 推定走行時間（秒）
+     */
+    public double estimateStraightLineSeconds(double fromLatitude, double fromLongitude, double toLatitude,
+            double toLongitude) {
+        double distanceKm = GeoUtils.distanceKm(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        return distanceKm * detourFactor / fallbackSpeedKmh * 3600.0;
+    }
+
+    /**
+     * 道路ネットワークが読み込まれているかどうか
+     */
+    public boolean isRoadNetworkLoaded() {
+        return matrix != null;
+    }
+
+    /**
+     * 消防署×グリッドセルの走行時間行列
+     */
+    private static final class TravelTimeMatrix {
+
+        private final double minLatitude;
+        private final double minLongitude;
+        private final double cellSizeDegrees;
+        private final int columns;
+        private final int rows;
+        private final Map<Long, Integer> rowByStation;
+        private final Map<Long, double[]> stationLocations;
+        private final float[][] secondsByStation;
+
+        private TravelTimeMatrix(double minLatitude, double minLongitude, double cellSizeDegrees, int columns,
+                int rows, Map<Long, Integer> rowByStation, Map<Long, double[]> stationLocations,
+                float[][] secondsByStation) {
+            this.minLatitude = minLatitude;
+            this.minLongitude = minLongitude;
+            this.cellSizeDegrees = cellSizeDegrees;
+            this.columns = columns;
+            this.rows = rows;
+            this.rowByStation = rowByStation;
+            this.stationLocations = stationLocations;
+            this.secondsByStation = secondsByStation;
+        }
+
+        /**
+         * 各消防署からダイクストラ法で全ノードへの走行時間を求め、
+         * 各セル中心に最も近いノードの値を行列に格納します。
+         */
+        static TravelTimeMatrix build(RoadGraph graph, List<FireStation> stations, double cellSizeDegrees) {
+            double minLatitude = Double.POSITIVE_INFINITY;
+            double maxLatitude = Double.NEGATIVE_INFINITY;
+            double minLongitude = Double.POSITIVE_INFINITY;
+            double maxLongitude = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < graph.nodeCount(); i++) {
+                minLatitude = Math.min(minLatitude, graph.latitude(i));
+                maxLatitude = Math.max(maxLatitude, graph.latitude(i));
+                minLongitude = Math.min(minLongitude, graph.longitude(i));
+                maxLongitude = Math.max(maxLongitude, graph.longitude(i));
+            }
+            int columns = (int) Math.ceil((maxLongitude - minLongitude) / cellSizeDegrees) + 1;
+            int rows = (int) Math.ceil((maxLatitude - minLatitude) / cellSizeDegrees) + 1;
+
+            // セル中心に最も近いノードと、そこまでの接続時間を求める
+            int cellCount = columns * rows;
+            int[] cellNodes = new int[cellCount];
+            float[] cellAccessSeconds = new float[cellCount];
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    int cell = row * columns + column;
+                    double latitude = minLatitude + (row + 0.5) * cellSizeDegrees;
+                    double longitude = minLongitude + (column + 0.5) * cellSizeDegrees;
+                    int node = graph.nearestNode(latitude, longitude, MAX_SNAP_DISTANCE_KM);
+                    cellNodes[cell] = node;
+                    cellAccessSeconds[cell] = node < 0 ? 0f
+                            : accessSeconds(latitude, longitude, graph.latitude(node), graph.longitude(node));
+                }
+            }
+
+            Map<Long, Integer> rowByStation = new HashMap<>();
+            Map<Long, double[]> stationLocations = new HashMap<>();
+            List<float[]> matrixRows = new ArrayList<>();
+            for (FireStation station : stations) {
+                if (station.getId() == null || !GeoUtils.isValid(station.getLatitude(), station.getLongitude())) {
+                    continue;
+                }
+                int source = graph.nearestNode(station.getLatitude(), station.getLongitude(), MAX_SNAP_DISTANCE_KM);
+                if (source < 0) {
+                    log.warn("Fire station {} is not near the road graph", station.getStationCode());
+                    continue;
+                }
+                float stationAccess = accessSeconds(station.getLatitude(), station.getLongitude(),
+                        graph.latitude(source), graph.longitude(source));
+                float[] nodeSeconds = graph.shortestTimesFrom(source);
+
+                float[] cellSeconds = new float[cellCount];
+                for (int cell = 0; cell < cellCount; cell++) {
+                    int node = cellNodes[cell];
+                    cellSeconds[cell] = node < 0 ? Float.NaN
+                            : stationAccess + nodeSeconds[node] + cellAccessSeconds[cell];
+                }
+
+                rowByStation.put(station.getId(), matrixRows.size());
+                stationLocations.put(station.getId(), new double[] { station.getLatitude(), station.getLongitude() });
+                matrixRows.add(cellSeconds);
+            }
+
+            return new TravelTimeMatrix(minLatitude, minLongitude, cellSizeDegrees, columns, rows, rowByStation,
+                    stationLocations, matrixRows.toArray(new float[0][]));
+        }
+
+        /**
+         * 走行時間を参照
+         *
+         * @return 走行時間（秒、範囲外・到達不能の場合は {@link Double#NaN}）
+         */
+        double lookup(long stationId, double latitude, double longitude) {
+            Integer row = rowByStation.get(stationId);
+            if (row == null) {
+                return Double.NaN;
+            }
+            int cellRow = (int) Math.floor((latitude - minLatitude) / cellSizeDegrees);
+            int cellColumn = (int) Math.floor((longitude - minLongitude) / cellSizeDegrees);
+            if (cellRow < 0 || cellRow >= rows || cellColumn < 0 || cellColumn >= columns) {
+                return Double.NaN;
+            }
+            float seconds = secondsByStation[row][cellRow * columns + cellColumn];
+            return Float.isInfinite(seconds) ? Double.NaN : seconds;
+        }
+
+        double[] stationLocation(long stationId) {
+            return stationLocations.get(stationId);
+        }
+
+        int stationCount() {
+            return secondsByStation.length;
+        }
+
+        int cellCount() {
+            return columns * rows;
+        }
+
+        private static float accessSeconds(double fromLatitude, double fromLongitude, double toLatitude,
+                double toLongitude) {
+            return (float) (GeoUtils.distanceKm(fromLatitude, fromLongitude, toLatitude, toLongitude)
+                    / ACCESS_SPEED_KMH * 3600.0);
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.Unit;
+import com.firecaptain.geo.GeoPoint;
+import com.firecaptain.geo.SpatialGrid;
+import com.firecaptain.repository.UnitRepository;
+import com.firecaptain.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 出動可能ユニットのインメモリインデックス
+ *
+ * 待機中（AVAILABLE）のユニットをユニットタイプ別の空間グリッドとして
+ * JVM内で保持します。部隊割り当てのたびに units テーブルを全件走査する
+ * 代わりに、このインデックスから事案地点に近い候補ユニットを取得します。
+ *
+ * インデックスはユニットの保存（{@link com.firecaptain.aspect.UnitAvailabilityAspect}）
+ * によって更新され、取りこぼしに備えて定期的にデータベースと再同期されます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnitAvailabilityIndex {
+
+    /** グリッドのセルサイズ（度、約1km） */
+    private static final double CELL_SIZE_DEGREES = 0.01;
+
+    private final UnitRepository unitRepository;
+
+    /** ユニットタイプ別の待機中ユニット */
+    private final Map<Unit.UnitType, SpatialGrid<AvailableUnit>> unitsByType = createEmptyIndex();
+
+    /** インデックス変更の通知先 */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /** ユニットごとの受信済みの最新位置 */
+    private final Map<Long, UnitFix> unitFixes = new ConcurrentHashMap<>();
+
+    /** 確保後、トランザクションの完了を待っているユニット */
+    private final Set<Long> reservationsInFlight = ConcurrentHashMap.newKeySet();
+
+    /** 再構築の排他（再構築どうしの重複を防ぐ） */
+    private final Object rebuildLock = new Object();
+
+    /**
+     * 変更の反映と再構築結果の適用の排他
+     *
+     * 変更どうしは読み取りロックで並行して反映し、再構築結果の適用のみ
+     * 書き込みロックで排他します。
+     */
+    private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+
+    /** 再構築中に変更されたユニットのID（再構築中以外はnull） */
+    private volatile Set<Long> changedDuringRebuild;
+
+    /**
+     * データベースからインデックスを再構築
+     *
+     * 起動完了時と5分ごとに実行され、インデックス外で行われた
+     * ステータス変更（直接のSQL更新など）を取り込みます。
+     * データベースの読み込み中に変更されたユニットと、確保したトランザクションが
+     * 完了していないユニットは、読み込み結果で上書きしません。位置は
+     * データベースへの書き込みが遅れるため、受信済みの位置のほうが新しい場合はそちらを使います。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000) // 5分ごと
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            changeLock.writeLock().lock();
+            try {
+                changedDuringRebuild = ConcurrentHashMap.newKeySet();
+            } finally {
+                changeLock.writeLock().unlock();
+            }
+            try {
+                Map<Unit.UnitType, Map<Long, AvailableUnit>> fresh = new EnumMap<>(Unit.UnitType.class);
+                for (Unit.UnitType type : Unit.UnitType.values()) {
+                    fresh.put(type, new HashMap<>());
+                }
+
+                List<Unit> availableUnits = unitRepository.findByStatus(Unit.UnitStatus.AVAILABLE);
+                for (Unit unit : availableUnits) {
+                    AvailableUnit entry = snapshotOf(unit);
+                    if (entry != null) {
+                        fresh.get(unit.getUnitType()).put(entry.id(), entry);
+                    }
+                }
+
+                changeLock.writeLock().lock();
+                try {
+                    apply(fresh, changedDuringRebuild);
+                } finally {
+                    changeLock.writeLock().unlock();
+                }
+                log.info("Unit availability index rebuilt: {} available units", availableUnits.size());
+            } finally {
+                changedDuringRebuild = null;
+            }
+        }
+        listeners.forEach(Listener::indexRebuilt);
+    }
+
+    /**
+     * 再構築の読み込み結果を適用
+     */
+    private void apply(Map<Unit.UnitType, Map<Long, AvailableUnit>> fresh, Set<Long> changed) {
+        for (Unit.UnitType type : Unit.UnitType.values()) {
+            SpatialGrid<AvailableUnit> current = unitsByType.get(type);
+            Map<Long, AvailableUnit> latest = fresh.get(type);
+            for (AvailableUnit existing : new ArrayList<>(current.values())) {
+                if (!latest.containsKey(existing.id()) && !isChanged(existing.id(), changed)) {
+                    unregister(type, existing.id());
+                }
+            }
+            for (AvailableUnit entry : latest.values()) {
+                if (!isChanged(entry.id(), changed)) {
+                    register(type, entry);
+                }
+            }
+        }
+    }
+
+    private boolean isChanged(long unitId, Set<Long> changed) {
+        return changed.contains(unitId) || reservationsInFlight.contains(unitId);
+    }
+
+    /**
+     * インデックスの変更を止めた状態で処理を実行
+     *
+     * 処理中は登録・除外・確保とその通知が行われないため、処理内で取得した
+     * ユニットの一覧と、処理後に届く変更通知が重複も欠落もしません。
+     * 変更を待たせるため、処理は短時間で完了する必要があります。
+     * 変更通知の中から呼び出すことはできません。
+     *
+     * @param action 実行する処理
+     */
+    public void runExclusively(Runnable action) {
+        changeLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * インデックス変更の通知先を登録
+     *
+     * @param listener 通知先
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * ユニットの最新状態をインデックスに反映
+     *
+     * 待機中の場合は登録（位置・乗員数・メンテナンス状況を更新）し、
+     * それ以外の場合はインデックスから除外します。
+     *
+     * @param unit 保存されたユニット
+     */
+    public void refresh(Unit unit) {
+        if (unit == null || unit.getId() == null) {
+            return;
+        }
+        change(unit.getId(), () -> {
+            // ユニットタイプが変更された場合に備えて全タイプから除外
+            for (Unit.UnitType type : Unit.UnitType.values()) {
+                unregister(type, unit.getId());
+            }
+            if (unit.getUnitType() != null && unit.getStatus() == Unit.UnitStatus.AVAILABLE) {
+                register(unit.getUnitType(), snapshotOf(unit));
+            }
+        });
+    }
+
+    /**
+     * 待機中のユニットの位置を更新
+     *
+     * 位置のみの更新をエンティティなしで反映します。インデックスに
+     * 登録されていない（待機中でない）ユニットは無視します。検索時点の
+     * 登録内容との比較と交換で置き換えるため、並行して確保されたユニットを
+     * インデックスに戻すことはありません。
+     * 以後、これより古い位置を持つユニットエンティティでは位置を上書きしません。
+     *
+     * @param unitId     ユニットID
+     * @param latitude   緯度
+     * @param longitude  経度
+     * @param recordedAt 測位時刻
+     */
+    public void moveUnit(long unitId, double latitude, double longitude, LocalDateTime recordedAt) {
+        unitFixes.merge(unitId, new UnitFix(latitude, longitude, recordedAt),
+                (current, latest) -> latest.isOlderThan(current) ? current : latest);
+        change(unitId, () -> {
+            for (Unit.UnitType type : Unit.UnitType.values()) {
+                SpatialGrid<AvailableUnit> grid = unitsByType.get(type);
+                AvailableUnit current = grid.get(unitId);
+                if (current == null) {
+                    continue;
+                }
+                AvailableUnit moved = new AvailableUnit(current.id(), current.stationId(), latitude, longitude,
+                        current.crewCount(), current.maintenanceStatus());
+                if (!current.equals(moved) && grid.replace(current, moved)) {
+                    for (Listener listener : listeners) {
+                        listener.unitUnavailable(type, current);
+                        listener.unitAvailable(type, moved);
+                    }
+                }
+                return;
+            }
+        });
+    }
+
+    /**
+     * ユニットをインデックスから除外
+     *
+     * @param unitId ユニットID
+     */
+    public void remove(Long unitId) {
+        if (unitId == null) {
+            return;
+        }
+        unitFixes.remove(unitId);
+        change(unitId, () -> {
+            for (Unit.UnitType type : Unit.UnitType.values()) {
+                unregister(type, unitId);
+            }
+        });
+    }
+
+    /**
+     * ユニットをインデックス上で確保
+     *
+     * 検索時に取得したスナップショットがまだ登録されている場合のみ
+     * インデックスから除外します（比較と交換）。同じユニットを同時に
+     * 確保しようとした場合は1件だけが成功するため、グローバルなロックなしに
+     * 並行する部隊割り当て間の二重確保を防げます。
+     *
+     * トランザクション内で呼び出された場合、ロールバック時には
+     * ユニットをインデックスに戻します。トランザクションが完了するまでは、
+     * 再構築でデータベースの（まだ待機中の）状態に戻されることはありません。
+     *
+     * @param unitType ユニットタイプ
+     * @param unit     検索時に取得したユニット
+     * @return 確保できた場合はtrue
+     */
+    public boolean tryReserve(Unit.UnitType unitType, AvailableUnit unit) {
+        changeLock.readLock().lock();
+        try {
+            if (!unitsByType.get(unitType).remove(unit)) {
+                return false;
+            }
+            recordChange(unit.id());
+            reservationsInFlight.add(unit.id());
+            listeners.forEach(listener -> listener.unitUnavailable(unitType, unit));
+        } finally {
+            changeLock.readLock().unlock();
+        }
+
+        TransactionHooks.afterRollback(() -> change(unit.id(), () -> register(unitType, unit)));
+        TransactionHooks.afterCompletion(() -> change(unit.id(), () -> reservationsInFlight.remove(unit.id())));
+        return true;
+    }
+
+    /**
+     * 指定タイプの出動可能ユニットを取得
+     *
+     * @param unitType ユニットタイプ
+     * @return 運用可能（OPERATIONAL）な待機中ユニットのスナップショット
+     */
+    public List<AvailableUnit> findAvailable(Unit.UnitType unitType) {
+        List<AvailableUnit> result = new ArrayList<>();
+        for (AvailableUnit unit : unitsByType.get(unitType).values()) {
+            if (UnitFilter.OPERATIONAL.test(unit)) {
+                result.add(unit);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 指定地点に近い出動可能ユニットを検索
+     *
+     * 位置情報を持つユニットを距離の近い順に返します。条件を満たす
+     * ユニットがk件に満たない場合は、位置が不明なユニットで補完します。
+     *
+     * @param unitType  ユニットタイプ
+     * @param latitude  事案地点の緯度
+     * @param longitude 事案地点の経度
+     * @param k         取得件数
+     * @param filter    乗員数・メンテナンス状況の条件
+     * @return 近い順に並んだユニット
+     */
+    public List<AvailableUnit> findNearest(Unit.UnitType unitType, double latitude, double longitude, int k,
+            UnitFilter filter) {
+        SpatialGrid<AvailableUnit> grid = unitsByType.get(unitType);
+        List<AvailableUnit> result = new ArrayList<>(k);
+        for (SpatialGrid.Neighbor<AvailableUnit> neighbor : grid.nearest(latitude, longitude, k,
+                Double.POSITIVE_INFINITY, filter::test)) {
+            result.add(neighbor.item());
+        }
+
+        if (result.size() < k) {
+            for (AvailableUnit unit : grid.values()) {
+                if (result.size() >= k) {
+                    break;
+                }
+                if (!unit.hasLocation() && filter.test(unit)) {
+                    result.add(unit);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 指定タイプの出動可能ユニット数を取得
+     *
+     * @param unitType ユニットタイプ
+     * @return 運用可能な待機中ユニット数
+     */
+    public int countAvailable(Unit.UnitType unitType) {
+        return findAvailable(unitType).size();
+    }
+
+    /**
+     * ユニットの変更を反映（再構築中の場合は変更を記録）
+     */
+    private void change(long unitId, Runnable action) {
+        changeLock.readLock().lock();
+        try {
+            recordChange(unitId);
+            action.run();
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    private void recordChange(long unitId) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(unitId);
+        }
+    }
+
+    /**
+     * ユニットエンティティからスナップショットを作成
+     *
+     * 受信済みの位置がエンティティの位置より新しい場合は、受信済みの位置を使います。
+     */
+    private AvailableUnit snapshotOf(Unit unit) {
+        AvailableUnit entry = AvailableUnit.of(unit);
+        UnitFix fix = entry != null ? unitFixes.get(entry.id()) : null;
+        if (fix == null || (unit.getLastLocationUpdate() != null && !fix.isNewerThan(unit.getLastLocationUpdate()))) {
+            return entry;
+        }
+        return new AvailableUnit(entry.id(), entry.stationId(), fix.latitude(), fix.longitude(), entry.crewCount(),
+                entry.maintenanceStatus());
+    }
+
+    /**
+     * ユニットを登録し、変更があれば通知
+     */
+    private void register(Unit.UnitType unitType, AvailableUnit unit) {
+        AvailableUnit previous = unitsByType.get(unitType).put(unit);
+        if (unit.equals(previous)) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            if (previous != null) {
+                listener.unitUnavailable(unitType, previous);
+            }
+            listener.unitAvailable(unitType, unit);
+        }
+    }
+
+    /**
+     * ユニットを除外し、除外された場合は通知
+     */
+    private void unregister(Unit.UnitType unitType, long unitId) {
+        AvailableUnit removed = unitsByType.get(unitType).remove(unitId);
+        if (removed != null) {
+            listeners.forEach(listener -> listener.unitUnavailable(unitType, removed));
+        }
+    }
+
+    /**
+     * 空のインデックスを作成
+     *
+     * タイプ別のグリッドは起動時に一度だけ作成され、以後は内容のみ更新されます。
+     */
+    private static Map<Unit.UnitType, SpatialGrid<AvailableUnit>> createEmptyIndex() {
+        Map<Unit.UnitType, SpatialGrid<AvailableUnit>> index = new EnumMap<>(Unit.UnitType.class);
+        for (Unit.UnitType type : Unit.UnitType.values()) {
+            index.put(type, new SpatialGrid<>(CELL_SIZE_DEGREES));
+        }
+        return index;
+    }
+
+    /**
+     * インデックス変更の通知先
+     *
+     * 通知はインデックスを更新したスレッドで同期的に行われるため、
+     * 実装は短時間で完了する必要があります。
+     */
+    public interface Listener {
+
+        /**
+         * ユニットが出動可能になった（または位置などが更新された）
+         */
+        void unitAvailable(Unit.UnitType unitType, AvailableUnit unit);
+
+        /**
+         * ユニットが出動可能でなくなった（または更新前の状態が置き換えられた）
+         */
+        void unitUnavailable(Unit.UnitType unitType, AvailableUnit unit);
+
+        /**
+         * データベースからの再構築が完了した
+         */
+        default void indexRebuilt() {
+        }
+    }
+
+    /**
+     * 受信済みの位置
+     */
+    private record UnitFix(double latitude, double longitude, LocalDateTime recordedAt) {
+
+        boolean isNewerThan(LocalDateTime time) {
+            return recordedAt != null && recordedAt.isAfter(time);
+        }
+
+        boolean isOlderThan(UnitFix other) {
+            return recordedAt != null && other.recordedAt != null && recordedAt.isBefore(other.recordedAt);
+        }
+    }
+
+    /**
+     * ユニットの絞り込み条件
+     *
+     * @param minCrewCount        最低乗員数
+     * @param maintenanceStatuses 許容するメンテナンス状況
+     */
+    public record UnitFilter(int minCrewCount, Set<Unit.MaintenanceStatus> maintenanceStatuses) {
+
+        /** 運用可能なユニットのみ（乗員数の条件なし） */
+        public static final UnitFilter OPERATIONAL = new UnitFilter(0, EnumSet.of(Unit.MaintenanceStatus.OPERATIONAL));
+
+        /**
+         * 条件を満たすかどうかを判定
+         *
+         * @param unit ユニット
+         * @return 条件を満たす場合はtrue
+         */
+        public boolean test(AvailableUnit unit) {
+            return unit.crewCount() >= minCrewCount && maintenanceStatuses.contains(unit.maintenanceStatus());
+        }
+    }
+
+    /**
+     * 出動可能ユニットのコンパクトな表現
+     *
+     * エンティティやその関連を保持せず、部隊選択に必要な値のみを持ちます。
+     * 位置が不明な場合、緯度・経度は {@link Double#NaN} になります。
+     *
+     * @param id                ユニットID
+     * @param stationId         所属消防署ID（不明な場合は0）
+     * @param latitude          現在地の緯度
+     * @param longitude         現在地の経度
+     * @param crewCount         乗員数
+     * @param maintenanceStatus メンテナンス状況
+     */
+    public record AvailableUnit(long id, long stationId, double latitude, double longitude, int crewCount,
+            Unit.MaintenanceStatus maintenanceStatus) implements GeoPoint {
+
+        /**
+         * ユニットエンティティから作成
+         *
+         * @param unit ユニット
+         * @return コンパクトな表現（IDが未採番の場合はnull）
+         */
+        static AvailableUnit of(Unit unit) {
+            if (unit.getId() == null) {
+                return null;
+            }
+            long stationId = unit.getFireStation() != null && unit.getFireStation().getId() != null
+                    ? unit.getFireStation().getId()
+                    : 0L;
+            double latitude = unit.getCurrentLatitude() != null ? unit.getCurrentLatitude() : Double.NaN;
+            double longitude = unit.getCurrentLongitude() != null ? unit.getCurrentLongitude() : Double.NaN;
+            int crewCount = unit.getCrewCount() != null ? unit.getCrewCount() : 0;
+            Unit.MaintenanceStatus maintenanceStatus = unit.getMaintenanceStatus() != null
+                    ? unit.getMaintenanceStatus()
+                    : Unit.MaintenanceStatus.OPERATIONAL;
+            return new AvailableUnit(unit.getId(), stationId, latitude, longitude, crewCount, maintenanceStatus);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.Unit;
+import com.firecaptain.geo.GeoUtils;
+import com.firecaptain.repository.UnitRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ユニット位置の高頻度取り込み
+ *
+ * 車載端末から数秒ごとに届く位置をユニットごとの最新値としてJVM内に保持し、
+ * 一定間隔でまとめて units テーブルへ書き込みます（ライトビハインド）。
+ * 書き込みまでに同じユニットから複数の位置が届いた場合は最新の1件のみを
+ * 書き込むため、データベースへの更新件数は受信件数ではなくユニット数に比例します。
+ *
+ * 位置の参照はメモリから行います。受信した位置は出動可能ユニットのインデックス
+ * （{@link UnitAvailabilityIndex}）と地図タイル（{@link MapTileService}）にも
+ * 即座に反映され、移動軌跡（{@link UnitTrackService}）に追記されます。
+ * 書き込みに失敗した位置は次回の書き込みで再試行します。
+ *
+ * 位置の書き込みでは updated_at を変更しません。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class UnitLocationService {
+
+    /** 受信時刻より新しい位置を拒否する許容誤差（端末の時計のずれ） */
+    private static final long MAX_CLOCK_SKEW_SECONDS = 60;
+
+    private static final String UPDATE_SQL = "UPDATE units SET current_latitude = ?, current_longitude = ?, "
+            + "last_location_update = ? WHERE id = ? "
+            + "AND (last_location_update IS NULL OR last_location_update <= ?)";
+
+    private final UnitRepository unitRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
+    private final MapTileService mapTileService;
+    private final UnitTrackService unitTrackService;
+    private final int batchSize;
+
+    /** ユニットIDごとの最新位置 */
+    private final Map<Long, LocationFix> latest = new ConcurrentHashMap<>();
+
+    /** 未書き込みの位置（ユニットIDごとに最新の1件） */
+    private final Map<Long, LocationFix> pending = new ConcurrentHashMap<>();
+
+    public UnitLocationService(UnitRepository unitRepository,
+            JdbcTemplate jdbcTemplate,
+            UnitAvailabilityIndex unitAvailabilityIndex,
+            MapTileService mapTileService,
+            UnitTrackService unitTrackService,
+            @Value("${fire-captain.unit-locations.batch-size:500}") int batchSize) {
+        this.unitRepository = unitRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.unitAvailabilityIndex = unitAvailabilityIndex;
+        this.mapTileService = mapTileService;
+        this.unitTrackService = unitTrackService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * データベースの位置で初期化
+     *
+     * 起動完了時に実行されます。初期化前に受信した位置は上書きしません。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        int loaded = 0;
+        for (Unit unit : unitRepository.findAll()) {
+            if (unit.getId() == null || !GeoUtils.isValid(unit.getCurrentLatitude(), unit.getCurrentLongitude())) {
+                continue;
+            }
+            latest.putIfAbsent(unit.getId(), new LocationFix(unit.getId(), unit.getCurrentLatitude(),
+                    unit.getCurrentLongitude(), unit.getLastLocationUpdate()));
+            loaded++;
+        }
+        log.info("Unit locations loaded: {} units", loaded);
+    }
+
+    /**
+     * 位置をまとめて受信
+     *
+     * 座標が不正な位置、未来の時刻の位置、既に受信した位置より古い位置は破棄します。
+     * 測位時刻が未設定の場合は受信時刻を使用します。
+     *
+     * @param fixes 受信した位置
+     * @return 採用した件数
+     */
+    public int ingest(Collection<LocationFix> fixes) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime latestAcceptable = now.plusSeconds(MAX_CLOCK_SKEW_SECONDS);
+        int accepted = 0;
+        for (LocationFix received : fixes) {
+            if (received == null || received.unitId() == null
+                    || !GeoUtils.isValid(received.latitude(), received.longitude())) {
+                continue;
+            }
+            LocationFix fix = received.recordedAt() != null
+                    ? received
+                    : new LocationFix(received.unitId(), received.latitude(), received.longitude(), now);
+            if (fix.recordedAt().isAfter(latestAcceptable)) {
+                continue;
+            }
+
+            LocationFix current = latest.merge(fix.unitId(), fix, UnitLocationService::newer);
+            if (current != fix) {
+                continue;
+            }
+            pending.merge(fix.unitId(), fix, UnitLocationService::newer);
+            unitAvailabilityIndex.moveUnit(fix.unitId(), fix.latitude(), fix.longitude(), fix.recordedAt());
+            mapTileService.moveUnit(fix.unitId(), fix.latitude(), fix.longitude(), fix.recordedAt());
+            unitTrackService.append(fix.unitId(), fix.latitude(), fix.longitude(), fix.recordedAt());
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * ユニットの最新位置を取得
+     *
+     * @param unitId ユニットID
+     * @return 最新位置（未受信の場合は空）
+     */
+    public Optional<LocationFix> getLatest(Long unitId) {
+        return Optional.ofNullable(latest.get(unitId));
+    }
+
+    /**
+     * 全ユニットの最新位置を取得
+     *
+     * @return 最新位置のスナップショット
+     */
+    public List<LocationFix> getAllLatest() {
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * 未書き込みの位置の件数
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 未書き込みの位置をデータベースへ書き込み
+     *
+     * 書き込み中に届いた位置は次回に書き込みます。書き込みに失敗した場合は、
+     * その後に届いた位置が優先されるように未書き込みの位置へ戻します。
+     */
+    @Scheduled(fixedDelayString = "${fire-captain.unit-locations.flush-interval-ms:2000}")
+    public void flush() {
+        List<LocationFix> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        for (Long unitId : pending.keySet()) {
+            LocationFix fix = pending.remove(unitId);
+            if (fix == null) {
+                continue;
+            }
+            batch.add(fix);
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * 停止時に未書き込みの位置を書き込み
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("{} unit locations were not written before shutdown", pending.size());
+        }
+    }
+
+    private void write(List<LocationFix> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (statement, fix) -> {
+                Timestamp recordedAt = Timestamp.valueOf(fix.recordedAt());
+                statement.setDouble(1, fix.latitude());
+                statement.setDouble(2, fix.longitude());
+                statement.setTimestamp(3, recordedAt);
+                statement.setLong(4, fix.unitId());
+                statement.setTimestamp(5, recordedAt);
+            });
+            log.debug("Wrote {} unit locations", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} unit locations, will retry", batch.size(), e);
+            batch.forEach(fix -> pending.merge(fix.unitId(), fix, UnitLocationService::newer));
+        }
+    }
+
+    /**
+     * 測位時刻の新しい方（データベースから読み込んだ測位時刻不明の位置は最も古いものとする）
+     */
+    private static LocationFix newer(LocationFix current, LocationFix candidate) {
+        if (current.recordedAt() == null) {
+            return candidate;
+        }
+        return candidate.recordedAt().isBefore(current.recordedAt()) ? current : candidate;
+    }
+
+    /**
+     * ユニットの位置
+     *
+     * @param unitId     ユニットID
+     * @param latitude   緯度
+     * @param longitude  経度
+     * @param recordedAt 測位時刻（受信時に未設定の場合は受信時刻）
+     */
+    public record LocationFix(Long unitId, Double latitude, Double longitude, LocalDateTime recordedAt) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.UnitTrackChunk;
+import com.firecaptain.geo.TrackCodec;
+import com.firecaptain.repository.UnitTrackChunkRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * ユニット移動軌跡の保存
+ *
+ * 受信したユニットの位置をユニットごとにメモリ上へ追記し、一定の点数または
+ * 一定時間ごとに {@link TrackCodec} で圧縮した1つのチャンクとして
+ * unit_track_chunks テーブルへ保存します。1点あたり数バイトで保存されるため、
+ * 位置ごとに1行を追加する場合と比べて保存量は1/10以下になります。
+ *
+ * 期間を指定した検索では、期間と重なるチャンクのみを読み込んで展開し、
+ * まだ保存していない位置と合わせて返します。
+ *
+ * 時刻は {@link LocalDateTime} をUTCとみなしたエポックミリ秒で符号化します
+ * （タイムゾーンの変換は行いません）。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class UnitTrackService {
+
+    private final UnitTrackChunkRepository unitTrackChunkRepository;
+    private final int chunkPoints;
+    private final long chunkMaxAgeMillis;
+
+    /** ユニットごとの未確定の位置 */
+    private final Map<Long, TrackBuffer> buffers = new ConcurrentHashMap<>();
+
+    /** 確定済みで未保存のチャンク */
+    private final Queue<UnitTrackChunk> sealed = new ConcurrentLinkedQueue<>();
+
+    public UnitTrackService(UnitTrackChunkRepository unitTrackChunkRepository,
+            @Value("${fire-captain.unit-tracks.chunk-points:256}") int chunkPoints,
+            @Value("${fire-captain.unit-tracks.chunk-max-age-ms:600000}") long chunkMaxAgeMillis) {
+        this.unitTrackChunkRepository = unitTrackChunkRepository;
+        this.chunkPoints = chunkPoints;
+        this.chunkMaxAgeMillis = chunkMaxAgeMillis;
+    }
+
+    /**
+     * 位置を追記
+     *
+     * 同じユニットの位置は測位時刻の順に追記されることを前提とし、
+     * 直前の位置より古い位置や同じ測位時刻の位置は無視します。
+     *
+     * @param unitId     ユニットID
+     * @param latitude   緯度
+     * @param longitude  経度
+     * @param recordedAt 測位時刻
+     */
+    public void append(long unitId, double latitude, double longitude, LocalDateTime recordedAt) {
+        TrackCodec.TrackPoint point = new TrackCodec.TrackPoint(toMillis(recordedAt), latitude, longitude);
+        TrackBuffer buffer = buffers.computeIfAbsent(unitId, id -> new TrackBuffer());
+        synchronized (buffer) {
+            if (point.epochMillis() <= buffer.lastMillis()) {
+                return;
+            }
+            buffer.points.add(point);
+            if (buffer.points.size() >= chunkPoints) {
+                seal(unitId, buffer);
+            }
+        }
+    }
+
+    /**
+     * 指定期間の軌跡を取得
+     *
+     * @param unitId    ユニットID
+     * @param startTime 期間の開始（含む）
+     * @param endTime   期間の終了（含む）
+     * @return 時刻順の位置
+     */
+    public List<TrackPoint> getTrack(Long unitId, LocalDateTime startTime, LocalDateTime endTime) {
+        long fromMillis = toMillis(startTime);
+        long toMillis = toMillis(endTime);
+        List<TrackCodec.TrackPoint> points = new ArrayList<>();
+
+        // 位置はバッファ → 確定済みキュー → テーブルの順に移るため、同じ順に読めば取りこぼさない
+        TrackBuffer buffer = buffers.get(unitId);
+        if (buffer != null) {
+            synchronized (buffer) {
+                for (TrackCodec.TrackPoint point : buffer.points) {
+                    if (point.epochMillis() >= fromMillis && point.epochMillis() <= toMillis) {
+                        points.add(point);
+                    }
+                }
+            }
+        }
+        for (UnitTrackChunk chunk : sealed) {
+            if (chunk.getUnitId().equals(unitId) && overlaps(chunk, startTime, endTime)) {
+                points.addAll(TrackCodec.decode(chunk.getData(), fromMillis, toMillis));
+            }
+        }
+        for (UnitTrackChunk chunk : unitTrackChunkRepository.findOverlapping(unitId, startTime, endTime)) {
+            points.addAll(TrackCodec.decode(chunk.getData(), fromMillis, toMillis));
+        }
+
+        // 読み込み中に移った位置は重複して読まれるため、同じ測位時刻の位置は1件にする
+        points.sort(Comparator.comparingLong(TrackCodec.TrackPoint::epochMillis));
+        List<TrackPoint> track = new ArrayList<>(points.size());
+        long previousMillis = Long.MIN_VALUE;
+        for (TrackCodec.TrackPoint point : points) {
+            if (track.isEmpty() || point.epochMillis() != previousMillis) {
+                track.add(new TrackPoint(toDateTime(point.epochMillis()), point.latitude(), point.longitude()));
+            }
+            previousMillis = point.epochMillis();
+        }
+        return track;
+    }
+
+    /**
+     * 古くなった未確定の位置を確定し、確定済みのチャンクを保存
+     *
+     * 保存に失敗したチャンクは次回に再試行します。
+     */
+    @Scheduled(fixedDelayString = "${fire-captain.unit-tracks.flush-interval-ms:60000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        buffers.forEach((unitId, buffer) -> {
+            synchronized (buffer) {
+                if (!buffer.points.isEmpty() && now - buffer.openedAtMillis >= chunkMaxAgeMillis) {
+                    seal(unitId, buffer);
+                }
+            }
+        });
+        saveSealed();
+    }
+
+    /**
+     * 停止時にすべての位置を確定して保存
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        buffers.forEach((unitId, buffer) -> {
+            synchronized (buffer) {
+                if (!buffer.points.isEmpty()) {
+                    seal(unitId, buffer);
+                }
+            }
+        });
+        saveSealed();
+        if (!sealed.isEmpty()) {
+            log.warn("{} unit track chunks were not saved before shutdown", sealed.size());
+        }
+    }
+
+    private void saveSealed() {
+        List<UnitTrackChunk> batch = new ArrayList<>(sealed);
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            unitTrackChunkRepository.saveAll(batch);
+            // 保存中に確定したチャンクは末尾に追加されるため、先頭から保存した数だけ取り除く
+            for (int i = 0; i < batch.size(); i++) {
+                sealed.poll();
+            }
+            log.debug("Saved {} unit track chunks", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to save {} unit track chunks, will retry", batch.size(), e);
+        }
+    }
+
+    /**
+     * 未確定の位置をチャンクとして確定（呼び出し側で buffer を同期すること）
+     */
+    private void seal(long unitId, TrackBuffer buffer) {
+        List<TrackCodec.TrackPoint> points = buffer.points;
+        UnitTrackChunk chunk = new UnitTrackChunk();
+        chunk.setUnitId(unitId);
+        chunk.setStartTime(toDateTime(points.get(0).epochMillis()));
+        chunk.setEndTime(toDateTime(points.get(points.size() - 1).epochMillis()));
+        chunk.setPointCount(points.size());
+        chunk.setData(TrackCodec.encode(points));
+        sealed.add(chunk);
+        buffer.reset(points.get(points.size() - 1).epochMillis());
+    }
+
+    private static boolean overlaps(UnitTrackChunk chunk, LocalDateTime startTime, LocalDateTime endTime) {
+        return !chunk.getStartTime().isAfter(endTime) && !chunk.getEndTime().isBefore(startTime);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    /**
+     * ユニットごとの未確定の位置
+     */
+    private static final class TrackBuffer {
+
+        private List<TrackCodec.TrackPoint> points = new ArrayList<>();
+        private long openedAtMillis = System.currentTimeMillis();
+        /** 確定済みの最後の位置の測位時刻（バッファが空の場合の順序判定に使用） */
+        private long sealedUntilMillis = Long.MIN_VALUE;
+
+        long lastMillis() {
+            return points.isEmpty() ? sealedUntilMillis : points.get(points.size() - 1).epochMillis();
+        }
+
+        void reset(long sealedUntil) {
+            points = new ArrayList<>();
+            openedAtMillis = System.currentTimeMillis();
+            sealedUntilMillis = sealedUntil;
+        }
+    }
+
+    /**
+     * 軌跡上の位置
+     *
+     * @param recordedAt 測位時刻
+     * @param latitude   緯度
+     * @param longitude  経度
+     */
+    public record TrackPoint(LocalDateTime recordedAt, double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.firecaptain.util;
+
+import java.util.Arrays;
+
+/**
+ * ハンガリアン法による最小コスト割り当て
+ *
+ * 行（作業）と列（担当者）のコスト行列から、各行に異なる列を1つずつ
+ * 割り当てたときの総コストが最小となる組み合わせを求めます。
+ * 計算量は O(n²m)（n: 行数、m: 列数）です。
+ *
+ * 行数が列数より多い場合は、割り当てられない行が生じます。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class HungarianAlgorithm {
+
+    private HungarianAlgorithm() {
+    }
+
+    /**
+     * 最小コスト割り当てを計算
+     *
+     * @param cost コスト行列（cost[行][列]、全行の列数は同一であること）
+     * @return 各行に割り当てられた列番号（割り当てがない場合は-1）
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+        int columns = cost[0].length;
+        if (columns == 0) {
+            int[] none = new int[rows];
+            Arrays.fill(none, -1);
+            return none;
+        }
+
+        // 行数が列数以下になるよう、必要に応じて転置して解く
+        if (rows > columns) {
+            int[] columnToRow = solveRectangular(transpose(cost), columns, rows);
+            int[] result = new int[rows];
+            Arrays.fill(result, -1);
+            for (int column = 0; column < columns; column++) {
+                if (columnToRow[column] >= 0) {
+                    result[columnToRow[column]] = column;
+                }
+            }
+            return result;
+        }
+        return solveRectangular(cost, rows, columns);
+    }
+
+    /**
+     * n ≤ m の行列に対するポテンシャル法
+     */
+    private static int[] solveRectangular(double[][] cost, int n, int m) {
+        // 1始まりの添字で実装（0番目は番兵）
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] matchedRow = new int[m + 1];
+        int[] way = new int[m + 1];
+
+        for (int row = 1; row <= n; row++) {
+            matchedRow[0] = row;
+            int column0 = 0;
+            double[] minValues = new double[m + 1];
+            boolean[] used = new boolean[m + 1];
+            Arrays.fill(minValues, Double.POSITIVE_INFINITY);
+
+            do {
+                used[column0] = true;
+                int row0 = matchedRow[column0];
+                double delta = Double.POSITIVE_INFINITY;
+                int column1 = 0;
+                for (int column = 1; column <= m; column++) {
+                    if (used[column]) {
+                        continue;
+                    }
+                    double reduced = cost[row0 - 1][column - 1] - u[row0] - v[column];
+                    if (reduced < minValues[column]) {
+                        minValues[column] = reduced;
+                        way[column] = column0;
+                    }
+                    if (minValues[column] < delta) {
+                        delta = minValues[column];
+                        column1 = column;
+                    }
+                }
+                for (int column = 0; column <= m; column++) {
+                    if (used[column]) {
+                        u[matchedRow[column]] += delta;
+                        v[column] -= delta;
+                    } else {
+                        minValues[column] -= delta;
+                    }
+                }
+                column0 = column1;
+            } while (matchedRow[column0] != 0);
+
+            // 増加路に沿って割り当てを更新
+            do {
+                int column1 = way[column0];
+                matchedRow[column0] = matchedRow[column1];
+                column0 = column1;
+            } while (column0 != 0);
+        }
+
+        int[] result = new int[n];
+        Arrays.fill(result, -1);
+        for (int column = 1; column <= m; column++) {
+            if (matchedRow[column] != 0) {
+                result[matchedRow[column] - 1] = column - 1;
+            }
+        }
+        return result;
+    }
+
+    private static double[][] transpose(double[][] matrix) {
+        double[][] transposed = new double[matrix[0].length][matrix.length];
+        for (int row = 0; row < matrix.length; row++) {
+            for (int column = 0; column < matrix[row].length; column++) {
+                transposed[column][row] = matrix[row][column];
+            }
+        }
+        return transposed;
+    }
+}
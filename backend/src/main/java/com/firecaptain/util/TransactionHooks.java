@@ -0,0 +1,80 @@
+package com.firecaptain.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * トランザクションの完了時に実行する処理の登録
+ *
+ * インメモリのインデックスやキューへの反映を、データベースの変更が
+ * コミットされた後（またはロールバックされた後）に行うために使用します。
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * トランザクションのコミット後に処理を実行
+     *
+     * トランザクション外で呼び出された場合は即座に実行します。
+     * ロールバックされた場合は実行しません。
+     *
+     * @param action 実行する処理
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * トランザクションの完了後（コミット・ロールバックとも）に処理を実行
+     *
+     * トランザクション外で呼び出された場合は即座に実行します。
+     *
+     * @param action 実行する処理
+     */
+    public static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * トランザクションがロールバックされた場合に処理を実行
+     *
+     * 取り消し用の処理のため、トランザクション外で呼び出された場合は何もしません。
+     *
+     * @param action 実行する処理
+     */
+    public static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,25 @@
+-- Hierarchical spatial cell IDs (see com.firecaptain.geo.SpatialCellId)
+-- spatial_cell: level 24 (~2m), spatial_cell_block: level 16 (~500m), spatial_cell_district: level 12 (~8km)
+-- Existing rows are backfilled in batches by SpatialCellBackfillService.
+
+ALTER TABLE emergency_calls ADD COLUMN IF NOT EXISTS spatial_cell BIGINT;
+ALTER TABLE emergency_calls ADD COLUMN IF NOT EXISTS spatial_cell_block BIGINT;
+ALTER TABLE emergency_calls ADD COLUMN IF NOT EXISTS spatial_cell_district BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_emergency_calls_spatial_cell ON emergency_calls(spatial_cell);
+CREATE INDEX IF NOT EXISTS idx_emergency_calls_spatial_cell_block ON emergency_calls(spatial_cell_block);
+CREATE INDEX IF NOT EXISTS idx_emergency_calls_spatial_cell_district ON emergency_calls(spatial_cell_district, received_at);
+
+-- emergency_reports is created by Hibernate when it does not exist yet
+DO $$
+BEGIN
+    IF to_regclass('emergency_reports') IS NOT NULL THEN
+        ALTER TABLE emergency_reports ADD COLUMN IF NOT EXISTS spatial_cell BIGINT;
+        ALTER TABLE emergency_reports ADD COLUMN IF NOT EXISTS spatial_cell_block BIGINT;
+        ALTER TABLE emergency_reports ADD COLUMN IF NOT EXISTS spatial_cell_district BIGINT;
+
+        CREATE INDEX IF NOT EXISTS idx_emergency_reports_spatial_cell ON emergency_reports(spatial_cell);
+        CREATE INDEX IF NOT EXISTS idx_emergency_reports_spatial_cell_block ON emergency_reports(spatial_cell_block);
+        CREATE INDEX IF NOT EXISTS idx_emergency_reports_spatial_cell_district ON emergency_reports(spatial_cell_district, received_at);
+    END IF;
+END $$;
@@ -0,0 +1,11 @@
+-- Compressed unit movement history (see com.firecaptain.geo.TrackCodec)
+CREATE TABLE IF NOT EXISTS unit_track_chunks (
+    id BIGSERIAL PRIMARY KEY,
+    unit_id BIGINT NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    point_count INTEGER NOT NULL,
+    data BYTEA NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_unit_track_chunks_unit_time ON unit_track_chunks(unit_id, start_time);
@@ -0,0 +1,14 @@
+-- Composite (latitude, longitude) B-tree indexes for the bounding-box prefilter
+-- of radius searches (see com.firecaptain.service.GeoQueryService).
+CREATE INDEX IF NOT EXISTS idx_emergency_calls_lat_lng ON emergency_calls(latitude, longitude);
+
+-- units and emergency_reports are created by Hibernate when they do not exist yet
+DO $$
+BEGIN
+    IF to_regclass('units') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_units_lat_lng ON units(current_latitude, current_longitude);
+    END IF;
+    IF to_regclass('emergency_reports') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_emergency_reports_lat_lng ON emergency_reports(location_latitude, location_longitude);
+    END IF;
+END $$;
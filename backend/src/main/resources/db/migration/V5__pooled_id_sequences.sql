@@ -0,0 +1,32 @@
+-- Sequence-based IDs with a pooled optimizer (see com.firecaptain.entity.TableSequenceGenerator).
+-- Every table gets <table>_id_seq with INCREMENT BY 50 so Hibernate can allocate 50 IDs per
+-- sequence call and batch inserts; IDENTITY columns are converted, and the sequence stays the
+-- column default so plain SQL inserts never collide with IDs allocated by Hibernate.
+-- Tables created by Hibernate are converted only when they already exist.
+DO $$
+DECLARE
+    target_table TEXT;
+    sequence_name TEXT;
+    max_id BIGINT;
+BEGIN
+    FOREACH target_table IN ARRAY ARRAY[
+        'fire_stations', 'firefighters', 'emergency_calls', 'equipment', 'users', 'permissions',
+        'call_updates', 'certifications', 'unit_track_chunks', 'units', 'emergency_reports',
+        'completion_reports', 'data_analyses', 'dispatches', 'dispatch_units', 'dispatch_updates',
+        'scene_supports'
+    ] LOOP
+        IF to_regclass(target_table) IS NULL THEN
+            CONTINUE;
+        END IF;
+        sequence_name := target_table || '_id_seq';
+
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', target_table);
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I OWNED BY %I.id', sequence_name, target_table);
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', sequence_name);
+
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', target_table) INTO max_id;
+        PERFORM setval(sequence_name, GREATEST(max_id, 1), max_id > 0);
+
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', target_table, sequence_name);
+    END LOOP;
+END $$;
@@ -0,0 +1,12 @@
+-- Links intakes detected as duplicates of a recent incident (see com.firecaptain.service.DuplicateIncidentDetector)
+ALTER TABLE emergency_calls ADD COLUMN IF NOT EXISTS duplicate_of_id BIGINT;
+CREATE INDEX IF NOT EXISTS idx_emergency_calls_duplicate_of ON emergency_calls(duplicate_of_id);
+
+-- emergency_reports is created by Hibernate when it does not exist yet
+DO $$
+BEGIN
+    IF to_regclass('emergency_reports') IS NOT NULL THEN
+        ALTER TABLE emergency_reports ADD COLUMN IF NOT EXISTS duplicate_of_id BIGINT;
+        CREATE INDEX IF NOT EXISTS idx_emergency_reports_duplicate_of ON emergency_reports(duplicate_of_id);
+    END IF;
+END $$;
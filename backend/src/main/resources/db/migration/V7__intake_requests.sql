@@ -0,0 +1,14 @@
+-- Idempotency keys of intake requests (see com.firecaptain.service.IntakeIdempotencyService)
+CREATE TABLE IF NOT EXISTS intake_requests (
+    id BIGSERIAL PRIMARY KEY,
+    kind VARCHAR(32) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    resource_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_intake_requests_kind_key UNIQUE (kind, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_intake_requests_created_at ON intake_requests(created_at);
+
+-- Pooled sequence IDs (see V5__pooled_id_sequences.sql)
+ALTER SEQUENCE intake_requests_id_seq INCREMENT BY 50;
@@ -0,0 +1,134 @@
+package com.firecaptain.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link GeoPolygon} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class GeoPolygonTest {
+
+    /** 経度 139〜140、緯度 35〜36 の正方形 */
+    private static final String SQUARE_WKT = "POLYGON((139 35, 140 35, 140 36, 139 36, 139 35))";
+
+    @Test
+    void containsPointsInsideSquare() {
+        GeoPolygon square = GeoPolygon.parse(SQUARE_WKT);
+
+        assertTrue(square.contains(35.5, 139.5));
+        assertFalse(square.contains(36.5, 139.5));
+        assertFalse(square.contains(35.5, 140.5));
+        assertEquals(4, square.vertexCount());
+        assertEquals(35.0, square.minLatitude());
+        assertEquals(140.0, square.maxLongitude());
+    }
+
+    @Test
+    void excludesHoles() {
+        GeoPolygon withHole = GeoPolygon.parse(
+                "POLYGON((139 35, 140 35, 140 36, 139 36, 139 35), (139.4 35.4, 139.6 35.4, 139.6 35.6, 139.4 35.6))");
+
+        assertFalse(withHole.contains(35.5, 139.5));
+        assertTrue(withHole.contains(35.2, 139.2));
+        assertTrue(withHole.contains(35.8, 139.8));
+    }
+
+    @Test
+    void handlesConcavePolygon() {
+        // U字型（経度 139.4〜139.6、緯度 35.3 以北が切り欠き）
+        GeoPolygon u = GeoPolygon.parse("POLYGON((139 35, 140 35, 140 36, 139.6 36, 139.6 35.3, "
+                + "139.4 35.3, 139.4 36, 139 36))");
+
+        assertFalse(u.contains(35.8, 139.5));
+        assertTrue(u.contains(35.1, 139.5));
+        assertTrue(u.contains(35.8, 139.2));
+        assertTrue(u.contains(35.8, 139.8));
+    }
+
+    @Test
+    void parsesGeoJsonPolygonFeatureAndMultiPolygon() {
+        GeoPolygon polygon = GeoPolygon.parse(
+                "{\"type\":\"Polygon\",\"coordinates\":[[[139,35],[140,35],[140,36],[139,36],[139,35]]]}");
+        GeoPolygon feature = GeoPolygon.parse("{\"type\":\"Feature\",\"properties\":{},\"geometry\":"
+                + "{\"type\":\"Polygon\",\"coordinates\":[[[139,35],[140,35],[140,36],[139,36]]]}}");
+        GeoPolygon multi = GeoPolygon.parse("{\"type\":\"MultiPolygon\",\"coordinates\":["
+                + "[[[139,35],[139.5,35],[139.5,35.5],[139,35.5]]],"
+                + "[[[140,36],[140.5,36],[140.5,36.5],[140,36.5]]]]}");
+
+        assertTrue(polygon.contains(35.5, 139.5));
+        assertTrue(feature.contains(35.5, 139.5));
+        assertTrue(multi.contains(35.2, 139.2));
+        assertTrue(multi.contains(36.2, 140.2));
+        // 2つの部分の間
+        assertFalse(multi.contains(35.8, 139.8));
+    }
+
+    @Test
+    void acceptsSridPrefixAndMultiPolygonWkt() {
+        assertTrue(GeoPolygon.parse("SRID=4326;" + SQUARE_WKT).contains(35.5, 139.5));
+
+        GeoPolygon multi = GeoPolygon.parse(
+                "MULTIPOLYGON(((139 35, 139.5 35, 139.5 35.5, 139 35.5)), ((140 36, 140.5 36, 140.5 36.5, 140 36.5)))");
+        assertTrue(multi.contains(36.2, 140.2));
+        assertFalse(multi.contains(35.8, 139.8));
+    }
+
+    @Test
+    void matchesReferenceRayCastingForManyVertices() {
+        // 頂点数の多い星型で、帯による絞り込みが全辺の判定と一致することを確認
+        int vertices = 400;
+        double[] ring = new double[vertices * 2];
+        StringBuilder wkt = new StringBuilder("POLYGON((");
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            double radius = i % 2 == 0 ? 0.5 : 0.2;
+            ring[i * 2] = 139.5 + radius * Math.cos(angle);
+            ring[i * 2 + 1] = 35.5 + radius * Math.sin(angle);
+            wkt.append(i == 0 ? "" : ", ").append(ring[i * 2]).append(' ').append(ring[i * 2 + 1]);
+        }
+        GeoPolygon star = GeoPolygon.parse(wkt.append("))").toString());
+
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            double latitude = 34.9 + random.nextDouble() * 1.2;
+            double longitude = 138.9 + random.nextDouble() * 1.2;
+            assertEquals(rayCast(ring, latitude, longitude), star.contains(latitude, longitude),
+                    latitude + ", " + longitude);
+        }
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.parse("POINT(139 35)"));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.parse("POLYGON((139 35, 140 35, 139 35))"));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.parse("POLYGON((139 35, 140, 140 36))"));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.parse("{\"type\":\"Point\"}"));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.parse("{not json"));
+    }
+
+    private static boolean rayCast(double[] ring, double latitude, double longitude) {
+        boolean inside = false;
+        int vertices = ring.length / 2;
+        for (int i = 0, j = vertices - 1; i < vertices; j = i++) {
+            double xi = ring[i * 2];
+            double yi = ring[i * 2 + 1];
+            double xj = ring[j * 2];
+            double yj = ring[j * 2 + 1];
+            if ((yi > latitude) != (yj > latitude)
+                    && longitude < (xj - xi) * (latitude - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,95 @@
+package com.firecaptain.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PackedKdTree} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class PackedKdTreeTest {
+
+    @Test
+    void matchesBruteForceNearestNeighbors() {
+        Random random = new Random(7);
+        List<Point> points = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            points.add(new Point(id, 35.0 + random.nextDouble() * 2, 139.0 + random.nextDouble() * 2));
+        }
+        PackedKdTree<Point> tree = PackedKdTree.build(points);
+        assertEquals(points.size(), tree.size());
+
+        for (int query = 0; query < 200; query++) {
+            double latitude = 34.8 + random.nextDouble() * 2.4;
+            double longitude = 138.8 + random.nextDouble() * 2.4;
+            int k = 1 + random.nextInt(8);
+            double maxDistanceKm = query % 2 == 0 ? Double.POSITIVE_INFINITY : 2 + random.nextDouble() * 20;
+            Predicate<Point> filter = query % 3 == 0 ? point -> point.id() % 5 == 0 : point -> true;
+
+            assertDistances(bruteForce(points, latitude, longitude, k, maxDistanceKm, filter),
+                    tree.nearest(latitude, longitude, k, maxDistanceKm, filter));
+        }
+    }
+
+    @Test
+    void findsNeighborsAcrossTheDateLine() {
+        List<Point> points = List.of(
+                new Point(1, 0.0, 179.99),
+                new Point(2, 0.0, -179.99),
+                new Point(3, 0.0, 179.0));
+        PackedKdTree<Point> tree = PackedKdTree.build(points);
+
+        List<SpatialGrid.Neighbor<Point>> result = tree.nearest(0.0, -179.995, 2, Double.POSITIVE_INFINITY,
+                point -> true);
+        assertEquals(2, result.get(0).item().id());
+        assertEquals(1, result.get(1).item().id());
+    }
+
+    @Test
+    void excludesItemsWithoutLocation() {
+        PackedKdTree<Point> tree = PackedKdTree.build(List.of(
+                new Point(1, Double.NaN, Double.NaN),
+                new Point(2, 35.6, 139.7)));
+
+        assertEquals(1, tree.size());
+        assertEquals(2, tree.nearest(0, 0, 5, Double.POSITIVE_INFINITY, point -> true).get(0).item().id());
+    }
+
+    @Test
+    void returnsNothingFromEmptyTree() {
+        assertTrue(PackedKdTree.<Point>empty().nearest(35.6, 139.7, 3, Double.POSITIVE_INFINITY, point -> true)
+                .isEmpty());
+        assertTrue(PackedKdTree.build(List.<Point>of()).nearest(35.6, 139.7, 3, 10, point -> true).isEmpty());
+    }
+
+    private static List<Double> bruteForce(List<Point> points, double latitude, double longitude, int k,
+            double maxDistanceKm, Predicate<Point> filter) {
+        return points.stream()
+                .filter(filter)
+                .map(point -> GeoUtils.distanceKm(latitude, longitude, point.latitude(), point.longitude()))
+                .filter(distance -> distance <= maxDistanceKm)
+                .sorted(Comparator.naturalOrder())
+                .limit(k)
+                .toList();
+    }
+
+    private static void assertDistances(List<Double> expected, List<SpatialGrid.Neighbor<Point>> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i).distanceKm(), 1e-6);
+        }
+    }
+
+    private record Point(long id, double latitude, double longitude) implements GeoPoint {
+    }
+}
@@ -0,0 +1,62 @@
+package com.firecaptain.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PackedRTree} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class PackedRTreeTest {
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(11);
+        List<PackedRTree.Entry<Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            double latitude = 35 + random.nextDouble();
+            double longitude = 139 + random.nextDouble();
+            entries.add(new PackedRTree.Entry<>(i, latitude, latitude + random.nextDouble() * 0.05,
+                    longitude, longitude + random.nextDouble() * 0.05));
+        }
+        PackedRTree<Integer> tree = PackedRTree.build(entries);
+        assertEquals(entries.size(), tree.size());
+
+        for (int query = 0; query < 500; query++) {
+            double latitude = 34.95 + random.nextDouble() * 1.1;
+            double longitude = 138.95 + random.nextDouble() * 1.1;
+            Set<Integer> expected = new HashSet<>();
+            for (PackedRTree.Entry<Integer> entry : entries) {
+                if (latitude >= entry.minLatitude() && latitude <= entry.maxLatitude()
+                        && longitude >= entry.minLongitude() && longitude <= entry.maxLongitude()) {
+                    expected.add(entry.item());
+                }
+            }
+            assertEquals(expected, new HashSet<>(tree.search(latitude, longitude)));
+        }
+    }
+
+    @Test
+    void includesPointsOnRectangleEdges() {
+        PackedRTree<String> tree = PackedRTree.build(List.of(new PackedRTree.Entry<>("a", 35, 36, 139, 140)));
+
+        assertEquals(List.of("a"), tree.search(35, 139));
+        assertEquals(List.of("a"), tree.search(36, 140));
+        assertTrue(tree.search(36.0001, 140).isEmpty());
+    }
+
+    @Test
+    void searchesEmptyTree() {
+        assertTrue(PackedRTree.<String>build(List.of()).search(35, 139).isEmpty());
+    }
+}
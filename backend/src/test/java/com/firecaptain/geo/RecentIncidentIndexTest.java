@@ -0,0 +1,97 @@
+package com.firecaptain.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link RecentIncidentIndex} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class RecentIncidentIndexTest {
+
+    private static final long WINDOW = 10 * 60 * 1000L;
+    private static final double RADIUS_KM = 0.5;
+    private static final long NOW = 1_717_200_000_000L;
+
+    private static final double LATITUDE = 35.681;
+    private static final double LONGITUDE = 139.767;
+
+    /** 緯度1度あたりの距離から求めた、判定半径ちょうど手前・ちょうど外側の緯度差 */
+    private static final double INSIDE_RADIUS = (RADIUS_KM - 0.001) / GeoUtils.KM_PER_DEGREE_LATITUDE;
+    private static final double OUTSIDE_RADIUS = (RADIUS_KM + 0.001) / GeoUtils.KM_PER_DEGREE_LATITUDE;
+
+    private final RecentIncidentIndex<String> index = new RecentIncidentIndex<>(WINDOW, RADIUS_KM);
+
+    @Test
+    void matchesWithinWindowInclusive() {
+        index.findOrRegister(1, "FIRE", LATITUDE, LONGITUDE, NOW);
+
+        assertEquals(Optional.of(1L), index.findOrRegister(2, "FIRE", LATITUDE, LONGITUDE, NOW + WINDOW));
+        assertEquals(Optional.of(1L), index.findOrRegister(3, "FIRE", LATITUDE, LONGITUDE, NOW - WINDOW));
+        assertEquals(Optional.empty(), index.findOrRegister(4, "FIRE", LATITUDE, LONGITUDE, NOW + WINDOW + 1));
+    }
+
+    @Test
+    void matchesWithinRadiusOnly() {
+        index.findOrRegister(1, "FIRE", LATITUDE, LONGITUDE, NOW);
+
+        assertEquals(Optional.of(1L), index.findOrRegister(2, "FIRE", LATITUDE + INSIDE_RADIUS, LONGITUDE, NOW));
+        assertEquals(Optional.empty(), index.findOrRegister(3, "FIRE", LATITUDE - OUTSIDE_RADIUS, LONGITUDE, NOW));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void matchesAcrossCellAndBucketBoundaries() {
+        // セル境界・時間区分の境界をまたぐ地点と時刻でも一致する
+        int level = 16;
+        long cell = SpatialCellId.encode(LATITUDE, LONGITUDE, level);
+        double[] center = SpatialCellId.center(cell, level);
+        double edgeLatitude = center[0] + 90.0 / (1 << level);
+        long bucketEdge = Math.floorDiv(NOW, WINDOW) * WINDOW + WINDOW;
+
+        index.findOrRegister(1, "FIRE", edgeLatitude - 1e-7, LONGITUDE, bucketEdge - 1);
+        assertEquals(Optional.of(1L), index.findOrRegister(2, "FIRE", edgeLatitude + 1e-7, LONGITUDE, bucketEdge));
+    }
+
+    @Test
+    void returnsNearestOfSeveralMatches() {
+        index.findOrRegister(1, "FIRE", LATITUDE + 0.004, LONGITUDE, NOW);
+        index.findOrRegister(2, "FIRE", LATITUDE - 0.001, LONGITUDE, NOW);
+
+        assertEquals(Optional.of(2L), index.findOrRegister(3, "FIRE", LATITUDE, LONGITUDE, NOW));
+    }
+
+    @Test
+    void requiresSameTypeUnlessEitherIsNull() {
+        index.findOrRegister(1, "FIRE", LATITUDE, LONGITUDE, NOW);
+
+        assertEquals(Optional.empty(), index.findOrRegister(2, "RESCUE", LATITUDE, LONGITUDE, NOW));
+        assertEquals(Optional.of(1L), index.findOrRegister(3, null, LATITUDE, LONGITUDE, NOW));
+    }
+
+    @Test
+    void removeAndEvictForgetIncidents() {
+        index.findOrRegister(1, "FIRE", LATITUDE, LONGITUDE, NOW);
+        index.remove(1, LATITUDE, LONGITUDE, NOW);
+        assertEquals(0, index.size());
+        assertEquals(Optional.empty(), index.findOrRegister(2, "FIRE", LATITUDE, LONGITUDE, NOW));
+
+        assertEquals(0, index.evictExpired(NOW + WINDOW));
+        assertEquals(1, index.evictExpired(NOW + 3 * WINDOW));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void rejectsNonPositiveWindowOrRadius() {
+        assertThrows(IllegalArgumentException.class, () -> new RecentIncidentIndex<String>(0, RADIUS_KM));
+        assertThrows(IllegalArgumentException.class, () -> new RecentIncidentIndex<String>(WINDOW, 0));
+        assertTrue(new RecentIncidentIndex<String>(1, 0.001).findOrRegister(1, null, 0, 0, 0).isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package com.firecaptain.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SpatialCellId} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class SpatialCellIdTest {
+
+    @Test
+    void centerOfCellEncodesBackToSameCell() {
+        Random random = new Random(5);
+        for (int i = 0; i < 10000; i++) {
+            int level = 1 + random.nextInt(SpatialCellId.MAX_LEVEL);
+            double latitude = -90 + random.nextDouble() * 180;
+            double longitude = -180 + random.nextDouble() * 360;
+
+            long cell = SpatialCellId.encode(latitude, longitude, level);
+            double[] center = SpatialCellId.center(cell, level);
+            assertEquals(cell, SpatialCellId.encode(center[0], center[1], level));
+
+            // セルの中心は元の地点からセルの半分の大きさ以内
+            assertTrue(Math.abs(center[0] - latitude) <= 90.0 / (1 << level));
+            assertTrue(Math.abs(center[1] - longitude) <= 180.0 / (1 << level));
+        }
+    }
+
+    @Test
+    void interleavesColumnIntoEvenBitsAndRowIntoOddBits() {
+        // レベル1: 列0〜1（西・東）、行0〜1（南・北）
+        assertEquals(0b00, SpatialCellId.encode(-45, -90, 1));
+        assertEquals(0b01, SpatialCellId.encode(-45, 90, 1));
+        assertEquals(0b10, SpatialCellId.encode(45, -90, 1));
+        assertEquals(0b11, SpatialCellId.encode(45, 90, 1));
+    }
+
+    @Test
+    void parentAndChildrenAreConsistent() {
+        Random random = new Random(9);
+        for (int i = 0; i < 1000; i++) {
+            double latitude = -90 + random.nextDouble() * 180;
+            double longitude = -180 + random.nextDouble() * 360;
+            long fine = SpatialCellId.encode(latitude, longitude, SpatialCellId.MAX_LEVEL);
+            long block = SpatialCellId.encode(latitude, longitude, SpatialCellId.BLOCK_LEVEL);
+            long district = SpatialCellId.encode(latitude, longitude, SpatialCellId.DISTRICT_LEVEL);
+
+            assertEquals(block, SpatialCellId.parent(fine, SpatialCellId.MAX_LEVEL, SpatialCellId.BLOCK_LEVEL));
+            assertEquals(district, SpatialCellId.parent(block, SpatialCellId.BLOCK_LEVEL,
+                    SpatialCellId.DISTRICT_LEVEL));
+
+            SpatialCellId.Range children = SpatialCellId.children(district, SpatialCellId.DISTRICT_LEVEL,
+                    SpatialCellId.MAX_LEVEL);
+            assertTrue(fine >= children.first() && fine <= children.last());
+        }
+    }
+
+    @Test
+    void clampsToGridEdges() {
+        int level = 4;
+        long last = (1L << (2 * level)) - 1;
+        assertEquals(last, SpatialCellId.encode(90, 180, level));
+        assertEquals(0, SpatialCellId.encode(-90, -180, level));
+    }
+
+    @Test
+    void neighborhoodWrapsAroundDateLineAndStopsAtPoles() {
+        int level = 3;
+        long[] atDateLine = SpatialCellId.neighborhood(0.1, 179.9, level);
+        assertEquals(9, atDateLine.length);
+        assertTrue(Arrays.stream(atDateLine).anyMatch(cell -> cell == SpatialCellId.encode(0.1, -179.9, level)));
+
+        long[] atPole = SpatialCellId.neighborhood(89.9, 10, level);
+        assertEquals(6, atPole.length);
+
+        long[] single = SpatialCellId.neighborhood(45, 90, 1);
+        long[] sorted = single.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(new long[]{0b00, 0b01, 0b10, 0b11}, sorted);
+    }
+
+    @Test
+    void rejectsInvalidLevels() {
+        assertThrows(IllegalArgumentException.class, () -> SpatialCellId.encode(0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> SpatialCellId.encode(0, 0, SpatialCellId.MAX_LEVEL + 1));
+        assertThrows(IllegalArgumentException.class, () -> SpatialCellId.parent(0, 10, 12));
+        assertThrows(IllegalArgumentException.class, () -> SpatialCellId.children(0, 12, 10));
+    }
+}
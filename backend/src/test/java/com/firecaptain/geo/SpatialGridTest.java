@@ -0,0 +1,143 @@
+package com.firecaptain.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SpatialGrid} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class SpatialGridTest {
+
+    private static final double CELL_SIZE = 0.01;
+
+    @Test
+    void matchesBruteForceNearestNeighbors() {
+        Random random = new Random(42);
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_SIZE);
+        List<Point> points = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            Point point = new Point(id, 35.55 + random.nextDouble() * 0.25, 139.55 + random.nextDouble() * 0.35);
+            grid.put(point);
+            points.add(point);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            double latitude = 35.5 + random.nextDouble() * 0.35;
+            double longitude = 139.5 + random.nextDouble() * 0.45;
+            int k = 1 + random.nextInt(10);
+            double maxDistanceKm = query % 2 == 0 ? Double.POSITIVE_INFINITY : 1 + random.nextDouble() * 5;
+            Predicate<Point> filter = query % 3 == 0 ? point -> point.id() % 7 == 0 : point -> true;
+
+            assertDistances(bruteForce(points, latitude, longitude, k, maxDistanceKm, filter),
+                    grid.nearest(latitude, longitude, k, maxDistanceKm, filter));
+        }
+    }
+
+    @Test
+    void returnsAllMatchesWhenFewerThanKPassTheFilter() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_SIZE);
+        for (long id = 1; id <= 500; id++) {
+            grid.put(new Point(id, 35.6 + id * 0.0005, 139.7 + id * 0.0005));
+        }
+        // 遠く離れた要素も探索範囲に含める
+        grid.put(new Point(1000, 43.06, 141.35));
+
+        List<SpatialGrid.Neighbor<Point>> result = grid.nearest(35.6, 139.7, 5, Double.POSITIVE_INFINITY,
+                point -> point.id() == 3 || point.id() == 1000);
+        assertEquals(2, result.size());
+        assertEquals(3, result.get(0).item().id());
+        assertEquals(1000, result.get(1).item().id());
+    }
+
+    @Test
+    void findsSparseItemsBeyondRingLimit() {
+        // リングの走査上限（2000セル）より遠い要素も、全件の評価で見つかる
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_SIZE);
+        grid.put(new Point(1, 35.60, 139.70));
+        grid.put(new Point(2, 60.00, 10.00));
+        grid.put(new Point(3, -33.90, 151.20));
+
+        List<SpatialGrid.Neighbor<Point>> nearest = grid.nearest(35.60, 139.70, 3, Double.POSITIVE_INFINITY,
+                point -> true);
+
+        assertEquals(List.of(1L, 3L, 2L), nearest.stream().map(neighbor -> neighbor.item().id()).toList());
+    }
+
+    @Test
+    void tracksMovedAndRemovedItems() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_SIZE);
+        grid.put(new Point(1, 35.60, 139.70));
+        grid.put(new Point(2, 35.70, 139.80));
+
+        // 別のセルへ移動
+        Point moved = new Point(1, 35.75, 139.85);
+        grid.put(moved);
+        assertEquals(2, grid.nearest(35.60, 139.70, 1, Double.POSITIVE_INFINITY, point -> true).get(0).item().id());
+        assertEquals(moved, grid.get(1));
+
+        grid.remove(2L);
+        assertNull(grid.get(2));
+        List<SpatialGrid.Neighbor<Point>> result = grid.nearest(35.70, 139.80, 5, Double.POSITIVE_INFINITY,
+                point -> true);
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).item().id());
+    }
+
+    @Test
+    void excludesItemsWithoutLocationFromSearch() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_SIZE);
+        grid.put(new Point(1, Double.NaN, Double.NaN));
+        grid.put(new Point(2, 35.6, 139.7));
+
+        assertEquals(2, grid.size());
+        List<SpatialGrid.Neighbor<Point>> result = grid.nearest(35.6, 139.7, 5, Double.POSITIVE_INFINITY,
+                point -> true);
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).item().id());
+    }
+
+    @Test
+    void respectsMaxDistanceBoundary() {
+        SpatialGrid<Point> grid = new SpatialGrid<>(CELL_SIZE);
+        grid.put(new Point(1, 35.60, 139.70));
+        grid.put(new Point(2, 35.61, 139.70));
+        double distance = GeoUtils.distanceKm(35.60, 139.70, 35.61, 139.70);
+
+        assertEquals(2, grid.nearest(35.60, 139.70, 5, distance, point -> true).size());
+        assertEquals(1, grid.nearest(35.60, 139.70, 5, distance * 0.999, point -> true).size());
+        assertTrue(grid.nearest(35.60, 139.70, 0, distance, point -> true).isEmpty());
+    }
+
+    private static List<Double> bruteForce(List<Point> points, double latitude, double longitude, int k,
+            double maxDistanceKm, Predicate<Point> filter) {
+        return points.stream()
+                .filter(filter)
+                .map(point -> GeoUtils.distanceKm(latitude, longitude, point.latitude(), point.longitude()))
+                .filter(distance -> distance <= maxDistanceKm)
+                .sorted(Comparator.naturalOrder())
+                .limit(k)
+                .toList();
+    }
+
+    private static void assertDistances(List<Double> expected, List<SpatialGrid.Neighbor<Point>> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i).distanceKm(), 1e-9);
+        }
+    }
+
+    private record Point(long id, double latitude, double longitude) implements GeoPoint {
+    }
+}
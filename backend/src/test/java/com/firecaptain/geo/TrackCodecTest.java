@@ -0,0 +1,101 @@
+package com.firecaptain.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link TrackCodec} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class TrackCodecTest {
+
+    private static final long START = 1_717_200_000_000L;
+
+    @Test
+    void roundTripsPointsAtMicrodegreePrecision() {
+        List<TrackCodec.TrackPoint> points = randomTrack(new Random(1), 1000);
+
+        List<TrackCodec.TrackPoint> decoded = TrackCodec.decode(TrackCodec.encode(points), Long.MIN_VALUE,
+                Long.MAX_VALUE);
+
+        assertEquals(points.size(), decoded.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(points.get(i).epochMillis(), decoded.get(i).epochMillis());
+            assertEquals(points.get(i).latitude(), decoded.get(i).latitude(), 0.5e-6);
+            assertEquals(points.get(i).longitude(), decoded.get(i).longitude(), 0.5e-6);
+        }
+    }
+
+    @Test
+    void compressesTypicalTracksToAFewBytesPerPoint() {
+        byte[] data = TrackCodec.encode(randomTrack(new Random(2), 1000));
+        assertTrue(data.length < 1000 * 10, "encoded size " + data.length);
+    }
+
+    @Test
+    void roundTripsExtremeCoordinatesAndTimeJumps() {
+        List<TrackCodec.TrackPoint> points = List.of(
+                new TrackCodec.TrackPoint(0, -90, -180),
+                new TrackCodec.TrackPoint(START, 90, 180),
+                new TrackCodec.TrackPoint(START + 1, -0.000001, 0.000001));
+
+        List<TrackCodec.TrackPoint> decoded = TrackCodec.decode(TrackCodec.encode(points), Long.MIN_VALUE,
+                Long.MAX_VALUE);
+
+        assertEquals(points, decoded);
+    }
+
+    @Test
+    void decodesOnlyRequestedPeriodInclusive() {
+        List<TrackCodec.TrackPoint> points = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            points.add(new TrackCodec.TrackPoint(START + i * 1000L, 35.6, 139.7));
+        }
+        byte[] data = TrackCodec.encode(points);
+
+        List<TrackCodec.TrackPoint> decoded = TrackCodec.decode(data, START + 2000, START + 5000);
+        assertEquals(4, decoded.size());
+        assertEquals(START + 2000, decoded.get(0).epochMillis());
+        assertEquals(START + 5000, decoded.get(3).epochMillis());
+
+        assertTrue(TrackCodec.decode(data, START + 20000, START + 30000).isEmpty());
+        assertTrue(TrackCodec.decode(TrackCodec.encode(List.of()), 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void rejectsTruncatedOrUnknownData() {
+        byte[] data = TrackCodec.encode(randomTrack(new Random(3), 10));
+        byte[] truncated = java.util.Arrays.copyOf(data, data.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> TrackCodec.decode(truncated, 0, Long.MAX_VALUE));
+
+        byte[] unknownVersion = data.clone();
+        unknownVersion[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> TrackCodec.decode(unknownVersion, 0, Long.MAX_VALUE));
+    }
+
+    /**
+     * 数秒間隔で数十m ずつ移動する軌跡
+     */
+    private static List<TrackCodec.TrackPoint> randomTrack(Random random, int size) {
+        List<TrackCodec.TrackPoint> points = new ArrayList<>(size);
+        long time = START;
+        double latitude = 35.68;
+        double longitude = 139.76;
+        for (int i = 0; i < size; i++) {
+            time += 1000 + random.nextInt(4000);
+            latitude += (random.nextDouble() - 0.5) * 0.0005;
+            longitude += (random.nextDouble() - 0.5) * 0.0005;
+            points.add(new TrackCodec.TrackPoint(time, latitude, longitude));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,200 @@
+package com.firecaptain.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link IntakeJournal} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class IntakeJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversRecordsBeforeTruncatedRecord() throws IOException {
+        int end;
+        try (IntakeJournal journal = IntakeJournal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 3; i++) {
+                journal.sync(journal.append(payload(i)));
+            }
+            end = 3 * (IntakeJournal.HEADER_SIZE + payload(1).length);
+        }
+
+        // 4件目の書き込み途中で停止した状態（長さは書き込み済み、本体とCRCは未完了）
+        try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(IntakeJournal.HEADER_SIZE)
+                    .putInt(payload(4).length).putInt(0).putLong(4);
+            header.flip();
+            channel.write(header, end);
+            channel.write(ByteBuffer.wrap("rec".getBytes(StandardCharsets.UTF_8)), end + IntakeJournal.HEADER_SIZE);
+        }
+
+        try (IntakeJournal journal = IntakeJournal.open(directory, SEGMENT_SIZE)) {
+            assertEquals(3, journal.backlog());
+            assertRecords(journal.read(0, 10), 1, 2, 3);
+
+            // 破棄した位置から追記を再開する
+            journal.sync(journal.append(payload(4)));
+            assertRecords(journal.read(0, 10), 1, 2, 3, 4);
+        }
+        try (IntakeJournal journal = IntakeJournal.open(directory, SEGMENT_SIZE)) {
+            assertRecords(journal.read(0, 10), 1, 2, 3, 4);
+        }
+    }
+
+    @Test
+    void discardsRecordsAfterChecksumMismatch() throws IOException {
+        try (IntakeJournal journal = IntakeJournal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 3; i++) {
+                journal.append(payload(i));
+            }
+            journal.sync(3);
+        }
+
+        // 2件目の本体を壊す
+        int second = IntakeJournal.HEADER_SIZE + payload(1).length;
+        try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), second + IntakeJournal.HEADER_SIZE);
+        }
+
+        try (IntakeJournal journal = IntakeJournal.open(directory, SEGMENT_SIZE)) {
+            assertRecords(journal.read(0, 10), 1);
+            assertEquals(2, journal.append(payload(2)));
+        }
+    }
+
+    @Test
+    void replaysRecordsAfterCheckpointOnRestart() throws IOException {
+        try (IntakeJournal journal = IntakeJournal.open(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 5; i++) {
+                journal.append(payload(i));
+            }
+            journal.sync(5);
+            assertRecords(journal.read(0, 3), 1, 2, 3);
+            journal.markDrained(3);
+        }
+
+        try (IntakeJournal journal = IntakeJournal.open(directory, SEGMENT_SIZE)) {
+            assertEquals(3, journal.drainedSequence());
+            assertEquals(2, journal.backlog());
+            assertRecords(journal.read(journal.drainedSequence(), 10), 4, 5);
+
+            journal.markDrained(5);
+            assertEquals(0, journal.backlog());
+            assertEquals(6, journal.append(payload(6)));
+            journal.sync(6);
+        }
+
+        try (IntakeJournal journal = IntakeJournal.open(directory, SEGMENT_SIZE)) {
+            assertEquals(5, journal.drainedSequence());
+            assertRecords(journal.read(journal.drainedSequence(), 10), 6);
+        }
+    }
+
+    @Test
+    void replaysAcrossSegmentsAfterDrainedSegmentsAreDeleted() throws IOException {
+        // 1セグメントに2件ずつ格納される大きさ
+        int segmentSize = 2 * (IntakeJournal.HEADER_SIZE + payload(1).length);
+        try (IntakeJournal journal = IntakeJournal.open(directory, segmentSize)) {
+            for (int i = 1; i <= 5; i++) {
+                journal.append(payload(i));
+            }
+            journal.sync(5);
+            assertEquals(3, segmentCount());
+
+            journal.markDrained(3);
+            // 1〜2件目のセグメントのみ予備に移され、3件目を含むセグメントは残る
+            assertEquals(2, segmentCount());
+        }
+
+        try (IntakeJournal journal = IntakeJournal.open(directory, segmentSize)) {
+            assertEquals(3, journal.drainedSequence());
+            assertRecords(journal.read(journal.drainedSequence(), 10), 4, 5);
+            assertEquals(6, journal.append(payload(6)));
+        }
+    }
+
+    @Test
+    void reusesDrainedSegmentsInsteadOfMappingNewFiles() throws IOException {
+        int segmentSize = 2 * (IntakeJournal.HEADER_SIZE + payload(1).length);
+        try (IntakeJournal journal = IntakeJournal.open(directory, segmentSize)) {
+            for (int i = 1; i <= 6; i++) {
+                journal.append(payload(i));
+            }
+            journal.sync(6);
+            journal.markDrained(6);
+            // 取り出し済みの2セグメントは予備として残る
+            assertEquals(1, segmentCount());
+            assertEquals(IntakeJournal.MAX_SPARE_SEGMENTS, spareCount());
+
+            // 追記と取り出しを繰り返しても、ファイルは予備を使い回す
+            for (int i = 7; i <= 40; i++) {
+                journal.sync(journal.append(payload(i)));
+                assertRecords(journal.read(i - 1, 10), i);
+                journal.markDrained(i);
+                assertTrue(segmentCount() + spareCount() <= 1 + IntakeJournal.MAX_SPARE_SEGMENTS);
+            }
+            journal.sync(journal.append(payload(41)));
+            journal.sync(journal.append(payload(42)));
+            assertRecords(journal.read(40, 10), 41, 42);
+        }
+
+        // 予備は再起動時に削除し、再利用したセグメントの内容を復元できる
+        try (IntakeJournal journal = IntakeJournal.open(directory, segmentSize)) {
+            assertEquals(0, spareCount());
+            assertRecords(journal.read(journal.drainedSequence(), 10), 41, 42);
+            assertEquals(43, journal.append(payload(43)));
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(path -> path.getFileName().toString().startsWith("segment-")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    private long spareCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("spare-")).count();
+        }
+    }
+
+    private static byte[] payload(int number) {
+        return ("record-" + number).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void assertRecords(List<IntakeJournal.Record> records, int... expected) {
+        assertEquals(expected.length, records.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], records.get(i).sequence());
+            assertEquals("record-" + expected[i], new String(records.get(i).payload(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.firecaptain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link BusinessNumberGenerator} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class BusinessNumberGeneratorTest {
+
+    /** 2024-06-01T00:00:00.123Z */
+    private static final long START = 1_717_200_000_123L;
+
+    private final ManualClock clock = new ManualClock(START, ZoneOffset.UTC);
+    private final BusinessNumberGenerator generator = new BusinessNumberGenerator(7, clock);
+
+    @Test
+    void formatsPrefixTimestampNodeAndSequence() {
+        assertEquals("ER-20240601000000123-0007-0000", generator.next("ER"));
+        assertEquals("ER-20240601000000123-0007-0001", generator.next("ER"));
+
+        clock.set(START + 1000);
+        assertEquals("DISP-20240601000001123-0007-0000", generator.next("DISP"));
+    }
+
+    @Test
+    void staysMonotonicWhenClockGoesBackwards() {
+        long first = generator.nextId();
+        String firstNumber = generator.next("ER");
+
+        clock.set(START - 5000);
+        long second = generator.nextId();
+        String secondNumber = generator.next("ER");
+
+        assertTrue(second > first);
+        assertTrue(secondNumber.compareTo(firstNumber) > 0);
+    }
+
+    @Test
+    void formatsInUtcAcrossDaylightSavingFallBack() {
+        // 2024-11-03 01:59:59.999 EDT の次のミリ秒は 01:00:00.000 EST
+        ManualClock newYork = new ManualClock(1_730_613_599_999L, ZoneId.of("America/New_York"));
+        BusinessNumberGenerator localGenerator = new BusinessNumberGenerator(1, newYork);
+
+        String beforeFallBack = localGenerator.next("ER");
+        newYork.set(1_730_613_600_000L);
+        String afterFallBack = localGenerator.next("ER");
+
+        assertEquals("ER-20241103055959999-0001-0000", beforeFallBack);
+        assertEquals("ER-20241103060000000-0001-0000", afterFallBack);
+        assertTrue(afterFallBack.compareTo(beforeFallBack) > 0);
+    }
+
+    @Test
+    void borrowsNextMillisecondWhenSequenceIsExhausted() {
+        long previous = -1;
+        for (int i = 0; i <= BusinessNumberGenerator.MAX_SEQUENCE; i++) {
+            previous = generator.nextId();
+        }
+        long borrowed = generator.nextId();
+
+        assertTrue(borrowed > previous);
+        assertEquals("ER-20240601000000124-0007-0001", generator.next("ER"));
+    }
+
+    @Test
+    void issuesUniqueIncreasingIdsUnderConcurrency() throws Exception {
+        BusinessNumberGenerator systemGenerator = new BusinessNumberGenerator(3);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = systemGenerator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<Long> all = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(all.add(ids[i]), "duplicate id " + ids[i]);
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "not increasing within a thread");
+                    }
+                }
+            }
+            assertEquals(threads * perThread, all.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new BusinessNumberGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BusinessNumberGenerator(BusinessNumberGenerator.MAX_NODE_ID + 1));
+    }
+
+    /**
+     * 任意に進め・戻せる時計
+     */
+    private static final class ManualClock extends Clock {
+
+        private final AtomicLong millis;
+        private final ZoneId zone;
+
+        ManualClock(long millis, ZoneId zone) {
+            this.millis = new AtomicLong(millis);
+            this.zone = zone;
+        }
+
+        void set(long value) {
+            millis.set(value);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.FireStation;
+import com.firecaptain.entity.Unit;
+import com.firecaptain.repository.FireStationRepository;
+import com.firecaptain.repository.UnitRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link CoverageService} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class CoverageServiceTest {
+
+    private final UnitAvailabilityIndex index = new UnitAvailabilityIndex(mock(UnitRepository.class));
+    private final FireStationRepository fireStationRepository = mock(FireStationRepository.class);
+    private final CoverageService coverageService = new CoverageService(index, fireStationRepository,
+            mock(NotificationService.class), 2.0, 1, Set.of(Unit.UnitType.FIRE_ENGINE));
+
+    @Test
+    void recomputeCountsUnitsOnceAndFollowsLaterChanges() {
+        when(fireStationRepository.findByIsActiveTrue()).thenReturn(List.of(station(10L, 35.68, 139.76)));
+        index.refresh(unit(1L, 35.68, 139.76));
+
+        coverageService.recompute();
+        CoverageService.CoverageSummary summary = coverageService.getSummary();
+        assertTrue(summary.demandCells() > 0);
+        assertEquals(0, summary.deficitCells());
+
+        // 集計に含めたユニットの確保は1回だけ差し引かれる
+        assertTrue(index.tryReserve(Unit.UnitType.FIRE_ENGINE, index.findAvailable(Unit.UnitType.FIRE_ENGINE).get(0)));
+        assertEquals(summary.demandCells(), coverageService.getSummary().deficitCells());
+
+        index.refresh(unit(1L, 35.68, 139.76));
+        assertEquals(0, coverageService.getSummary().deficitCells());
+
+        // 再計算しても重複して数えない
+        coverageService.recompute();
+        assertTrue(index.tryReserve(Unit.UnitType.FIRE_ENGINE, index.findAvailable(Unit.UnitType.FIRE_ENGINE).get(0)));
+        assertEquals(summary.demandCells(), coverageService.getSummary().deficitCells());
+    }
+
+    private static FireStation station(long id, double latitude, double longitude) {
+        FireStation station = new FireStation();
+        station.setId(id);
+        station.setLatitude(latitude);
+        station.setLongitude(longitude);
+        return station;
+    }
+
+    private static Unit unit(long id, double latitude, double longitude) {
+        Unit unit = new Unit();
+        unit.setId(id);
+        unit.setUnitType(Unit.UnitType.FIRE_ENGINE);
+        unit.setStatus(Unit.UnitStatus.AVAILABLE);
+        unit.setCrewCount(4);
+        unit.setCurrentLatitude(latitude);
+        unit.setCurrentLongitude(longitude);
+        return unit;
+    }
+}
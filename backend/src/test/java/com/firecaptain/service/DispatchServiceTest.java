@@ -0,0 +1,98 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.Dispatch;
+import com.firecaptain.entity.Unit;
+import com.firecaptain.repository.DispatchRepository;
+import com.firecaptain.repository.DispatchUnitRepository;
+import com.firecaptain.repository.UnitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link DispatchService} の部隊割り当て完了・失敗の通知のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class DispatchServiceTest {
+
+    private final UnitAvailabilityIndex unitAvailabilityIndex = mock(UnitAvailabilityIndex.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final TransactionStatus transactionStatus = mock(TransactionStatus.class);
+
+    private final DispatchService dispatchService = new DispatchService(mock(DispatchRepository.class),
+            mock(DispatchUnitRepository.class), mock(UnitRepository.class), unitAvailabilityIndex,
+            mock(TravelTimeService.class), mock(SceneSupportService.class),
+            new DispatchSloMetrics(new SimpleMeterRegistry()), new BusinessNumberGenerator(0), transactionManager);
+
+    private final List<Dispatch> assigned = new ArrayList<>();
+    private final List<Dispatch> failed = new ArrayList<>();
+
+    DispatchServiceTest() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+    }
+
+    @Test
+    void notifiesAssignedAfterCommit() {
+        when(unitAvailabilityIndex.findAvailable(Unit.UnitType.FIRE_ENGINE)).thenReturn(List.of());
+        Dispatch dispatch = dispatch();
+
+        dispatchService.assignUnits(dispatch, assigned::add, failed::add);
+
+        verify(transactionManager).commit(transactionStatus);
+        assertEquals(List.of(dispatch), assigned);
+        assertEquals(List.of(), failed);
+    }
+
+    @Test
+    void notifiesFailureAfterRollback() {
+        when(unitAvailabilityIndex.findAvailable(Unit.UnitType.FIRE_ENGINE))
+                .thenThrow(new IllegalStateException("index unavailable"));
+        Dispatch dispatch = dispatch();
+
+        dispatchService.assignUnits(dispatch, assigned::add, failed::add);
+
+        verify(transactionManager).rollback(transactionStatus);
+        assertEquals(List.of(), assigned);
+        assertEquals(List.of(dispatch), failed);
+    }
+
+    @Test
+    void notifiesFailureOnlyWhenBatchAndIndividualAssignmentsFail() {
+        ReflectionTestUtils.setField(dispatchService, "batchingEnabled", true);
+        when(unitAvailabilityIndex.findAvailable(Unit.UnitType.FIRE_ENGINE))
+                .thenThrow(new IllegalStateException("index unavailable"));
+        Dispatch dispatch = dispatch();
+
+        dispatchService.assignUnits(dispatch, assigned::add, failed::add);
+        for (int i = 0; i < 5; i++) {
+            dispatchService.assignPendingBatch();
+        }
+
+        // 一括割り当て3回と指令ごとの割り当て1回
+        verify(transactionManager, times(4)).rollback(transactionStatus);
+        assertEquals(List.of(), assigned);
+        assertEquals(List.of(dispatch), failed);
+    }
+
+    private static Dispatch dispatch() {
+        Dispatch dispatch = new Dispatch();
+        dispatch.setId(1L);
+        dispatch.setDispatchNumber("DISP-1");
+        dispatch.setDispatchType(Dispatch.DispatchType.FIRE_ENGINE);
+        return dispatch;
+    }
+}
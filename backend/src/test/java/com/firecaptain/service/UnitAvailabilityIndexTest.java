@@ -0,0 +1,127 @@
+package com.firecaptain.service;
+
+import com.firecaptain.entity.Unit;
+import com.firecaptain.repository.UnitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link UnitAvailabilityIndex} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class UnitAvailabilityIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final UnitRepository unitRepository = mock(UnitRepository.class);
+    private final UnitAvailabilityIndex index = new UnitAvailabilityIndex(unitRepository);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuildDoesNotRestoreUnitReservedWhileReadingDatabase() {
+        Unit unit = unit(1L, 35.68, 139.76, NOW);
+        index.refresh(unit);
+        UnitAvailabilityIndex.AvailableUnit snapshot = onlyAvailable();
+
+        // データベースの読み込み後、適用前に確保された場合
+        when(unitRepository.findByStatus(Unit.UnitStatus.AVAILABLE)).thenAnswer(invocation -> {
+            assertTrue(index.tryReserve(Unit.UnitType.FIRE_ENGINE, snapshot));
+            return List.of(unit);
+        });
+        index.rebuild();
+
+        assertTrue(index.findAvailable(Unit.UnitType.FIRE_ENGINE).isEmpty());
+    }
+
+    @Test
+    void rebuildDoesNotRestoreUnitWhoseReservationIsNotCommitted() {
+        Unit unit = unit(1L, 35.68, 139.76, NOW);
+        index.refresh(unit);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(index.tryReserve(Unit.UnitType.FIRE_ENGINE, onlyAvailable()));
+
+        // 確保のコミット前に読み込んだデータベースでは、まだ待機中
+        when(unitRepository.findByStatus(Unit.UnitStatus.AVAILABLE)).thenReturn(List.of(unit));
+        index.rebuild();
+        assertTrue(index.findAvailable(Unit.UnitType.FIRE_ENGINE).isEmpty());
+
+        // ロールバックされた場合は戻す
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(1, index.findAvailable(Unit.UnitType.FIRE_ENGINE).size());
+    }
+
+    @Test
+    void rebuildKeepsPositionNewerThanDatabase() {
+        Unit unit = unit(1L, 35.68, 139.76, NOW);
+        index.refresh(unit);
+        index.moveUnit(1L, 35.70, 139.80, NOW.plusSeconds(30));
+
+        // 位置の書き込みが遅れ、データベースには古い位置が残っている
+        when(unitRepository.findByStatus(Unit.UnitStatus.AVAILABLE)).thenReturn(List.of(unit));
+        index.rebuild();
+
+        UnitAvailabilityIndex.AvailableUnit indexed = onlyAvailable();
+        assertEquals(35.70, indexed.latitude());
+        assertEquals(139.80, indexed.longitude());
+
+        // データベースの位置のほうが新しくなれば、そちらを使う
+        Unit moved = unit(1L, 35.71, 139.81, NOW.plusSeconds(60));
+        when(unitRepository.findByStatus(Unit.UnitStatus.AVAILABLE)).thenReturn(List.of(moved));
+        index.rebuild();
+
+        indexed = onlyAvailable();
+        assertEquals(35.71, indexed.latitude());
+        assertEquals(139.81, indexed.longitude());
+    }
+
+    @Test
+    void rebuildRemovesUnitsNoLongerAvailable() {
+        index.refresh(unit(1L, 35.68, 139.76, NOW));
+        index.refresh(unit(2L, 35.69, 139.77, NOW));
+
+        when(unitRepository.findByStatus(Unit.UnitStatus.AVAILABLE)).thenReturn(List.of(unit(2L, 35.69, 139.77, NOW)));
+        index.rebuild();
+
+        assertEquals(2L, onlyAvailable().id());
+    }
+
+    private UnitAvailabilityIndex.AvailableUnit onlyAvailable() {
+        List<UnitAvailabilityIndex.AvailableUnit> available = index.findAvailable(Unit.UnitType.FIRE_ENGINE);
+        assertEquals(1, available.size());
+        return available.get(0);
+    }
+
+    private static Unit unit(long id, double latitude, double longitude, LocalDateTime lastLocationUpdate) {
+        Unit unit = new Unit();
+        unit.setId(id);
+        unit.setUnitType(Unit.UnitType.FIRE_ENGINE);
+        unit.setStatus(Unit.UnitStatus.AVAILABLE);
+        unit.setMaintenanceStatus(Unit.MaintenanceStatus.OPERATIONAL);
+        unit.setCrewCount(4);
+        unit.setCurrentLatitude(latitude);
+        unit.setCurrentLongitude(longitude);
+        unit.setLastLocationUpdate(lastLocationUpdate);
+        return unit;
+    }
+}
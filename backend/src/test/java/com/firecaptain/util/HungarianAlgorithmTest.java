@@ -0,0 +1,130 @@
+package com.firecaptain.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * {@link HungarianAlgorithm} のテスト
+ *
+ * @author FireCaptain Team
+ * @version 1.0
+ */
+class HungarianAlgorithmTest {
+
+    @Test
+    void solvesSquareMatrix() {
+        // 最小は 1 + 2 + 2 = 5（他の割り当ては 6 以上）
+        double[][] cost = {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2},
+        };
+        assertArrayEquals(new int[]{1, 0, 2}, HungarianAlgorithm.solve(cost));
+        assertEquals(5.0, totalCost(cost, HungarianAlgorithm.solve(cost)), 1e-9);
+    }
+
+    @Test
+    void avoidsGreedyChoice() {
+        // 各行の最小を選ぶと列0が重複する。最小は 2 + 3 = 5（貪欲では 1 + 8 = 9）
+        double[][] cost = {
+                {1, 2},
+                {3, 8},
+        };
+        assertArrayEquals(new int[]{1, 0}, HungarianAlgorithm.solve(cost));
+    }
+
+    @Test
+    void solvesMatrixWithMoreColumnsThanRows() {
+        double[][] cost = {
+                {10, 1, 10, 7},
+                {1, 10, 10, 7},
+        };
+        assertArrayEquals(new int[]{1, 0}, HungarianAlgorithm.solve(cost));
+    }
+
+    @Test
+    void leavesRowsUnassignedWhenRowsExceedColumns() {
+        double[][] cost = {
+                {5, 9},
+                {1, 4},
+                {3, 2},
+        };
+        // 最小は 1 + 2 = 3（行1へ列0、行2へ列1）
+        assertArrayEquals(new int[]{-1, 0, 1}, HungarianAlgorithm.solve(cost));
+    }
+
+    @Test
+    void handlesEmptyMatrices() {
+        assertArrayEquals(new int[0], HungarianAlgorithm.solve(new double[0][0]));
+        assertArrayEquals(new int[]{-1, -1}, HungarianAlgorithm.solve(new double[2][0]));
+    }
+
+    @Test
+    void matchesExhaustiveSearchOnSmallMatrices() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 200; trial++) {
+            int rows = 1 + random.nextInt(5);
+            int columns = 1 + random.nextInt(5);
+            double[][] cost = new double[rows][columns];
+            for (double[] row : cost) {
+                for (int column = 0; column < columns; column++) {
+                    row[column] = random.nextInt(20);
+                }
+            }
+            int[] assignment = HungarianAlgorithm.solve(cost);
+            assertEquals(Math.min(rows, columns), assignedCount(assignment));
+            assertEquals(bruteForce(cost, 0, new boolean[columns], Math.min(rows, columns)),
+                    totalCost(cost, assignment), 1e-9);
+        }
+    }
+
+    private static double totalCost(double[][] cost, int[] assignment) {
+        double total = 0;
+        boolean[] used = new boolean[cost[0].length];
+        for (int row = 0; row < assignment.length; row++) {
+            if (assignment[row] >= 0) {
+                assertFalse(used[assignment[row]], "column assigned twice");
+                used[assignment[row]] = true;
+                total += cost[row][assignment[row]];
+            }
+        }
+        return total;
+    }
+
+    private static int assignedCount(int[] assignment) {
+        int count = 0;
+        for (int column : assignment) {
+            if (column >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 行 row 以降から、残り remaining 行に列を割り当てたときの最小コスト
+     */
+    private static double bruteForce(double[][] cost, int row, boolean[] used, int remaining) {
+        if (remaining == 0) {
+            return 0;
+        }
+        if (cost.length - row < remaining) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // この行を割り当てない場合
+        double best = bruteForce(cost, row + 1, used, remaining);
+        for (int column = 0; column < used.length; column++) {
+            if (!used[column]) {
+                used[column] = true;
+                best = Math.min(best, cost[row][column] + bruteForce(cost, row + 1, used, remaining - 1));
+                used[column] = false;
+            }
+        }
+        return best;
+    }
+}